@@ -0,0 +1,507 @@
+package api;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import db.DBConnection;
+import metrics.Metrics;
+import service.AuthService;
+import service.BookingJournal;
+import service.BookingQueryService;
+import service.Bootstrap;
+import service.CancellationService;
+import service.Flight;
+import service.FlightIndex;
+import service.FlightSearchService;
+import service.PricingEngine;
+import service.ReservationService;
+import service.SeatCluster;
+import service.SeatConflictException;
+import service.SeatInventory;
+import service.SeatLayout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingServer - Embedded HTTP front end of the service layer; every request runs on its own virtual thread.
+ * Request bodies are form-encoded (application/x-www-form-urlencoded), responses are JSON.
+ * <pre>
+ * GET    /flights?source=&amp;destination=&amp;date=yyyy-MM-dd   search
+ * GET    /flights/{id}                                   one flight
+ * GET    /flights/{id}/seats                             seat map with availability and fares
+ * POST   /reservations   flightId, email, seat*, name*, age*   book seats (all or none); 202 if journaled
+ * GET    /bookings       Authorization: Bearer {token}  bookings made with the logged-in email
+ * DELETE /bookings/{id}  Authorization: Bearer {token}  cancel a booking made with the logged-in email
+ * POST   /login          email, password                 user login; returns a session token
+ * POST   /admin/login    username, password              administrator login
+ * GET    /cluster                                        seat cluster membership and partition owners
+ * POST   /cluster/released  flightId, seat               a seat owned here was cancelled on another member
+ * </pre>
+ * With -Dcluster.enabled=true the server joins the {@link SeatCluster} at -Dcluster.advertise
+ * (default http://&lt;host address&gt;:&lt;port&gt;); reservations and seat maps of flights owned by
+ * another node are forwarded to it; every node must be given the same -Dcluster.secret.
+ * Listing and cancelling bookings need the session token returned by /login, which is valid
+ * on the server that issued it; a booking can only be cancelled by the account it was made
+ * with. Searches and reservations need no login, so the API listens on -Dapi.bindAddress
+ * (default 127.0.0.1, loopback only); set it to 0.0.0.0 or an interface address to expose it.
+ * Usage: java api.BookingServer [port] (default -Dapi.port or 8080)
+ */
+public class BookingServer
+{
+    private static final String BIND_ADDRESS = System.getProperty("api.bindAddress", "127.0.0.1");
+
+    private final HttpServer server;
+
+    public BookingServer(int port) throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(BIND_ADDRESS), port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/flights", handler(this::flights));
+        server.createContext("/reservations", handler(this::reservations));
+        server.createContext("/bookings", handler(this::bookings));
+        server.createContext("/login", handler(this::login));
+        server.createContext("/admin/login", handler(this::adminLogin));
+        server.createContext("/cluster", handler(this::cluster));
+    }
+
+    public void start()
+    {
+        server.start();
+    }
+
+    public void stop()
+    {
+        server.stop(1);
+    }
+
+    public int port()
+    {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("api.port", 8080);
+        FlightIndex.getInstance().startBackgroundRefresh();
+        Bootstrap.start();
+
+        BookingServer server = new BookingServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+        {
+            SeatCluster.getInstance().leave(); // hand partitions over before refusing requests
+            server.stop();
+            if (BookingJournal.isEnabled())
+            {
+                try
+                {
+                    BookingJournal.getInstance().close(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            DBConnection.shutdown();
+        }));
+        server.start();
+        System.out.println("Booking API listening on " + BIND_ADDRESS + ":" + server.port());
+        if (SeatCluster.isEnabled())
+        {
+            InetAddress bound = InetAddress.getByName(BIND_ADDRESS);
+            String host = bound.isAnyLocalAddress() ? InetAddress.getLocalHost().getHostAddress() : bound.getHostAddress();
+            SeatCluster.getInstance().join(System.getProperty("cluster.advertise", "http://" + host + ":" + server.port()));
+        }
+    }
+
+    // Handlers
+
+    /**
+     * Response - Status code and JSON body of a handled request.
+     */
+    private record Response(int status, String json) {}
+
+    private interface Endpoint
+    {
+        Response handle(HttpExchange ex) throws Exception;
+    }
+
+    /**
+     * Wraps an endpoint with error mapping: bad input is 400, a saturated worker pool or an
+     * unreachable seat owner 503, everything unexpected is 500.
+     */
+    private static HttpHandler handler(Endpoint endpoint)
+    {
+        return ex ->
+        {
+            Response r;
+            try
+            {
+                r = endpoint.handle(ex);
+            }
+            catch (NumberFormatException | DateTimeParseException e)
+            {
+                r = error(400, "Invalid parameter: " + e.getMessage());
+            }
+            catch (IllegalArgumentException e)
+            {
+                r = error(400, e.getMessage());
+            }
+            catch (RejectedExecutionException e)
+            {
+                r = error(503, "Server busy, try again");
+            }
+            catch (SQLTransientConnectionException e)
+            {
+                r = error(503, "Temporarily unavailable, try again");
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+                r = error(500, e instanceof SQLException ? "Database error" : "Internal error");
+            }
+
+            byte[] body = r.json().getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(r.status(), body.length);
+            try (OutputStream out = ex.getResponseBody())
+            {
+                out.write(body);
+            }
+        };
+    }
+
+    private Response flights(HttpExchange ex) throws SQLException
+    {
+        if (!"GET".equals(ex.getRequestMethod())) return error(405, "Method not allowed");
+        String[] path = segments(ex);
+        FlightSearchService search = FlightSearchService.getInstance();
+
+        if (path.length == 1)
+        {
+            Map<String, List<String>> q = query(ex);
+            List<Flight> flights = search.search(required(q, "source"), required(q, "destination"),
+                    LocalDate.parse(required(q, "date")));
+            StringBuilder sb = new StringBuilder("[");
+            for (Flight f : flights)
+            {
+                if (sb.length() > 1) sb.append(',');
+                appendFlight(sb, f);
+            }
+            return new Response(200, sb.append(']').toString());
+        }
+
+        int flightId = Integer.parseInt(path[1]);
+        Flight flight = search.flight(flightId);
+        if (flight == null) return error(404, "No such flight");
+
+        if (path.length == 2)
+        {
+            StringBuilder sb = new StringBuilder();
+            appendFlight(sb, flight);
+            return new Response(200, sb.toString());
+        }
+        if (path.length == 3 && path[2].equals("seats"))
+        {
+            SeatCluster.Node owner = forwarded(ex) ? null : SeatCluster.getInstance().remoteOwner(flightId);
+            if (owner != null)
+            {
+                try
+                {
+                    // The owner's seat map includes bookings made through other nodes
+                    SeatCluster.Reply reply = SeatCluster.getInstance().send(owner, "GET", ex.getRequestURI().getRawPath(), null);
+                    return new Response(reply.status(), reply.body());
+                }
+                catch (IOException e)
+                {
+                    Metrics.increment("cluster.forward.fallbacks");
+                }
+            }
+            return new Response(200, seatMap(flight));
+        }
+        return error(404, "Not found");
+    }
+
+    private Response reservations(HttpExchange ex) throws IOException, SQLException
+    {
+        if (!"POST".equals(ex.getRequestMethod())) return error(405, "Method not allowed");
+        Map<String, List<String>> form = form(ex);
+
+        int flightId = Integer.parseInt(required(form, "flightId"));
+        String email = required(form, "email");
+        List<String> seats = form.getOrDefault("seat", List.of());
+        List<String> names = form.getOrDefault("name", List.of());
+        List<String> ages = form.getOrDefault("age", List.of());
+        if (seats.isEmpty() || seats.size() != names.size() || seats.size() != ages.size())
+        {
+            throw new IllegalArgumentException("Give one name and age per seat.");
+        }
+
+        List<ReservationService.SeatRequest> requests = new ArrayList<>(seats.size());
+        for (int i = 0; i < seats.size(); i++)
+        {
+            requests.add(new ReservationService.SeatRequest(seats.get(i), names.get(i), Integer.parseInt(ages.get(i))));
+        }
+
+        try
+        {
+            ReservationService reservations = ReservationService.getInstance();
+            List<Integer> ids = forwarded(ex) ? reservations.reserveOwned(flightId, email, requests)
+                    : reservations.reserve(flightId, email, requests);
+            if (ids.isEmpty()) return new Response(202, "{\"journaled\":true,\"seats\":" + stringArray(seats) + "}");
+            return new Response(201, "{\"bookingIds\":" + ids + "}");
+        }
+        catch (SeatConflictException e)
+        {
+            return new Response(409, "{\"error\":\"Seats already booked\",\"seats\":" + stringArray(e.getSeats()) + "}");
+        }
+    }
+
+    private Response bookings(HttpExchange ex) throws SQLException
+    {
+        String[] path = segments(ex);
+        if ("GET".equals(ex.getRequestMethod()) && path.length == 1)
+        {
+            String email = AuthService.getInstance().sessionEmail(bearerToken(ex));
+            if (email == null) return error(401, "Log in first and send the session token");
+            StringBuilder sb = new StringBuilder("[");
+            for (BookingQueryService.Booking b : BookingQueryService.getInstance().bookingsOf(email))
+            {
+                if (sb.length() > 1) sb.append(',');
+                sb.append("{\"bookingId\":").append(b.bookingId())
+                        .append(",\"flightId\":").append(b.flightId())
+                        .append(",\"passenger\":").append(string(b.passengerName()))
+                        .append(",\"age\":").append(b.age())
+                        .append(",\"seat\":").append(string(b.seat()))
+                        .append(",\"paymentStatus\":").append(string(b.paymentStatus()))
+                        .append('}');
+            }
+            return new Response(200, sb.append(']').toString());
+        }
+        if (!"DELETE".equals(ex.getRequestMethod())) return error(405, "Method not allowed");
+        if (path.length != 2) return error(404, "Not found");
+
+        int bookingId = Integer.parseInt(path[1]);
+        String email = AuthService.getInstance().sessionEmail(bearerToken(ex));
+        if (email == null) return error(401, "Log in first and send the session token");
+        CancellationService.Cancellation c = CancellationService.getInstance().cancel(bookingId, email);
+        if (c == null) return error(404, "No matching booking");
+        return new Response(200, "{\"bookingId\":" + c.bookingId() + ",\"flightId\":" + c.flightId()
+                + ",\"seat\":" + string(c.seat()) + "}");
+    }
+
+    private Response login(HttpExchange ex) throws IOException, SQLException
+    {
+        if (!"POST".equals(ex.getRequestMethod())) return error(405, "Method not allowed");
+        Map<String, List<String>> form = form(ex);
+        AuthService.UserSession session = AuthService.getInstance().openSession(required(form, "email"), required(form, "password"));
+        if (session == null) return error(401, "Invalid credentials");
+        return new Response(200, "{\"name\":" + string(session.name()) + ",\"token\":" + string(session.token()) + "}");
+    }
+
+    private Response adminLogin(HttpExchange ex) throws IOException, SQLException
+    {
+        if (!"POST".equals(ex.getRequestMethod())) return error(405, "Method not allowed");
+        Map<String, List<String>> form = form(ex);
+        boolean ok = AuthService.getInstance().loginAdmin(required(form, "username"), required(form, "password"));
+        return ok ? new Response(200, "{\"admin\":true}") : error(401, "Invalid credentials");
+    }
+
+    private Response cluster(HttpExchange ex) throws IOException
+    {
+        String[] path = segments(ex);
+        if ("POST".equals(ex.getRequestMethod()) && path.length == 2 && path[1].equals("released"))
+        {
+            Headers h = ex.getRequestHeaders();
+            if (!SeatCluster.getInstance().isMember(h.getFirst(SeatCluster.FORWARDED_HEADER), h.getFirst(SeatCluster.SECRET_HEADER)))
+            {
+                return error(403, "Only members of the seat cluster may release seats");
+            }
+            Map<String, List<String>> form = form(ex);
+            SeatInventory.getInstance().cancel(Integer.parseInt(required(form, "flightId")), required(form, "seat"));
+            return new Response(200, "{\"released\":true}");
+        }
+        if (!"GET".equals(ex.getRequestMethod())) return error(405, "Method not allowed");
+        if (path.length != 1) return error(404, "Not found");
+
+        SeatCluster cluster = SeatCluster.getInstance();
+        SeatCluster.View view = cluster.view();
+        SeatCluster.Node self = cluster.self();
+        StringBuilder sb = new StringBuilder("{\"enabled\":").append(SeatCluster.isEnabled())
+                .append(",\"self\":").append(self == null ? "null" : string(self.id()))
+                .append(",\"nodes\":[");
+        for (int i = 0; i < view.nodes().size(); i++)
+        {
+            SeatCluster.Node n = view.nodes().get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(string(n.id())).append(",\"address\":").append(string(n.address())).append('}');
+        }
+        sb.append("],\"owners\":[");
+        for (int p = 0; p < view.owners().length; p++)
+        {
+            if (p > 0) sb.append(',');
+            sb.append(string(view.owners()[p].id()));
+        }
+        return new Response(200, sb.append("]}").toString());
+    }
+
+    // JSON output
+
+    private static void appendFlight(StringBuilder sb, Flight f)
+    {
+        sb.append("{\"flightId\":").append(f.flightId())
+                .append(",\"airline\":").append(string(f.airlineName()))
+                .append(",\"source\":").append(string(f.source()))
+                .append(",\"destination\":").append(string(f.destination()))
+                .append(",\"date\":").append(string(String.valueOf(f.date())))
+                .append(",\"departure\":").append(string(String.valueOf(f.departureTime())))
+                .append(",\"arrival\":").append(string(String.valueOf(f.arrivalTime())))
+                .append(",\"price\":").append(f.price())
+                .append('}');
+    }
+
+    private static String seatMap(Flight flight)
+    {
+        SeatInventory.FlightSeats seats = FlightSearchService.getInstance().seats(flight.flightId());
+        SeatLayout layout = seats.layout();
+        int[] fares = PricingEngine.getInstance().fares(flight.flightId(), flight.price()).current();
+
+        StringBuilder sb = new StringBuilder("{\"flightId\":").append(flight.flightId())
+                .append(",\"available\":").append(layout.capacity() - seats.bookedCount())
+                .append(",\"seats\":[");
+        for (int i = 0; i < layout.capacity(); i++)
+        {
+            if (i > 0) sb.append(',');
+            sb.append("{\"seat\":\"").append(layout.label(i))
+                    .append("\",\"available\":").append(seats.isAvailable(i, null))
+                    .append(",\"fare\":").append(fares[i]).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static Response error(int status, String message)
+    {
+        return new Response(status, "{\"error\":" + string(message) + "}");
+    }
+
+    private static String stringArray(List<String> values)
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (String v : values)
+        {
+            if (sb.length() > 1) sb.append(',');
+            sb.append(string(v));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String string(String s)
+    {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            switch (c)
+            {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default ->
+                {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // Request parsing
+
+    /**
+     * Returns the token of an "Authorization: Bearer" header, or null.
+     */
+    private static String bearerToken(HttpExchange ex)
+    {
+        String header = ex.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) return null;
+        return header.substring(7).trim();
+    }
+
+    /**
+     * Returns true if another process of the seat cluster forwarded the request; a forwarded
+     * header without the cluster secret is ignored.
+     */
+    private static boolean forwarded(HttpExchange ex)
+    {
+        Headers h = ex.getRequestHeaders();
+        return h.containsKey(SeatCluster.FORWARDED_HEADER) && SeatCluster.getInstance().isAuthentic(h.getFirst(SeatCluster.SECRET_HEADER));
+    }
+
+    private static String[] segments(HttpExchange ex)
+    {
+        String path = ex.getRequestURI().getPath();
+        while (path.endsWith("/") && path.length() > 1) path = path.substring(0, path.length() - 1);
+        return path.substring(1).split("/");
+    }
+
+    private static Map<String, List<String>> query(HttpExchange ex)
+    {
+        return parse(ex.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, List<String>> form(HttpExchange ex) throws IOException
+    {
+        try (InputStream in = ex.getRequestBody())
+        {
+            return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, List<String>> parse(String encoded)
+    {
+        Map<String, List<String>> params = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) return params;
+        for (String pair : encoded.split("&"))
+        {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.computeIfAbsent(key, _ -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+
+    private static String required(Map<String, List<String>> params, String name)
+    {
+        String value = first(params, name, "").trim();
+        if (value.isEmpty()) throw new IllegalArgumentException("Missing parameter: " + name);
+        return value;
+    }
+
+    private static String first(Map<String, List<String>> params, String name, String fallback)
+    {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? fallback : values.getFirst();
+    }
+}
@@ -0,0 +1,236 @@
+package bench;
+
+import db.DBConnection;
+import metrics.Histogram;
+import metrics.Metrics;
+import service.CancellationService;
+import service.Flight;
+import service.FlightIndex;
+import service.FlightSearchService;
+import service.ReservationService;
+import service.SeatConflictException;
+import service.SeatInventory;
+import service.SeatLayout;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BookingFlowLoadTest - End-to-end load generator for the booking flow.
+ * Every simulated user loops search -> seat map -> reserve -> (sometimes) cancel through the
+ * service layer the Swing panels and the HTTP API use, picking free seats from the seat map
+ * it just loaded, so conflicts only come from users racing for the same seats. Reports
+ * throughput, per-step latency percentiles and conflict (rolled back reservation) rates.
+ * All bookings are made as loadtest@bench.local and deleted when the run ends.
+ * Usage: java bench.BookingFlowLoadTest [users] [seconds] [cancelPercent] [seatsPerBooking] [flightId,...]
+ */
+public class BookingFlowLoadTest
+{
+    private static final String EMAIL = "loadtest@bench.local";
+
+    private static final String[] STEPS = {"search", "seats", "reserve", "cancel"};
+    private static final int SEARCH = 0, SEATS = 1, RESERVE = 2, CANCEL = 3;
+
+    private static final Histogram[] latency = new Histogram[STEPS.length];
+    private static final AtomicLong flows = new AtomicLong();
+    private static final AtomicLong conflicts = new AtomicLong();
+    private static final AtomicLong full = new AtomicLong();
+    private static final AtomicLong errors = new AtomicLong();
+
+    public static void main(String[] args) throws Exception
+    {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int cancelPercent = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int perBooking = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        FlightIndex index = FlightIndex.getInstance();
+        index.ensureLoaded();
+        List<Flight> flights = new ArrayList<>();
+        if (args.length > 4)
+        {
+            for (String id : args[4].split(","))
+            {
+                Flight f = index.get(Integer.parseInt(id.trim()));
+                if (f != null) flights.add(f);
+            }
+        }
+        else
+        {
+            flights.addAll(index.flights());
+        }
+        if (flights.isEmpty())
+        {
+            System.out.println("No flights to book. Add flights or pass existing flight IDs.");
+            DBConnection.shutdown();
+            return;
+        }
+
+        for (int i = 0; i < latency.length; i++) latency[i] = new Histogram();
+        System.out.printf("%d users, %d s, %d%% cancels, %d seats per booking, %d flights%n",
+                users, seconds, cancelPercent, perBooking, flights.size());
+
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(users);
+        for (int u = 0; u < users; u++)
+        {
+            Thread.ofVirtual().name("user-" + u).start(() ->
+            {
+                try
+                {
+                    runUser(flights, deadline, cancelPercent, perBooking);
+                }
+                finally
+                {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        report(elapsed);
+        System.out.print(Metrics.getInstance().dump());
+        System.out.println("Removed " + cleanUp(flights) + " load-test bookings.");
+        System.out.println(DBConnection.getPool().stats());
+        DBConnection.shutdown();
+    }
+
+    /**
+     * One user's session: repeats the booking flow until the deadline and keeps its own
+     * bookings so cancellations only touch seats this user holds.
+     */
+    private static void runUser(List<Flight> flights, long deadline, int cancelPercent, int perBooking)
+    {
+        FlightSearchService search = FlightSearchService.getInstance();
+        ReservationService reservations = ReservationService.getInstance();
+        CancellationService cancellations = CancellationService.getInstance();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        ArrayDeque<Integer> mine = new ArrayDeque<>();
+
+        while (System.nanoTime() < deadline)
+        {
+            Flight flight = flights.get(rnd.nextInt(flights.size()));
+            try
+            {
+                long t0 = System.nanoTime();
+                search.search(flight.source(), flight.destination(), flight.date().toLocalDate());
+                long t1 = System.nanoTime();
+                SeatInventory.FlightSeats seats = search.seats(flight.flightId());
+                List<ReservationService.SeatRequest> requests = pickSeats(seats, perBooking, rnd);
+                long t2 = System.nanoTime();
+                latency[SEARCH].record(t1 - t0);
+                latency[SEATS].record(t2 - t1);
+
+                if (requests == null)
+                {
+                    full.incrementAndGet();
+                    if (!mine.isEmpty()) cancel(cancellations, mine);
+                    continue;
+                }
+
+                try
+                {
+                    mine.addAll(reservations.reserve(flight.flightId(), EMAIL, requests));
+                    flows.incrementAndGet();
+                }
+                catch (SeatConflictException e)
+                {
+                    conflicts.incrementAndGet();
+                }
+                finally
+                {
+                    latency[RESERVE].record(System.nanoTime() - t2);
+                }
+
+                if (!mine.isEmpty() && rnd.nextInt(100) < cancelPercent)
+                {
+                    cancel(cancellations, mine);
+                }
+            }
+            catch (SQLException e)
+            {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Picks random free seats from the loaded seat map, as a user clicking through it would.
+     * @return The seat requests, or null if the flight has too few free seats
+     */
+    private static List<ReservationService.SeatRequest> pickSeats(SeatInventory.FlightSeats seats, int n, ThreadLocalRandom rnd)
+    {
+        SeatLayout layout = seats.layout();
+        int[] free = new int[layout.capacity()];
+        int count = 0;
+        for (int i = 0; i < free.length; i++)
+        {
+            if (seats.isAvailable(i, null)) free[count++] = i;
+        }
+        if (count < n) return null;
+
+        List<ReservationService.SeatRequest> requests = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+        {
+            int pick = i + rnd.nextInt(count - i);
+            int seat = free[pick];
+            free[pick] = free[i];
+            requests.add(new ReservationService.SeatRequest(layout.label(seat), "Load Test", 30));
+        }
+        return requests;
+    }
+
+    private static void cancel(CancellationService cancellations, ArrayDeque<Integer> mine) throws SQLException
+    {
+        long t0 = System.nanoTime();
+        cancellations.cancel(mine.poll(), EMAIL);
+        latency[CANCEL].record(System.nanoTime() - t0);
+    }
+
+    private static void report(double elapsed)
+    {
+        long attempts = flows.get() + conflicts.get();
+        System.out.printf("Completed bookings: %d (%.1f/s), conflicts: %d (%.2f%% rolled back), full: %d, errors: %d%n",
+                flows.get(), flows.get() / elapsed, conflicts.get(),
+                attempts == 0 ? 0.0 : 100.0 * conflicts.get() / attempts, full.get(), errors.get());
+        System.out.printf("%-8s %9s %9s %9s %9s %9s %9s %9s%n",
+                "step", "count", "ops/s", "mean ms", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int i = 0; i < STEPS.length; i++)
+        {
+            Histogram h = latency[i];
+            System.out.printf("%-8s %9d %9.0f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    STEPS[i], h.count(), h.count() / elapsed, h.mean() / 1e6,
+                    h.percentile(50) / 1e6, h.percentile(99) / 1e6, h.percentile(99.9) / 1e6, h.max() / 1e6);
+        }
+    }
+
+    /**
+     * Deletes every booking the run left behind and drops the affected seat maps.
+     */
+    private static int cleanUp(List<Flight> flights)
+    {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement("DELETE FROM bookings WHERE email = ?"))
+        {
+            pst.setString(1, EMAIL);
+            int removed = pst.executeUpdate();
+            SeatInventory inventory = SeatInventory.getInstance();
+            flights.stream().mapToInt(Flight::flightId).distinct().forEach(inventory::evict);
+            return removed;
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package bench;
+
+import db.DBConnection;
+import metrics.Histogram;
+import service.AuthService;
+import service.CancellationService;
+import service.Flight;
+import service.FlightIndex;
+import service.SeatLayout;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClusterScalingTest - Local multi-process harness for the seat cluster.
+ * Starts api.BookingServer nodes as child JVMs (same JVM options and class path as this one,
+ * plus -Dcluster.enabled=true and a shared -Dcluster.secret, random unless given) and grows the cluster 1, 2, 4, ... up to maxNodes. At each size
+ * it waits for every node to see the full membership, then clients book and cancel random seats
+ * on random flights through random nodes, as a load balancer would spread them, and the
+ * reservation throughput and its scaling efficiency against one node are reported. Finally one
+ * node is killed without leaving and the time until the survivors drop it and take over its
+ * partitions is measured while the load continues. Ends with a double-booking check; bookings
+ * are made as cluster@bench.local, which logs in on every node to cancel, and deleted afterwards
+ * together with the account. Node output goes to cluster-node-N.log.
+ * Usage: java bench.ClusterScalingTest [maxNodes] [secondsPerStep] [clients] [basePort]
+ */
+public class ClusterScalingTest
+{
+    private static final String EMAIL = "cluster@bench.local";
+    private static final String PASSWORD = "bench-password";
+    private static final String NODE_PREFIX = "bench-node-";
+    private static final int CANCEL_PERCENT = 50;
+    private static final String SECRET = System.getProperty("cluster.secret", UUID.randomUUID().toString());
+
+    private static final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private static final List<Process> processes = new ArrayList<>();
+    private static final List<String> nodes = new ArrayList<>(); // base URLs, same order as processes
+    private static final Map<String, String> tokens = new ConcurrentHashMap<>(); // base URL -> session token there
+
+    /**
+     * Step - Outcome of one load phase.
+     */
+    private record Step(int nodes, double seconds, long booked, long conflicts, long errors, Histogram latency)
+    {
+        double throughput()
+        {
+            return (booked + conflicts) / seconds;
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int basePort = args.length > 3 ? Integer.parseInt(args[3]) : 18080;
+
+        FlightIndex index = FlightIndex.getInstance();
+        index.ensureLoaded();
+        List<Integer> flights = new ArrayList<>();
+        for (Flight f : index.flights()) flights.add(f.flightId());
+        if (flights.isEmpty())
+        {
+            System.out.println("No flights to book. Add flights first.");
+            DBConnection.shutdown();
+            return;
+        }
+        System.out.printf("Up to %d nodes, %d s per step, %d clients, %d flights%n", maxNodes, seconds, clients, flights.size());
+
+        try
+        {
+            AuthService.getInstance().register("Cluster Test", EMAIL, PASSWORD);
+        }
+        catch (SQLIntegrityConstraintViolationException e)
+        {
+            // Left over from an interrupted run
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> processes.forEach(Process::destroyForcibly)));
+        List<Step> steps = new ArrayList<>();
+        try
+        {
+            for (int n = 1; n <= maxNodes; n = n == maxNodes ? n + 1 : Math.min(n * 2, maxNodes))
+            {
+                while (processes.size() < n) launch(processes.size(), basePort + processes.size());
+                long waited = awaitMembership(nodes, n, 60_000);
+                System.out.printf("%d node(s) converged in %d ms%n", n, waited);
+                for (String url : nodes) tokens.computeIfAbsent(url, ClusterScalingTest::login); // sessions live in one node
+
+                Step step = load(n, List.copyOf(nodes), flights, clients, seconds);
+                steps.add(step);
+                print(step, steps.getFirst());
+            }
+
+            if (processes.size() >= 2) failover(flights, clients, seconds);
+        }
+        finally
+        {
+            for (Process p : processes) p.destroy(); // graceful: nodes leave the cluster
+            for (Process p : processes) p.waitFor();
+            System.out.println("Double-booked seats: " + countDoubleBooked());
+            System.out.println("Removed " + cleanUp() + " cluster-test bookings.");
+            DBConnection.shutdown();
+        }
+    }
+
+    // Nodes
+
+    private static void launch(int i, int port) throws Exception
+    {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        cmd.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments()); // e.g. -Ddb.url, --enable-preview
+        cmd.add("-Dcluster.enabled=true");
+        cmd.add("-Dcluster.secret=" + SECRET);
+        cmd.add("-Dcluster.nodeId=" + NODE_PREFIX + i);
+        cmd.add("-Dcluster.advertise=http://127.0.0.1:" + port);
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add("api.BookingServer");
+        cmd.add(String.valueOf(port));
+
+        Process p = new ProcessBuilder(cmd)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("cluster-node-" + i + ".log"))
+                .start();
+        processes.add(p);
+        nodes.add("http://127.0.0.1:" + port);
+    }
+
+    /**
+     * Waits until every given node reports exactly n members.
+     * @return Milliseconds waited
+     */
+    private static long awaitMembership(List<String> urls, int n, long timeoutMillis) throws Exception
+    {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMillis * 1_000_000;
+        while (true)
+        {
+            boolean converged = true;
+            for (String url : urls)
+            {
+                String body = get(url + "/cluster");
+                if (body == null || count(body, "{\"id\":") != n)
+                {
+                    converged = false;
+                    break;
+                }
+            }
+            if (converged) return (System.nanoTime() - start) / 1_000_000;
+            if (System.nanoTime() > deadline) throw new IllegalStateException("Cluster did not converge on " + n + " nodes; see cluster-node-*.log");
+            Thread.sleep(200);
+        }
+    }
+
+    /**
+     * Kills the newest node without letting it leave and measures how long the survivors take
+     * to drop it, while bookings keep going through them.
+     */
+    private static void failover(List<Integer> flights, int clients, int seconds) throws Exception
+    {
+        int victim = processes.size() - 1;
+        List<String> survivors = List.copyOf(nodes.subList(0, victim));
+        String victimId = "\"" + NODE_PREFIX + victim + "\"";
+
+        System.out.println("Killing " + NODE_PREFIX + victim);
+        long killed = System.nanoTime();
+        processes.get(victim).destroyForcibly().waitFor();
+
+        Step[] during = new Step[1];
+        Thread loader = Thread.ofVirtual().start(() -> during[0] = load(survivors.size(), survivors, flights, clients, seconds));
+
+        long tookOver = -1;
+        while (loader.isAlive() && tookOver < 0)
+        {
+            boolean gone = true;
+            for (String url : survivors)
+            {
+                String body = get(url + "/cluster");
+                if (body == null || body.contains(victimId)) gone = false;
+            }
+            if (gone) tookOver = (System.nanoTime() - killed) / 1_000_000;
+            else Thread.sleep(100);
+        }
+        loader.join();
+
+        System.out.println(tookOver < 0 ? "Partitions did not fail over within the load phase"
+                : "Partitions failed over " + tookOver + " ms after the kill");
+        print(during[0], null);
+    }
+
+    // Load
+
+    private static Step load(int n, List<String> urls, List<Integer> flights, int clients, int seconds)
+    {
+        AtomicLong booked = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        Histogram latency = new Histogram();
+
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++)
+        {
+            Thread.ofVirtual().name("client-" + c).start(() ->
+            {
+                try
+                {
+                    runClient(urls, flights, deadline, booked, conflicts, errors, latency);
+                }
+                finally
+                {
+                    done.countDown();
+                }
+            });
+        }
+        try
+        {
+            done.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return new Step(n, (System.nanoTime() - start) / 1e9, booked.get(), conflicts.get(), errors.get(), latency);
+    }
+
+    /**
+     * One client: books a random seat through a random node and cancels about half of what it
+     * booked, so flights never fill up.
+     */
+    private static void runClient(List<String> urls, List<Integer> flights, long deadline,
+                                  AtomicLong booked, AtomicLong conflicts, AtomicLong errors, Histogram latency)
+    {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        SeatLayout layout = SeatLayout.DEFAULT;
+        ArrayDeque<Integer> mine = new ArrayDeque<>();
+
+        while (System.nanoTime() < deadline)
+        {
+            int flightId = flights.get(rnd.nextInt(flights.size()));
+            String seat = layout.label(rnd.nextInt(layout.capacity()));
+            String url = urls.get(rnd.nextInt(urls.size()));
+            try
+            {
+                long t0 = System.nanoTime();
+                HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/reservations"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("flightId=" + flightId + "&email=cluster%40bench.local&seat=" + seat
+                                + "&name=Cluster+Test&age=30", StandardCharsets.UTF_8))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                latency.record(System.nanoTime() - t0);
+
+                switch (res.statusCode())
+                {
+                    case 201 ->
+                    {
+                        booked.incrementAndGet();
+                        int from = res.body().indexOf('[') + 1;
+                        mine.add(Integer.parseInt(res.body().substring(from, res.body().indexOf(']', from)).trim()));
+                    }
+                    case 202 -> booked.incrementAndGet();
+                    case 409 -> conflicts.incrementAndGet();
+                    default -> errors.incrementAndGet();
+                }
+
+                if (!mine.isEmpty() && rnd.nextInt(100) < CANCEL_PERCENT)
+                {
+                    String node = urls.get(rnd.nextInt(urls.size()));
+                    http.send(HttpRequest.newBuilder(URI.create(node + "/bookings/" + mine.poll()))
+                            .header("Authorization", "Bearer " + tokens.get(node))
+                            .DELETE().build(), HttpResponse.BodyHandlers.discarding());
+                }
+            }
+            catch (Exception e)
+            {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    // Reporting
+
+    private static void print(Step step, Step baseline)
+    {
+        Histogram h = step.latency();
+        String efficiency = baseline == null ? "" : String.format(", scaling efficiency %.0f%%",
+                100 * step.throughput() / (step.nodes() * baseline.throughput()));
+        System.out.printf("%d node(s): %.0f reservations/s (%d booked, %d conflicts, %d errors)%s%n",
+                step.nodes(), step.throughput(), step.booked(), step.conflicts(), step.errors(), efficiency);
+        System.out.printf("    latency ms: mean %.3f, p50 %.3f, p99 %.3f, max %.3f%n",
+                h.mean() / 1e6, h.percentile(50) / 1e6, h.percentile(99) / 1e6, h.max() / 1e6);
+    }
+
+    /**
+     * Logs the test account in on one node.
+     * @return Session token, valid on that node only
+     */
+    private static String login(String url)
+    {
+        try
+        {
+            HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/login"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("email=cluster%40bench.local&password=" + PASSWORD, StandardCharsets.UTF_8))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            int from = res.body().indexOf("\"token\":\"");
+            if (res.statusCode() != 200 || from < 0) throw new IllegalStateException("Login failed on " + url + ": " + res.body());
+            from += 9;
+            return res.body().substring(from, res.body().indexOf('"', from));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String get(String url)
+    {
+        try
+        {
+            HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return res.statusCode() == 200 ? res.body() : null;
+        }
+        catch (Exception e)
+        {
+            return null; // not up yet or dead
+        }
+    }
+
+    private static int count(String s, String part)
+    {
+        int n = 0;
+        for (int at = s.indexOf(part); at >= 0; at = s.indexOf(part, at + 1)) n++;
+        return n;
+    }
+
+    private static long countDoubleBooked() throws SQLException
+    {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement("SELECT COUNT(*) FROM (SELECT flight_id, seat_number FROM bookings"
+                     + " WHERE payment_status <> ? GROUP BY flight_id, seat_number HAVING COUNT(*) > 1) d"))
+        {
+            pst.setString(1, CancellationService.CANCELLED);
+            try (ResultSet rs = pst.executeQuery())
+            {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Deletes the bookings the run left behind, the test account and the killed node's membership row.
+     */
+    private static int cleanUp()
+    {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement bookings = con.prepareStatement("DELETE FROM bookings WHERE email = ?");
+             PreparedStatement user = con.prepareStatement("DELETE FROM users WHERE email = ?");
+             PreparedStatement members = con.prepareStatement("DELETE FROM cluster_nodes WHERE node_id LIKE ?"))
+        {
+            bookings.setString(1, EMAIL);
+            int removed = bookings.executeUpdate();
+            user.setString(1, EMAIL);
+            user.executeUpdate();
+            members.setString(1, NODE_PREFIX + "%");
+            members.executeUpdate();
+            return removed;
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import db.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionPoolBenchmark - Stress benchmark comparing connects per second of the
+ * pooled DBConnection.getConnection() against a fresh DriverManager connection per call.
+ * Usage: java bench.ConnectionPoolBenchmark [threads] [seconds]
+ */
+public class ConnectionPoolBenchmark
+{
+    // Source of connections under test
+    private interface ConnectionSource
+    {
+        Connection get() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.println("Threads: " + threads + ", duration: " + seconds + "s per run");
+
+        Class.forName("com.mysql.cj.jdbc.Driver");
+        double direct = run("direct (DriverManager)", DBConnection::openDirect, threads, seconds);
+        double pooled = run("pooled (DBConnection)", DBConnection::getConnection, threads, seconds);
+
+        System.out.printf("Speed-up: %.1fx%n", pooled / direct);
+        System.out.println(DBConnection.getPool().stats());
+        DBConnection.shutdown();
+    }
+
+    /**
+     * Runs connect + "SELECT 1" + close in a loop on every thread and returns operations per second.
+     */
+    private static double run(String label, ConnectionSource source, int threads, int seconds) throws InterruptedException
+    {
+        AtomicLong ops = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++)
+        {
+            Thread t = new Thread(() ->
+            {
+                while (System.nanoTime() < deadline)
+                {
+                    try (Connection con = source.get();
+                         PreparedStatement pst = con.prepareStatement("SELECT 1");
+                         ResultSet rs = pst.executeQuery())
+                    {
+                        rs.next();
+                        ops.incrementAndGet();
+                    }
+                    catch (Exception e)
+                    {
+                        errors.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }, "bench-" + i);
+            t.start();
+        }
+        done.await();
+
+        double perSecond = ops.get() / (double) seconds;
+        System.out.printf("%-24s %10.0f connects/s  (%d ops, %d errors)%n", label, perSecond, ops.get(), errors.get());
+        return perSecond;
+    }
+}
@@ -0,0 +1,118 @@
+package bench;
+
+import db.DBConnection;
+import metrics.Metrics;
+import service.FlightImporter;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * FlightImportBenchmark - Throughput of {@link FlightImporter}.
+ * Writes a synthetic schedule of the given size (CSV or JSON lines; one record in a hundred
+ * repeats the previous one and one is invalid), imports it, then imports it again so every
+ * record is a duplicate, and prints rows per second for both runs. The flights are created
+ * under the airline "ImportBench Air" and deleted afterwards.
+ * Usage: java bench.FlightImportBenchmark [rows] [parsers] [writers] [batchSize] [csv|json]
+ */
+public class FlightImportBenchmark
+{
+    private static final String AIRLINE = "ImportBench Air";
+    private static final String[] CITIES = {"Delhi", "Mumbai", "Bengaluru", "Chennai", "Kolkata", "Hyderabad", "Pune", "Goa"};
+
+    public static void main(String[] args) throws Exception
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int parsers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int writers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 5000;
+        boolean json = args.length > 4 && args[4].equalsIgnoreCase("json");
+
+        Path file = Files.createTempFile("flights-", json ? ".jsonl" : ".csv");
+        try
+        {
+            long start = System.nanoTime();
+            generate(file, rows, json);
+            System.out.printf("Generated %,d records (%,d KB) in %.1f s%n", rows, Files.size(file) / 1024, (System.nanoTime() - start) / 1e9);
+            System.out.printf("Parsers: %d, writers: %d, batch size: %d%n", parsers, writers, batchSize);
+
+            report("Import", new FlightImporter(parsers, writers, batchSize).importFile(file, _ -> {}));
+            report("Re-import (all duplicates)", new FlightImporter(parsers, writers, batchSize).importFile(file, _ -> {}));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+            cleanup();
+        }
+        System.out.println(Metrics.getInstance().dump());
+        System.out.println(DBConnection.getPool().stats());
+        DBConnection.shutdown();
+    }
+
+    private static void report(String label, FlightImporter.Result r)
+    {
+        System.out.printf("%s: %,d records in %.2f s = %,.0f rows/s (%,d imported, %,d duplicates, %,d invalid)%n",
+                label, r.records(), r.seconds(), r.rowsPerSecond(), r.imported(), r.duplicates(), r.invalid());
+    }
+
+    /**
+     * Writes unique flights (route, day and minute of departure all follow from the row number),
+     * with every hundredth record repeating the one before and every hundredth plus fifty invalid.
+     */
+    private static void generate(Path file, int rows, boolean json) throws Exception
+    {
+        int routes = CITIES.length * (CITIES.length - 1);
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            if (!json) out.write("airline_name,source,destination,date,departure_time,arrival_time,price\n");
+            String previous = null;
+            for (int i = 0; i < rows; i++)
+            {
+                String record;
+                if (i % 100 == 99 && previous != null)
+                {
+                    record = previous;
+                }
+                else
+                {
+                    int route = i % routes;
+                    String source = CITIES[route / (CITIES.length - 1)];
+                    String destination = CITIES[(route / (CITIES.length - 1) + 1 + route % (CITIES.length - 1)) % CITIES.length];
+                    long slot = i / routes;
+                    String date = i % 100 == 50 ? "2026-02-30" : firstDay.plusDays(slot / 1440).toString();
+                    LocalTime departure = LocalTime.MIN.plusMinutes(slot % 1440);
+                    LocalTime arrival = departure.plusMinutes(75 + route * 5);
+                    int price = 2500 + (i * 37) % 9000;
+                    record = json
+                            ? "{\"airline_name\":\"" + AIRLINE + "\",\"source\":\"" + source + "\",\"destination\":\"" + destination
+                                    + "\",\"date\":\"" + date + "\",\"departure_time\":\"" + departure + "\",\"arrival_time\":\"" + arrival
+                                    + "\",\"price\":" + price + "}"
+                            : AIRLINE + "," + source + "," + destination + "," + date + "," + departure + "," + arrival + "," + price;
+                }
+                out.write(record);
+                out.write('\n');
+                previous = record;
+            }
+        }
+    }
+
+    private static void cleanup() throws Exception
+    {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement("DELETE FROM flights WHERE airline_name = ? LIMIT 10000"))
+        {
+            pst.setString(1, AIRLINE);
+            long deleted = 0;
+            int n;
+            while ((n = pst.executeUpdate()) > 0) deleted += n;
+            System.out.printf("Deleted %,d benchmark flights%n", deleted);
+        }
+    }
+}
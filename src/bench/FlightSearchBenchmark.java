@@ -0,0 +1,82 @@
+package bench;
+
+import db.DBConnection;
+import service.Flight;
+import service.FlightIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * FlightSearchBenchmark - Compares route/date searches answered by FlightIndex against
+ * the same search as a prepared SQL query. Queries are drawn from flights that exist,
+ * mixed with dates that have no flights.
+ * Usage: java bench.FlightSearchBenchmark [searches]
+ */
+public class FlightSearchBenchmark
+{
+    private record Query(String source, String destination, LocalDate date) {}
+
+    public static void main(String[] args) throws Exception
+    {
+        int searches = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        FlightIndex index = FlightIndex.getInstance();
+        long t0 = System.nanoTime();
+        index.load();
+        System.out.printf("Index load: %d flights in %.1f ms%n", index.flights().size(), (System.nanoTime() - t0) / 1e6);
+
+        List<Flight> flights = new ArrayList<>(index.flights());
+        if (flights.isEmpty())
+        {
+            System.out.println("No flights in the database; nothing to benchmark.");
+            return;
+        }
+
+        Random rnd = new Random(42);
+        List<Query> queries = new ArrayList<>(searches);
+        for (int i = 0; i < searches; i++)
+        {
+            Flight f = flights.get(rnd.nextInt(flights.size()));
+            LocalDate date = f.date().toLocalDate().plusDays(rnd.nextInt(4) == 0 ? 1 : 0);
+            queries.add(new Query(f.source(), f.destination(), date));
+        }
+
+        // In-memory index (with warm-up)
+        long hits = 0;
+        for (Query q : queries) hits += index.search(q.source(), q.destination(), q.date()).size();
+        long start = System.nanoTime();
+        for (Query q : queries) hits += index.search(q.source(), q.destination(), q.date()).size();
+        double indexMicros = (System.nanoTime() - start) / 1e3 / searches;
+
+        // SQL path, one reused connection and statement
+        int sqlSearches = Math.min(searches, 2_000);
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement("SELECT * FROM flights WHERE source = ? AND destination = ? AND date = ?"))
+        {
+            start = System.nanoTime();
+            for (int i = 0; i < sqlSearches; i++)
+            {
+                Query q = queries.get(i);
+                pst.setString(1, q.source());
+                pst.setString(2, q.destination());
+                pst.setDate(3, java.sql.Date.valueOf(q.date()));
+                try (ResultSet rs = pst.executeQuery())
+                {
+                    while (rs.next()) hits++;
+                }
+            }
+        }
+        double sqlMicros = (System.nanoTime() - start) / 1e3 / sqlSearches;
+
+        System.out.printf("Index: %8.2f us/search (%d searches)%n", indexMicros, searches);
+        System.out.printf("SQL:   %8.2f us/search (%d searches)%n", sqlMicros, sqlSearches);
+        System.out.printf("Speed-up: %.0fx (checksum %d)%n", sqlMicros / indexMicros, hits);
+        DBConnection.shutdown();
+    }
+}
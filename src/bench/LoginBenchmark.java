@@ -0,0 +1,118 @@
+package bench;
+
+import db.DBConnection;
+import metrics.Histogram;
+import metrics.Metrics;
+import service.AuthService;
+import service.PasswordHasher;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoginBenchmark - Login storm against AuthService.
+ * First times one hash verification at several PBKDF2 costs (no database), to help pick
+ * -Dauth.pbkdf2.iterations. Then many clients log in concurrently for the given time, a
+ * tenth of them with a wrong password, and the run reports logins per second, latency
+ * percentiles, logins rejected by the full hash pool and credential cache hit rate.
+ * The benchmark account is created as loginbench@bench.local and deleted afterwards.
+ * Usage: java bench.LoginBenchmark [clients] [seconds]
+ */
+public class LoginBenchmark
+{
+    private static final String EMAIL = "loginbench@bench.local";
+    private static final String PASSWORD = "bench-password";
+
+    public static void main(String[] args) throws Exception
+    {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        // Cost of one verification per iteration count
+        for (int iterations : new int[] {10_000, 60_000, 120_000, 300_000, 600_000})
+        {
+            PasswordHasher hasher = new PasswordHasher(iterations);
+            String stored = hasher.hash(PASSWORD);
+            hasher.verify(PASSWORD, stored);
+            int n = 5;
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) hasher.verify(PASSWORD, stored);
+            System.out.printf("PBKDF2 %,7d iterations: %6.1f ms per verification%n", iterations, (System.nanoTime() - start) / 1e6 / n);
+        }
+
+        AuthService auth = AuthService.getInstance();
+        auth.ensureSchema();
+        try
+        {
+            auth.register("Login Bench", EMAIL, PASSWORD);
+        }
+        catch (SQLIntegrityConstraintViolationException e)
+        {
+            // Left over from an interrupted run
+        }
+
+        Histogram latency = new Histogram();
+        AtomicLong ok = new AtomicLong();
+        AtomicLong denied = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++)
+        {
+            Thread.ofVirtual().name("login-" + c).start(() ->
+            {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline)
+                {
+                    boolean valid = rnd.nextInt(10) != 0;
+                    long t0 = System.nanoTime();
+                    try
+                    {
+                        String name = auth.login(EMAIL, valid ? PASSWORD : "wrong-password");
+                        (name != null ? ok : denied).incrementAndGet();
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        rejected.incrementAndGet();
+                        Thread.yield();
+                        continue;
+                    }
+                    catch (SQLException | RuntimeException e)
+                    {
+                        errors.incrementAndGet();
+                    }
+                    latency.record(System.nanoTime() - t0);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long hits = Metrics.getInstance().counter("auth.cache.hits").sum();
+        long misses = Metrics.getInstance().counter("auth.cache.misses").sum();
+        System.out.printf("Logins: %d ok, %d denied (%.0f/s), %d rejected by the hash pool, %d errors%n",
+                ok.get(), denied.get(), (ok.get() + denied.get()) / elapsed, rejected.get(), errors.get());
+        System.out.printf("Latency ms: p50 %.1f, p99 %.1f, p999 %.1f, max %.1f%n", latency.percentile(50) / 1e6,
+                latency.percentile(99) / 1e6, latency.percentile(99.9) / 1e6, latency.max() / 1e6);
+        System.out.printf("Credential cache: %d hits, %d misses (%.2f%% hit rate)%n", hits, misses,
+                hits + misses == 0 ? 0.0 : 100.0 * hits / (hits + misses));
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement("DELETE FROM users WHERE email = ?"))
+        {
+            pst.setString(1, EMAIL);
+            pst.executeUpdate();
+        }
+        System.out.println(DBConnection.getPool().stats());
+        DBConnection.shutdown();
+    }
+}
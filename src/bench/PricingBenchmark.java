@@ -0,0 +1,88 @@
+package bench;
+
+import service.PricingEngine;
+import service.SeatLayout;
+
+import java.math.BigDecimal;
+
+/**
+ * PricingBenchmark - Prices every seat of a full aircraft with the compiled fare table and
+ * with the previous per-seat regex/switch calculation, and times compiling the table.
+ * Needs no database.
+ * Usage: java bench.PricingBenchmark [iterations]
+ */
+public class PricingBenchmark
+{
+    public static void main(String[] args)
+    {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        SeatLayout layout = SeatLayout.DEFAULT;
+        BigDecimal base = new BigDecimal("4500");
+        PricingEngine.FareRules rules = PricingEngine.FareRules.withLoadTiers(8000, 250, 200, 150, "50:110,75:125,90:150");
+        String[] labels = new String[layout.capacity()];
+        for (int i = 0; i < labels.length; i++) labels[i] = layout.label(i);
+
+        // Table compilation (once per flight and rule change)
+        int compiles = Math.max(1, iterations / 20);
+        long sink = 0;
+        for (int i = 0; i < compiles; i++) sink += PricingEngine.compile(1, layout, base, rules).fares(0)[0];
+        long start = System.nanoTime();
+        for (int i = 0; i < compiles; i++) sink += PricingEngine.compile(1, layout, base, rules).fares(i % layout.capacity())[0];
+        double compileMicros = (System.nanoTime() - start) / 1e3 / compiles;
+
+        // Full aircraft from the compiled table
+        PricingEngine.FareTable table = PricingEngine.compile(1, layout, base, rules);
+        for (int i = 0; i < iterations; i++) sink += priceTable(table, labels, i % layout.capacity());
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += priceTable(table, labels, i % layout.capacity());
+        double tableNanos = (double) (System.nanoTime() - start) / iterations;
+
+        // Full aircraft the old way (two regexes, a switch and a BigDecimal per seat)
+        int legacyIterations = Math.max(1, iterations / 100);
+        for (int i = 0; i < legacyIterations; i++) sink += priceLegacy(labels, base).intValue();
+        start = System.nanoTime();
+        for (int i = 0; i < legacyIterations; i++) sink += priceLegacy(labels, base).intValue();
+        double legacyNanos = (double) (System.nanoTime() - start) / legacyIterations;
+
+        System.out.printf("Compile table:        %10.2f us (%d seats, %d tiers)%n", compileMicros, layout.capacity(), rules.loadThresholds().length + 1);
+        System.out.printf("Full aircraft, table: %10.0f ns%n", tableNanos);
+        System.out.printf("Full aircraft, regex: %10.0f ns%n", legacyNanos);
+        System.out.printf("Speed-up: %.0fx (checksum %d)%n", legacyNanos / tableNanos, sink);
+    }
+
+    /**
+     * Prices every seat by label, as the booking summary does.
+     */
+    private static long priceTable(PricingEngine.FareTable table, String[] labels, int booked)
+    {
+        int[] fares = table.fares(booked);
+        long total = 0;
+        for (String label : labels) total += fares[table.layout().indexOf(label)];
+        return total;
+    }
+
+    /**
+     * The per-seat calculation PaymentPanel used before the fare table.
+     */
+    private static BigDecimal priceLegacy(String[] labels, BigDecimal base)
+    {
+        BigDecimal total = BigDecimal.ZERO;
+        for (String s : labels)
+        {
+            int row = Integer.parseInt(s.replaceAll("[^0-9]", ""));
+            char col = s.replaceAll("[0-9]", "").charAt(0);
+            int seatPrice = base.intValue();
+            if (row <= 5) seatPrice = 8000;
+            seatPrice += switch (col)
+            {
+                case 'A', 'F' -> 250;
+                case 'C', 'D' -> 200;
+                case 'B', 'E' -> 150;
+                default -> 0;
+            };
+            total = total.add(BigDecimal.valueOf(seatPrice));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,150 @@
+package bench;
+
+import db.DBConnection;
+import service.CancellationService;
+import service.ReservationService;
+import service.SeatConflictException;
+import service.SeatInventory;
+import service.SeatLayout;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReservationLoadTest - Concurrent booking storm against ReservationService.
+ * Many threads race for the same seats on the given flights, then the bookings table is
+ * checked for double-booked seats. Several copies can run at once to exercise the
+ * database-side unique key across processes.
+ * Usage: java bench.ReservationLoadTest flightId[,flightId...] [threads] [seconds] [seatsPerBooking]
+ */
+public class ReservationLoadTest
+{
+    private static final String EMAIL = "loadtest@bench.local";
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.out.println("Usage: java bench.ReservationLoadTest flightId[,flightId...] [threads] [seconds] [seatsPerBooking]");
+            return;
+        }
+        String[] ids = args[0].split(",");
+        int[] flights = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) flights[i] = Integer.parseInt(ids[i].trim());
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int perBooking = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        ReservationService service = ReservationService.getInstance();
+        SeatInventory inventory = SeatInventory.getInstance();
+        SeatLayout layout = SeatLayout.DEFAULT;
+
+        AtomicLong booked = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong attempts = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++)
+        {
+            Thread worker = new Thread(() ->
+            {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline)
+                {
+                    int flightId = flights[rnd.nextInt(flights.length)];
+                    if (inventory.availableCount(flightId) < perBooking)
+                    {
+                        // Flight full: free a random booked seat so the storm keeps going
+                        cancelRandom(flightId);
+                        continue;
+                    }
+
+                    List<ReservationService.SeatRequest> requests = new ArrayList<>();
+                    int first = rnd.nextInt(layout.capacity() - perBooking + 1);
+                    for (int i = 0; i < perBooking; i++)
+                    {
+                        requests.add(new ReservationService.SeatRequest(layout.label(first + i), "Load Test", 30));
+                    }
+
+                    attempts.incrementAndGet();
+                    try
+                    {
+                        service.reserve(flightId, EMAIL, requests);
+                        booked.addAndGet(requests.size());
+                    }
+                    catch (SeatConflictException e)
+                    {
+                        conflicts.incrementAndGet();
+                    }
+                    catch (SQLException e)
+                    {
+                        errors.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }, "reserve-" + t);
+            worker.start();
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Attempts: %d, seats booked: %d, conflicts: %d, errors: %d%n",
+                attempts.get(), booked.get(), conflicts.get(), errors.get());
+        System.out.printf("Throughput: %.0f reservations/s, %.0f seats/s%n",
+                (attempts.get() - conflicts.get() - errors.get()) / elapsed, booked.get() / elapsed);
+
+        int duplicates = countDoubleBooked(flights);
+        System.out.println(duplicates == 0 ? "OK: no seat is booked twice." : "FAILED: " + duplicates + " seats are booked more than once.");
+        System.out.println(DBConnection.getPool().stats());
+        DBConnection.shutdown();
+        if (duplicates != 0) System.exit(1);
+    }
+
+    private static void cancelRandom(int flightId)
+    {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement(
+                     "DELETE FROM bookings WHERE flight_id = ? AND email = ? ORDER BY RAND() LIMIT 1"))
+        {
+            pst.setInt(1, flightId);
+            pst.setString(2, EMAIL);
+            pst.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+        SeatInventory.getInstance().reload(flightId);
+    }
+
+    private static int countDoubleBooked(int[] flights) throws SQLException
+    {
+        int total = 0;
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement(
+                     "SELECT COUNT(*) FROM (SELECT seat_number FROM bookings WHERE flight_id = ? AND payment_status <> ?"
+                             + " GROUP BY seat_number HAVING COUNT(*) > 1) d"))
+        {
+            for (int flightId : flights)
+            {
+                pst.setInt(1, flightId);
+                pst.setString(2, CancellationService.CANCELLED);
+                try (ResultSet rs = pst.executeQuery())
+                {
+                    if (rs.next()) total += rs.getInt(1);
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,430 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionPool - Bounded pool of physical JDBC connections.
+ * Hands out proxies whose close() returns the connection to the pool, validates
+ * idle connections on borrow, evicts connections idle past the timeout and
+ * reports connections held longer than the leak threshold.
+ */
+public class ConnectionPool
+{
+    // Connection settings
+    private final String url, user, password;
+
+    // Pool sizing and timeouts
+    private final int minSize, maxSize;
+    private final long borrowTimeoutMillis, idleTimeoutMillis, leakThresholdMillis, validationIntervalMillis;
+
+    // Pool state
+    private final Deque<Entry> idle = new ArrayDeque<>();
+    private final Set<Entry> inUse = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger physicalCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Counters
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong leaksReported = new AtomicLong();
+
+    // Constructor
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          long validationIntervalMillis)
+    {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+        {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, Math.max(leakThresholdMillis, 1000)) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout when the pool is exhausted.
+     * @return Pooled connection; closing it returns it to the pool
+     */
+    public Connection borrow() throws SQLException
+    {
+        if (closed) throw new SQLException("Connection pool is closed.");
+
+        try
+        {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS))
+            {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a connection (max " + maxSize + ").");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        }
+
+        try
+        {
+            Entry entry = takeValidIdle();
+            if (entry == null) entry = open();
+
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowSite = leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            entry.leakReported = false;
+            inUse.add(entry);
+            borrows.incrementAndGet();
+            return entry.newHandle();
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Pops the most recently used idle connection, validating it if it sat unused for a while.
+     */
+    private Entry takeValidIdle()
+    {
+        while (true)
+        {
+            Entry entry;
+            synchronized (idle)
+            {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) return null;
+
+            if (System.currentTimeMillis() - entry.lastUsed < validationIntervalMillis || isValid(entry))
+            {
+                return entry;
+            }
+            discard(entry);
+        }
+    }
+
+    private boolean isValid(Entry entry)
+    {
+        try
+        {
+            return entry.physical.isValid(2);
+        }
+        catch (SQLException e)
+        {
+            return false;
+        }
+    }
+
+    private Entry open() throws SQLException
+    {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        physicalCount.incrementAndGet();
+        created.incrementAndGet();
+        return new Entry(physical);
+    }
+
+    /**
+     * Returns a connection to the pool, closing any statements the caller left open
+     * and resetting transaction state.
+     */
+    private void release(Entry entry)
+    {
+        inUse.remove(entry);
+        boolean healthy = entry.reset();
+
+        if (healthy && !closed)
+        {
+            entry.lastUsed = System.currentTimeMillis();
+            synchronized (idle)
+            {
+                idle.addFirst(entry);
+            }
+        }
+        else
+        {
+            discard(entry);
+        }
+        permits.release();
+    }
+
+    private void discard(Entry entry)
+    {
+        physicalCount.decrementAndGet();
+        try
+        {
+            entry.physical.close();
+        }
+        catch (SQLException _) {}
+    }
+
+    /**
+     * Evicts idle connections past the idle timeout, tops the pool up to its minimum
+     * size and reports connections that have been held longer than the leak threshold.
+     */
+    private void housekeep()
+    {
+        if (closed) return;
+        try
+        {
+            evictAndFill();
+        }
+        catch (RuntimeException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictAndFill()
+    {
+        long now = System.currentTimeMillis();
+
+        // Idle eviction, oldest first
+        List<Entry> expired = new ArrayList<>();
+        synchronized (idle)
+        {
+            Iterator<Entry> it = idle.descendingIterator();
+            while (it.hasNext() && physicalCount.get() - expired.size() > minSize)
+            {
+                Entry entry = it.next();
+                if (now - entry.lastUsed < idleTimeoutMillis) break;
+                it.remove();
+                expired.add(entry);
+            }
+        }
+        for (Entry entry : expired)
+        {
+            discard(entry);
+            evicted.incrementAndGet();
+        }
+
+        // Keep the minimum number of warm connections
+        while (physicalCount.get() < minSize && permits.tryAcquire())
+        {
+            try
+            {
+                Entry entry = open();
+                entry.lastUsed = now;
+                synchronized (idle)
+                {
+                    idle.addLast(entry);
+                }
+            }
+            catch (SQLException e)
+            {
+                System.out.println("Connection pool could not pre-fill: " + e.getMessage());
+                break;
+            }
+            finally
+            {
+                permits.release();
+            }
+        }
+
+        // Leak detection
+        if (leakThresholdMillis > 0)
+        {
+            for (Entry entry : inUse)
+            {
+                if (!entry.leakReported && now - entry.borrowedAt > leakThresholdMillis)
+                {
+                    entry.leakReported = true;
+                    leaksReported.incrementAndGet();
+                    System.out.println("Possible connection leak: held for " + (now - entry.borrowedAt) + " ms");
+                    if (entry.borrowSite != null) entry.borrowSite.printStackTrace(System.out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeper. Borrowed connections
+     * are closed when they are returned.
+     */
+    public void close()
+    {
+        closed = true;
+        housekeeper.shutdownNow();
+        List<Entry> drained;
+        synchronized (idle)
+        {
+            drained = new ArrayList<>(idle);
+            idle.clear();
+        }
+        drained.forEach(this::discard);
+    }
+
+    /**
+     * Returns a one-line summary of pool usage.
+     */
+    public String stats()
+    {
+        int idleCount;
+        synchronized (idle)
+        {
+            idleCount = idle.size();
+        }
+        return "pool[size=" + physicalCount.get() + ", idle=" + idleCount + ", inUse=" + inUse.size()
+                + ", borrows=" + borrows.get() + ", created=" + created.get()
+                + ", evicted=" + evicted.get() + ", leaks=" + leaksReported.get() + "]";
+    }
+
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public int getActiveCount() { return inUse.size(); }
+
+    /**
+     * Entry - One physical connection plus the bookkeeping needed to recycle it.
+     */
+    private final class Entry
+    {
+        final Connection physical;
+        final List<Statement> statements = new ArrayList<>();
+        volatile long lastUsed, borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+
+        Entry(Connection physical)
+        {
+            this.physical = physical;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        Connection newHandle()
+        {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Handle(this));
+        }
+
+        /**
+         * Closes leftover statements and restores auto-commit.
+         * @return false if the connection is no longer usable
+         */
+        boolean reset()
+        {
+            for (Statement st : statements)
+            {
+                try
+                {
+                    st.close();
+                }
+                catch (SQLException _) {}
+            }
+            statements.clear();
+
+            try
+            {
+                if (physical.isClosed()) return false;
+                if (!physical.getAutoCommit())
+                {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                return true;
+            }
+            catch (SQLException e)
+            {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Handle - Proxy handler given to callers; close() releases instead of closing.
+     */
+    private final class Handle implements InvocationHandler
+    {
+        private final Entry entry;
+        private boolean released;
+
+        Handle(Entry entry)
+        {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            switch (method.getName())
+            {
+                case "close" ->
+                {
+                    if (!released)
+                    {
+                        released = true;
+                        release(entry);
+                    }
+                    return null;
+                }
+                case "isClosed" ->
+                {
+                    return released || entry.physical.isClosed();
+                }
+                case "equals" ->
+                {
+                    return proxy == args[0];
+                }
+                case "hashCode" ->
+                {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" ->
+                {
+                    return "Pooled" + entry.physical;
+                }
+            }
+
+            if (released) throw new SQLException("Connection is closed.");
+
+            try
+            {
+                Object result = method.invoke(entry.physical, args);
+                if (result instanceof Statement st) entry.statements.add(st);
+                return result;
+            }
+            catch (InvocationTargetException e)
+            {
+                throw e.getCause();
+            }
+        }
+    }
+}
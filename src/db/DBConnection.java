@@ -1,32 +1,103 @@
 package db;
 
+import metrics.Metrics;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+/**
+ * DBConnection - Static entry point for database access.
+ * Connections are served from a shared {@link ConnectionPool}; closing a connection
+ * returns it to the pool instead of tearing down the TCP session. Prepared statements are
+ * cached per pooled connection, so a statement is parsed by the server once per connection.
+ * Statements given a fetch size read their results through a server-side cursor (useCursorFetch).
+ * Pool settings can be overridden with -Ddb.pool.* system properties.
+ */
 public class DBConnection
 {
-    private static final String URL = "jdbc:mysql://localhost:3306/airline_booking";
-    private static final String USER = "root";
-    private static final String PASSWORD = "Dev@03#06";
+    private static final String URL = System.getProperty("db.url", "jdbc:mysql://localhost:3306/airline_booking?rewriteBatchedStatements=true&useServerPrepStmts=true&cachePrepStmts=true&useCursorFetch=true");
+    private static final String USER = System.getProperty("db.user", "root");
+    private static final String PASSWORD = System.getProperty("db.password", "Dev@03#06");
+
+    // Pool configuration
+    private static final int MIN_SIZE = Integer.getInteger("db.pool.min", 2);
+    private static final int MAX_SIZE = Integer.getInteger("db.pool.max", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("db.pool.borrowTimeoutMs", 5_000);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("db.pool.idleTimeoutMs", 300_000);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("db.pool.leakThresholdMs", 30_000);
+    private static final long VALIDATION_INTERVAL_MS = Long.getLong("db.pool.validationIntervalMs", 500);
+
+    private static volatile ConnectionPool pool;
 
-    public static Connection getConnection()
+    /**
+     * Borrows a pooled connection. Callers close it as before to hand it back.
+     * The wait is recorded in the db.acquire timer.
+     * @throws SQLException if the driver is missing, the database is unreachable or the pool is exhausted
+     */
+    public static Connection getConnection() throws SQLException
     {
+        long start = System.nanoTime();
         try
         {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            return getPool().borrow();
         }
         catch (ClassNotFoundException e)
         {
-            System.out.println("MYSQL JDBC Driver not found.");
-            e.printStackTrace();
+            Metrics.increment("db.acquire.failures");
+            throw new SQLException("MYSQL JDBC Driver not found.", e);
         }
         catch (SQLException e)
         {
-            System.out.println("Connection to database failed.");
-            e.printStackTrace();
+            Metrics.increment("db.acquire.failures");
+            throw e;
+        }
+        finally
+        {
+            Metrics.record("db.acquire", start);
+        }
+    }
+
+    /**
+     * Returns the shared pool, creating it on first use.
+     */
+    public static ConnectionPool getPool() throws ClassNotFoundException
+    {
+        ConnectionPool p = pool;
+        if (p == null)
+        {
+            synchronized (DBConnection.class)
+            {
+                p = pool;
+                if (p == null)
+                {
+                    Class.forName("com.mysql.cj.jdbc.Driver");
+                    p = new ConnectionPool(URL, USER, PASSWORD, MIN_SIZE, MAX_SIZE,
+                            BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS, VALIDATION_INTERVAL_MS);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Opens an unpooled connection, as every call did before pooling.
+     * Kept for benchmarks and one-off maintenance tasks.
+     */
+    public static Connection openDirect() throws SQLException
+    {
+        return java.sql.DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    /**
+     * Closes the shared pool. The next getConnection() call creates a fresh one.
+     */
+    public static synchronized void shutdown()
+    {
+        if (pool != null)
+        {
+            pool.close();
+            pool = null;
         }
-        return null;
     }
 }
@@ -0,0 +1,188 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * FlightSchema - Column mapping of the flights table, probed once per process.
+ * Installations differ in where the flight date lives (flight_date, date, or the date part
+ * of departure_time). The mapping is read from DatabaseMetaData on first use and turned
+ * into fixed SQL strings, so searches never try queries that are bound to fail.
+ */
+public final class FlightSchema
+{
+    /**
+     * DateMapping - Where the flight date is stored.
+     */
+    public enum DateMapping
+    {
+        FLIGHT_DATE("flight_date"),
+        DATE("`date`"),
+        DEPARTURE_TIME("DATE(departure_time)");
+
+        private final String expression;
+
+        DateMapping(String expression)
+        {
+            this.expression = expression;
+        }
+
+        public String expression()
+        {
+            return expression;
+        }
+    }
+
+    private static volatile FlightSchema instance;
+
+    private final DateMapping dateMapping;
+    private final String selectAllSql;
+    private final String searchSql;
+    private final String selectByIdSql;
+    private final String insertSql;
+    private final String updateSql;
+
+    private FlightSchema(DateMapping dateMapping)
+    {
+        this.dateMapping = dateMapping;
+        String select = "SELECT flight_id, airline_name, source, destination, " + dateMapping.expression()
+                + " AS flight_day, departure_time, arrival_time, price FROM flights";
+        this.selectAllSql = select;
+        this.searchSql = select + " WHERE source = ? AND destination = ? AND " + dateMapping.expression()
+                + " = ? ORDER BY departure_time";
+        this.selectByIdSql = select + " WHERE flight_id = ?";
+        String dateColumn = switch (dateMapping)
+        {
+            case FLIGHT_DATE -> "flight_date, ";
+            case DATE -> "`date`, ";
+            case DEPARTURE_TIME -> "";
+        };
+        this.insertSql = "INSERT INTO flights(airline_name, source, destination, " + dateColumn
+                + "departure_time, arrival_time, price) VALUES (?, ?, ?, " + (dateColumn.isEmpty() ? "" : "?, ") + "?, ?, ?)";
+        this.updateSql = "UPDATE flights SET airline_name = ?, source = ?, destination = ?, "
+                + (dateColumn.isEmpty() ? "" : dateColumn.replace(", ", " = ?, "))
+                + "departure_time = ?, arrival_time = ?, price = ? WHERE flight_id = ?";
+    }
+
+    /**
+     * Returns the probed schema, running the probe on first call.
+     */
+    public static FlightSchema get() throws SQLException
+    {
+        FlightSchema s = instance;
+        if (s != null) return s;
+
+        synchronized (FlightSchema.class)
+        {
+            if (instance == null)
+            {
+                try (Connection con = DBConnection.getConnection())
+                {
+                    instance = probe(con);
+                }
+            }
+            return instance;
+        }
+    }
+
+    private static FlightSchema probe(Connection con) throws SQLException
+    {
+        Set<String> columns = new HashSet<>();
+        DatabaseMetaData md = con.getMetaData();
+        try (ResultSet rs = md.getColumns(con.getCatalog(), null, "flights", null))
+        {
+            while (rs.next())
+            {
+                columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+
+        DateMapping mapping;
+        if (columns.contains("flight_date")) mapping = DateMapping.FLIGHT_DATE;
+        else if (columns.contains("date") || columns.isEmpty()) mapping = DateMapping.DATE;
+        else mapping = DateMapping.DEPARTURE_TIME;
+        return new FlightSchema(mapping);
+    }
+
+    public DateMapping dateMapping()
+    {
+        return dateMapping;
+    }
+
+    /**
+     * SELECT of every flight. Columns, in order: flight_id, airline_name, source,
+     * destination, flight_day, departure_time, arrival_time, price.
+     */
+    public String selectAllSql()
+    {
+        return selectAllSql;
+    }
+
+    /**
+     * Same columns as {@link #selectAllSql()}, filtered by source, destination and date (in that parameter order).
+     */
+    public String searchSql()
+    {
+        return searchSql;
+    }
+
+    /**
+     * Same columns as {@link #selectAllSql()}, for the one flight_id given as the parameter.
+     */
+    public String selectByIdSql()
+    {
+        return selectByIdSql;
+    }
+
+    /**
+     * INSERT of one flight. Parameters: airline_name, source, destination, then the date and
+     * times as bound by {@link #bindSchedule}, then price.
+     */
+    public String insertSql()
+    {
+        return insertSql;
+    }
+
+    /**
+     * UPDATE of one flight, with the parameters of {@link #insertSql()} followed by flight_id.
+     */
+    public String updateSql()
+    {
+        return updateSql;
+    }
+
+    /**
+     * Binds a flight's date, departure and arrival from the given parameter index on, in the
+     * columns of this schema; with DEPARTURE_TIME an arrival before the departure is on the next day.
+     * @return Index of the next parameter
+     */
+    public int bindSchedule(PreparedStatement pst, int index, LocalDate date, LocalTime departure, LocalTime arrival)
+            throws SQLException
+    {
+        if (dateMapping == DateMapping.DEPARTURE_TIME)
+        {
+            LocalDateTime dep = date.atTime(departure);
+            LocalDateTime arr = date.atTime(arrival);
+            if (arr.isBefore(dep)) arr = arr.plusDays(1);
+            pst.setTimestamp(index++, Timestamp.valueOf(dep));
+            pst.setTimestamp(index++, Timestamp.valueOf(arr));
+            return index;
+        }
+        pst.setDate(index++, Date.valueOf(date));
+        pst.setTime(index++, Time.valueOf(departure));
+        pst.setTime(index++, Time.valueOf(arrival));
+        return index;
+    }
+}
@@ -0,0 +1,131 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Metrics - Process-wide registry of latency timers and counters.
+ * Timers are {@link Histogram}s of nanoseconds, created on first use by name. The registry
+ * is published over JMX as metrics:type=Metrics and, unless -Dmetrics.logIntervalSeconds
+ * is 0 (default 60), printed to standard output at that interval.
+ * <pre>
+ * long start = System.nanoTime();
+ * try { ... } finally { Metrics.record("search", start); }
+ * </pre>
+ */
+public final class Metrics
+{
+    private static final long LOG_INTERVAL_SECONDS = Long.getLong("metrics.logIntervalSeconds", 60);
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final Map<String, Histogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    private Metrics()
+    {
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(this), new ObjectName("metrics:type=Metrics"));
+        }
+        catch (Exception e)
+        {
+            System.out.println("Metrics not registered with JMX: " + e.getMessage());
+        }
+
+        if (LOG_INTERVAL_SECONDS > 0)
+        {
+            ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread t = new Thread(r, "metrics-log");
+                t.setDaemon(true);
+                return t;
+            });
+            logger.scheduleAtFixedRate(() ->
+            {
+                if (!timers.isEmpty() || !counters.isEmpty()) System.out.print(dump());
+            }, LOG_INTERVAL_SECONDS, LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    public static Metrics getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the time elapsed since startNanos (a System.nanoTime() value) in the named timer.
+     */
+    public static void record(String name, long startNanos)
+    {
+        INSTANCE.timer(name).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds one to the named counter.
+     */
+    public static void increment(String name)
+    {
+        INSTANCE.counter(name).increment();
+    }
+
+    public Histogram timer(String name)
+    {
+        return timers.computeIfAbsent(name, _ -> new Histogram());
+    }
+
+    public LongAdder counter(String name)
+    {
+        return counters.computeIfAbsent(name, _ -> new LongAdder());
+    }
+
+    /**
+     * Returns the timers sorted by name.
+     */
+    public Map<String, Histogram> timers()
+    {
+        return new TreeMap<>(timers);
+    }
+
+    /**
+     * Returns the current counter values sorted by name.
+     */
+    public Map<String, Long> counters()
+    {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, c) -> values.put(name, c.sum()));
+        return values;
+    }
+
+    /**
+     * Clears every timer and counter. Names stay registered.
+     */
+    public void reset()
+    {
+        timers.values().forEach(Histogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Formats all timers (in milliseconds) and counters as a text table.
+     */
+    public String dump()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Metrics after %s%n", Duration.ofNanos(System.nanoTime() - startNanos).withNanos(0)));
+        sb.append(String.format("%-28s %9s %9s %9s %9s %9s %9s%n", "timer", "count", "mean ms", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        timers().forEach((name, h) -> sb.append(String.format("%-28s %9d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                name, h.count(), h.mean() / 1e6, h.percentile(50) / 1e6, h.percentile(99) / 1e6,
+                h.percentile(99.9) / 1e6, h.max() / 1e6)));
+        counters().forEach((name, value) -> sb.append(String.format("%-28s %9d%n", name, value)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+
+/**
+ * MetricsMBean - JMX view of {@link Metrics}. Every timer appears as read-only
+ * name.count, name.meanMs, name.p50Ms, name.p99Ms, name.p999Ms and name.maxMs attributes,
+ * every counter as one attribute; the attribute list grows as new names are used.
+ * Operations: reset() and dump().
+ */
+final class MetricsMBean implements DynamicMBean
+{
+    private static final String[] TIMER_FIELDS = {"count", "meanMs", "p50Ms", "p99Ms", "p999Ms", "maxMs"};
+
+    private final Metrics metrics;
+
+    MetricsMBean(Metrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException
+    {
+        Long counter = metrics.counters().get(attribute);
+        if (counter != null) return counter;
+
+        int dot = attribute.lastIndexOf('.');
+        Histogram h = dot < 0 ? null : metrics.timers().get(attribute.substring(0, dot));
+        if (h == null) throw new AttributeNotFoundException(attribute);
+        return switch (attribute.substring(dot + 1))
+        {
+            case "count" -> h.count();
+            case "meanMs" -> h.mean() / 1e6;
+            case "p50Ms" -> h.percentile(50) / 1e6;
+            case "p99Ms" -> h.percentile(99) / 1e6;
+            case "p999Ms" -> h.percentile(99.9) / 1e6;
+            case "maxMs" -> h.max() / 1e6;
+            default -> throw new AttributeNotFoundException(attribute);
+        };
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes)
+    {
+        AttributeList list = new AttributeList();
+        for (String name : attributes)
+        {
+            try
+            {
+                list.add(new Attribute(name, getAttribute(name)));
+            }
+            catch (AttributeNotFoundException e)
+            {
+                // Skipped, as the DynamicMBean contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException
+    {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes)
+    {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException
+    {
+        switch (actionName)
+        {
+            case "reset":
+                metrics.reset();
+                return null;
+            case "dump":
+                return metrics.dump();
+            default:
+                throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo()
+    {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String timer : metrics.timers().keySet())
+        {
+            for (String field : TIMER_FIELDS)
+            {
+                String type = field.equals("count") ? long.class.getName() : double.class.getName();
+                attributes.add(new MBeanAttributeInfo(timer + "." + field, type, timer + " " + field, true, false, false));
+            }
+        }
+        for (Map.Entry<String, Long> c : metrics.counters().entrySet())
+        {
+            attributes.add(new MBeanAttributeInfo(c.getKey(), long.class.getName(), c.getKey() + " counter", true, false, false));
+        }
+
+        MBeanOperationInfo[] operations = {
+                new MBeanOperationInfo("reset", "Clears all timers and counters", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION),
+                new MBeanOperationInfo("dump", "Formats all metrics as text", new MBeanParameterInfo[0], String.class.getName(), MBeanOperationInfo.INFO)
+        };
+        return new MBeanInfo(Metrics.class.getName(), "Operation latencies and counters",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, operations, null);
+    }
+}
@@ -0,0 +1,53 @@
+package service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * AsyncDb - Runs blocking data-access work on virtual threads and exposes it as CompletableFutures.
+ * Cancelling a returned future interrupts the task if it is still running.
+ */
+public final class AsyncDb
+{
+    /**
+     * Task - Unit of blocking work; may throw SQLException or any other exception.
+     */
+    @FunctionalInterface
+    public interface Task<T>
+    {
+        T call() throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("db-", 0).factory());
+
+    private AsyncDb() {}
+
+    /**
+     * Starts the task on a virtual thread.
+     * @return Future completed with the task's result or exception
+     */
+    public static <T> CompletableFuture<T> supply(Task<T> task)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = EXECUTOR.submit(() ->
+        {
+            if (result.isDone()) return; // cancelled before it started
+            try
+            {
+                result.complete(task.call());
+            }
+            catch (Throwable t)
+            {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((_, _) ->
+        {
+            if (result.isCancelled()) running.cancel(true);
+        });
+        return result;
+    }
+}
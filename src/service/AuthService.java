@@ -0,0 +1,383 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AuthService - User registration and login, and administrator login. Thread-safe.
+ * Passwords are stored as salted {@link PasswordHasher} hashes (-Dauth.pbkdf2.iterations,
+ * default 120000). Legacy plaintext passwords still log in and are re-hashed on their first
+ * successful login, as are hashes made with an older iteration count. The password columns
+ * are widened for hashes by {@link #ensureSchema}, at startup or on the first registration;
+ * until that has succeeded, registration fails rather than storing a plaintext password. A login for an unknown
+ * account still runs one hash verification, so its timing does not reveal which accounts exist.
+ * {@link #openSession} issues random bearer tokens for logged-in users, valid in this process
+ * for -Dauth.session.ttlSeconds (default 3600).
+ * Hashing runs on a bounded pool (-Dauth.hashThreads, default one per CPU, and at most
+ * -Dauth.hashQueue waiting tasks, default 256); when it is full a login fails fast with
+ * RejectedExecutionException instead of piling up. Account records are cached for
+ * -Dauth.cache.ttlSeconds (default 300), at most -Dauth.cache.size (default 10000) per
+ * table, so repeated logins skip the database.
+ */
+public final class AuthService
+{
+    private static final int ITERATIONS = Integer.getInteger("auth.pbkdf2.iterations", 120_000);
+    private static final int HASH_THREADS = Integer.getInteger("auth.hashThreads", Runtime.getRuntime().availableProcessors());
+    private static final int HASH_QUEUE = Integer.getInteger("auth.hashQueue", 256);
+    private static final int CACHE_SIZE = Integer.getInteger("auth.cache.size", 10_000);
+    private static final long CACHE_TTL_NANOS = Long.getLong("auth.cache.ttlSeconds", 300) * 1_000_000_000L;
+    private static final int HASH_COLUMN_WIDTH = 255;
+    private static final long SESSION_TTL_NANOS = Long.getLong("auth.session.ttlSeconds", 3600) * 1_000_000_000L;
+
+    private static final AuthService INSTANCE = new AuthService();
+
+    /**
+     * Table - Where one kind of account lives: login key column, display name column, timer name.
+     */
+    private record Table(String name, String keyColumn, String nameColumn, String metric) {}
+
+    private static final Table USERS = new Table("users", "email", "name", "login");
+    private static final Table ADMINS = new Table("admins", "username", "username", "admin.login");
+
+    /**
+     * Credential - Cached account record: display name and stored password value.
+     */
+    private record Credential(String name, String stored, long loadedAt) {}
+
+    /**
+     * Session - Account a bearer token was issued to.
+     */
+    private record Session(String email, long expiresAt) {}
+
+    /**
+     * UserSession - A successful login: the user's name and their session token.
+     */
+    public record UserSession(String name, String token) {}
+
+    private final PasswordHasher hasher = new PasswordHasher(ITERATIONS);
+    private final ThreadPoolExecutor hashPool;
+    private final CredentialCache users = new CredentialCache();
+    private final CredentialCache admins = new CredentialCache();
+
+    // Verified instead of a real hash when an account does not exist
+    private final Credential unknown = new Credential(null, hasher.hash(UUID.randomUUID().toString()), 0);
+
+    // Whether both password columns can hold a hash; set by ensureSchema
+    private volatile boolean hashColumnsReady;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private AuthService()
+    {
+        AtomicInteger n = new AtomicInteger();
+        hashPool = new ThreadPoolExecutor(HASH_THREADS, HASH_THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(HASH_QUEUE), r ->
+        {
+            Thread t = new Thread(r, "password-hash-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static AuthService getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Verifies user credentials.
+     * @return The user's name, or null if the credentials are invalid
+     */
+    public String login(String email, String password) throws SQLException
+    {
+        return authenticate(USERS, users, email, password);
+    }
+
+    /**
+     * Verifies administrator credentials.
+     */
+    public boolean loginAdmin(String username, String password) throws SQLException
+    {
+        return authenticate(ADMINS, admins, username, password) != null;
+    }
+
+    /**
+     * Startup schema setup: makes the users and admins password columns wide enough for hashes.
+     * Safe to call more than once; does nothing once it has succeeded.
+     * @throws SQLException if a column is too narrow and cannot be widened; registration then fails
+     */
+    public synchronized void ensureSchema() throws SQLException
+    {
+        if (hashColumnsReady) return;
+        try (Connection con = DBConnection.getConnection())
+        {
+            widenPasswordColumn(con, USERS);
+            widenPasswordColumn(con, ADMINS);
+        }
+        hashColumnsReady = true;
+    }
+
+    /**
+     * Creates a user account with a hashed password.
+     * @throws java.sql.SQLIntegrityConstraintViolationException if the email is already registered
+     * @throws SQLException if the password column cannot be set up for hashes (see {@link #ensureSchema})
+     */
+    public void register(String name, String email, String password) throws SQLException
+    {
+        ensureSchema(); // in case this process started without it; never stores a plaintext password
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection())
+        {
+            String stored = onHashPool(() -> hasher.hash(password));
+            try (PreparedStatement stm = con.prepareStatement("insert into users(name, email, password) values(?, ?, ?)"))
+            {
+                stm.setString(1, name);
+                stm.setString(2, email);
+                stm.setString(3, stored);
+                stm.executeUpdate();
+            }
+            users.remove(email);
+        }
+        finally
+        {
+            Metrics.record("register", start);
+        }
+    }
+
+    /**
+     * Verifies user credentials and issues a session token for them.
+     * @return The session, or null if the credentials are invalid
+     */
+    public UserSession openSession(String email, String password) throws SQLException
+    {
+        String name = login(email, password);
+        if (name == null) return null;
+        long now = System.nanoTime();
+        if (sessions.size() > CACHE_SIZE) sessions.values().removeIf(s -> now - s.expiresAt() > 0);
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(email, now + SESSION_TTL_NANOS));
+        return new UserSession(name, token);
+    }
+
+    /**
+     * Returns the email a session token was issued to, or null if it is unknown or expired.
+     */
+    public String sessionEmail(String token)
+    {
+        if (token == null) return null;
+        Session s = sessions.get(token);
+        if (s == null) return null;
+        if (System.nanoTime() - s.expiresAt() > 0)
+        {
+            sessions.remove(token, s);
+            return null;
+        }
+        return s.email();
+    }
+
+    /**
+     * Drops all cached accounts, e.g. after passwords were changed outside this process.
+     */
+    public void clearCache()
+    {
+        users.clear();
+        admins.clear();
+    }
+
+    // Verification
+
+    /**
+     * Checks a password against the cached or stored account. A cached account that does
+     * not match is re-read once, in case the password was changed elsewhere.
+     * @return The account's display name, or null if the credentials are invalid
+     */
+    private String authenticate(Table table, CredentialCache cache, String key, String password) throws SQLException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            Credential c = cache.get(key);
+            boolean cached = c != null;
+            Metrics.increment(cached ? "auth.cache.hits" : "auth.cache.misses");
+            if (!cached)
+            {
+                c = load(table, key);
+                if (c == null)
+                {
+                    verify(password, unknown); // same cost as a real check
+                    return null;
+                }
+                cache.put(key, c);
+            }
+
+            if (!verify(password, c))
+            {
+                if (!cached) return null;
+                Credential stale = c;
+                cache.remove(key);
+                c = load(table, key);
+                if (c == null || c.stored().equals(stale.stored())) return null;
+                cache.put(key, c);
+                if (!verify(password, c)) return null;
+            }
+
+            if (hasher.needsRehash(c.stored())) rehash(table, cache, key, password, c);
+            return c.name();
+        }
+        finally
+        {
+            Metrics.record(table.metric(), start);
+        }
+    }
+
+    private boolean verify(String password, Credential c)
+    {
+        return onHashPool(() -> hasher.verify(password, c.stored()));
+    }
+
+    /**
+     * Replaces a plaintext or outdated hash with a current one. Best effort: the login has
+     * already succeeded, so failures are only logged.
+     */
+    private void rehash(Table table, CredentialCache cache, String key, String password, Credential old)
+    {
+        if (!hashColumnsReady) return;
+        try (Connection con = DBConnection.getConnection())
+        {
+            String stored = onHashPool(() -> hasher.hash(password));
+            try (PreparedStatement pst = con.prepareStatement("update " + table.name() + " set password = ? where "
+                    + table.keyColumn() + " = ? and password = ?"))
+            {
+                pst.setString(1, stored);
+                pst.setString(2, key);
+                pst.setString(3, old.stored());
+                if (pst.executeUpdate() > 0) cache.put(key, new Credential(old.name(), stored, System.nanoTime()));
+            }
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            System.out.println("Password re-hash failed for " + table.name() + ": " + e.getMessage());
+        }
+    }
+
+    private static Credential load(Table table, String key) throws SQLException
+    {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement("select " + table.nameColumn() + ", password from "
+                     + table.name() + " where " + table.keyColumn() + " = ?"))
+        {
+            stm.setString(1, key);
+            try (ResultSet r = stm.executeQuery())
+            {
+                return r.next() ? new Credential(r.getString(1), r.getString(2), System.nanoTime()) : null;
+            }
+        }
+    }
+
+    /**
+     * Runs hashing work on the bounded pool and waits for it.
+     * @throws java.util.concurrent.RejectedExecutionException if the pool's queue is full
+     */
+    private <T> T onHashPool(Callable<T> work)
+    {
+        try
+        {
+            return hashPool.submit(work).get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password.", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Widens a table's password column for hashes if it is too narrow.
+     */
+    private static void widenPasswordColumn(Connection con, Table table) throws SQLException
+    {
+        DatabaseMetaData md = con.getMetaData();
+        boolean wide = false;
+        boolean nullable = true;
+        try (ResultSet rs = md.getColumns(con.getCatalog(), null, table.name(), "password"))
+        {
+            if (!rs.next()) throw new SQLException("No password column in " + table.name() + ".");
+            wide = rs.getInt("COLUMN_SIZE") >= HASH_COLUMN_WIDTH;
+            nullable = "YES".equals(rs.getString("IS_NULLABLE"));
+        }
+        if (wide) return;
+        try (Statement st = con.createStatement())
+        {
+            st.executeUpdate("ALTER TABLE " + table.name() + " MODIFY password VARCHAR(" + HASH_COLUMN_WIDTH + ")"
+                    + (nullable ? "" : " NOT NULL"));
+        }
+    }
+
+    /**
+     * CredentialCache - Bounded LRU map of accounts that expire after the cache TTL.
+     */
+    private static final class CredentialCache
+    {
+        private final LinkedHashMap<String, Credential> map = new LinkedHashMap<>(64, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Credential> eldest)
+            {
+                return size() > CACHE_SIZE;
+            }
+        };
+
+        synchronized Credential get(String key)
+        {
+            Credential c = map.get(key);
+            if (c != null && System.nanoTime() - c.loadedAt() > CACHE_TTL_NANOS)
+            {
+                map.remove(key);
+                return null;
+            }
+            return c;
+        }
+
+        synchronized void put(String key, Credential c)
+        {
+            map.put(key, c);
+        }
+
+        synchronized void remove(String key)
+        {
+            map.remove(key);
+        }
+
+        synchronized void clear()
+        {
+            map.clear();
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingAnalytics - In-memory occupancy, revenue and booking velocity per flight.
+ * Aggregates are updated on every committed booking and cancellation, so reading them never
+ * touches the bookings table. Revenue is estimated from the flight's fare table at the load
+ * the seat was booked at, since bookings do not store the fare paid.
+ *
+ * {@link #start()} restores the last checkpoint (-Danalytics.checkpoint.path, default
+ * analytics.checkpoint) so the numbers are available at once, then rebuilds everything from
+ * the database in one streaming pass over bookings and saves a checkpoint every
+ * -Danalytics.checkpointSeconds (default 60, 0 disables). Changes made while the rebuild runs
+ * are replayed on top of it; seat updates are idempotent, so a change seen twice counts once.
+ * Thread-safe.
+ */
+public final class BookingAnalytics
+{
+    private static final Path CHECKPOINT = Path.of(System.getProperty("analytics.checkpoint.path", "analytics.checkpoint"));
+    private static final long CHECKPOINT_SECONDS = Long.getLong("analytics.checkpointSeconds", 60);
+    private static final int MAGIC = 0x414E4C31; // "ANL1"
+    private static final int MINUTES = 60;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final BookingAnalytics INSTANCE = new BookingAnalytics();
+
+    /**
+     * FlightStats - Aggregates of one flight. Revenue is in whole currency units.
+     */
+    public record FlightStats(int flightId, int seatsSold, int capacity, long revenue, int bookingsLastHour)
+    {
+        public double loadFactor()
+        {
+            return capacity == 0 ? 0 : (double) seatsSold / capacity;
+        }
+    }
+
+    /**
+     * Summary - Totals over all flights, with booking velocity over the last 1, 5 and 60 minutes.
+     */
+    public record Summary(int flights, long seatsSold, long revenue, int lastMinute, int last5Minutes, int lastHour) {}
+
+    /**
+     * Per-minute counters for the last hour, as a ring indexed by minute. Guarded by its owner.
+     */
+    private static final class Velocity
+    {
+        final long[] minute = new long[MINUTES];
+        final int[] count = new int[MINUTES];
+
+        void add(long epochMinute, int n)
+        {
+            int slot = Math.floorMod(epochMinute, MINUTES);
+            if (minute[slot] > epochMinute) return; // older than the hour the ring holds
+            if (minute[slot] != epochMinute)
+            {
+                minute[slot] = epochMinute;
+                count[slot] = 0;
+            }
+            count[slot] += n;
+        }
+
+        int sum(long nowMinute, int minutes)
+        {
+            int total = 0;
+            for (int i = 0; i < MINUTES; i++)
+            {
+                if (minute[i] > nowMinute - minutes && minute[i] <= nowMinute) total += count[i];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Aggregate of one flight: which seats are sold and at what fare. Guarded by itself.
+     */
+    private static final class Aggregate
+    {
+        final BitSet sold = new BitSet();
+        final int[] fares;
+        final Velocity velocity = new Velocity();
+        int seats;
+        long revenue;
+
+        Aggregate(int capacity)
+        {
+            fares = new int[capacity];
+        }
+    }
+
+    // Replaced as a whole by a rebuild
+    private volatile ConcurrentHashMap<Integer, Aggregate> flights = new ConcurrentHashMap<>();
+    private final Velocity total = new Velocity();
+
+    // Changes recorded while a rebuild runs, replayed onto its result; guarded by rebuildLock
+    private final Object rebuildLock = new Object();
+    private volatile boolean rebuilding;
+    private List<Runnable> replay;
+
+    private ScheduledExecutorService scheduler;
+
+    private BookingAnalytics()
+    {
+        FlightEvents.getInstance().subscribe(event ->
+        {
+            if (event instanceof FlightEvent.Deleted) record(() -> flights.remove(event.flightId()));
+        });
+    }
+
+    public static BookingAnalytics getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Restores the checkpoint, then rebuilds from the database and checkpoints periodically,
+     * on a background thread. Safe to call more than once.
+     */
+    public synchronized void start()
+    {
+        if (scheduler != null) return;
+        try
+        {
+            restore();
+        }
+        catch (IOException ex)
+        {
+            System.out.println("Analytics checkpoint not restored: " + ex.getMessage());
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread t = new Thread(r, "booking-analytics");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(() ->
+        {
+            try
+            {
+                rebuild();
+                checkpoint();
+            }
+            catch (SQLException | IOException ex)
+            {
+                System.out.println("Analytics rebuild failed: " + ex.getMessage());
+            }
+        });
+        if (CHECKPOINT_SECONDS > 0)
+        {
+            scheduler.scheduleWithFixedDelay(() ->
+            {
+                try
+                {
+                    checkpoint();
+                }
+                catch (IOException ex)
+                {
+                    System.out.println("Analytics checkpoint failed: " + ex.getMessage());
+                }
+            }, CHECKPOINT_SECONDS, CHECKPOINT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // Updates from the booking paths
+
+    /**
+     * Records seats booked on a flight.
+     */
+    public void booked(int flightId, Collection<String> seats)
+    {
+        long minute = currentMinute();
+        List<String> copy = List.copyOf(seats);
+        record(() -> book(flights, total, flightId, copy, minute));
+    }
+
+    /**
+     * Records a cancelled or dropped booking.
+     */
+    public void released(int flightId, Collection<String> seats)
+    {
+        List<String> copy = List.copyOf(seats);
+        record(() -> release(flights, flightId, copy));
+    }
+
+    private void record(Runnable change)
+    {
+        if (rebuilding)
+        {
+            synchronized (rebuildLock)
+            {
+                if (replay != null)
+                {
+                    // Under the lock so the change lands wholly before or after the swap and replay
+                    replay.add(change);
+                    change.run();
+                    return;
+                }
+            }
+        }
+        change.run();
+    }
+
+    private static void book(Map<Integer, Aggregate> into, Velocity totals, int flightId, List<String> seats, long minute)
+    {
+        SeatLayout layout = SeatInventory.getInstance().layoutOf(flightId);
+        Aggregate a = into.computeIfAbsent(flightId, _ -> new Aggregate(layout.capacity()));
+        int[] fares = fareTable(flightId, a);
+        int added = 0;
+        synchronized (a)
+        {
+            for (String seat : seats)
+            {
+                int idx = layout.indexOf(seat);
+                if (idx < 0 || idx >= a.fares.length || a.sold.get(idx)) continue; // unknown or already counted
+                a.sold.set(idx);
+                a.fares[idx] = fares == null ? 0 : fares[idx];
+                a.revenue += a.fares[idx];
+                a.seats++;
+                added++;
+            }
+            if (added > 0) a.velocity.add(minute, added);
+        }
+        if (added > 0)
+        {
+            synchronized (totals)
+            {
+                totals.add(minute, added);
+            }
+        }
+    }
+
+    private static void release(Map<Integer, Aggregate> from, int flightId, List<String> seats)
+    {
+        Aggregate a = from.get(flightId);
+        if (a == null) return;
+        SeatLayout layout = SeatInventory.getInstance().layoutOf(flightId);
+        synchronized (a)
+        {
+            for (String seat : seats)
+            {
+                int idx = layout.indexOf(seat);
+                if (idx < 0 || idx >= a.fares.length || !a.sold.get(idx)) continue;
+                a.sold.clear(idx);
+                a.revenue -= a.fares[idx];
+                a.fares[idx] = 0;
+                a.seats--;
+            }
+        }
+    }
+
+    /**
+     * Fares at the flight's current load in the aggregate, or null if the flight is unknown.
+     */
+    private static int[] fareTable(int flightId, Aggregate a)
+    {
+        Flight f = FlightIndex.getInstance().get(flightId);
+        if (f == null || f.price() == null) return null;
+        int sold;
+        synchronized (a)
+        {
+            sold = a.seats;
+        }
+        return PricingEngine.getInstance().fares(flightId, f.price()).fares(sold);
+    }
+
+    // Reading
+
+    /**
+     * Returns the aggregates of every flight with at least one booking.
+     */
+    public List<FlightStats> flights()
+    {
+        long now = currentMinute();
+        List<FlightStats> list = new ArrayList<>();
+        for (Map.Entry<Integer, Aggregate> e : flights.entrySet())
+        {
+            Aggregate a = e.getValue();
+            synchronized (a)
+            {
+                if (a.seats > 0) list.add(new FlightStats(e.getKey(), a.seats, a.fares.length, a.revenue, a.velocity.sum(now, MINUTES)));
+            }
+        }
+        return list;
+    }
+
+    public Summary summary()
+    {
+        long now = currentMinute();
+        int count = 0;
+        long seats = 0, revenue = 0;
+        for (Aggregate a : flights.values())
+        {
+            synchronized (a)
+            {
+                if (a.seats == 0) continue;
+                count++;
+                seats += a.seats;
+                revenue += a.revenue;
+            }
+        }
+        synchronized (total)
+        {
+            return new Summary(count, seats, revenue, total.sum(now, 1), total.sum(now, 5), total.sum(now, MINUTES));
+        }
+    }
+
+    // Rebuild and checkpoint
+
+    /**
+     * Recomputes every aggregate in one pass over the bookings table, read through a cursor in
+     * primary key order, and swaps the result in.
+     */
+    public void rebuild() throws SQLException
+    {
+        long start = System.nanoTime();
+        synchronized (rebuildLock)
+        {
+            replay = new ArrayList<>();
+            rebuilding = true;
+        }
+        ConcurrentHashMap<Integer, Aggregate> fresh = new ConcurrentHashMap<>();
+        Velocity freshTotal = new Velocity();
+        long rows = 0;
+        try
+        {
+            FlightIndex.getInstance().ensureLoaded();
+            try (Connection con = DBConnection.getConnection())
+            {
+                try (PreparedStatement pst = con.prepareStatement("SELECT flight_id, seat_number, booking_time FROM bookings"
+                        + " WHERE payment_status <> ? ORDER BY booking_id"))
+                {
+                    pst.setString(1, CancellationService.CANCELLED);
+                    pst.setFetchSize(FETCH_SIZE);
+                    try (ResultSet r = pst.executeQuery())
+                    {
+                        while (r.next())
+                        {
+                            Timestamp at = r.getTimestamp(3);
+                            long minute = at == null ? 0 : at.getTime() / 60_000;
+                            book(fresh, freshTotal, r.getInt(1), List.of(r.getString(2)), minute);
+                            rows++;
+                        }
+                    }
+                }
+            }
+
+            synchronized (rebuildLock)
+            {
+                flights = fresh;
+                synchronized (total)
+                {
+                    System.arraycopy(freshTotal.minute, 0, total.minute, 0, MINUTES);
+                    System.arraycopy(freshTotal.count, 0, total.count, 0, MINUTES);
+                }
+                for (Runnable change : replay) change.run();
+            }
+        }
+        finally
+        {
+            synchronized (rebuildLock)
+            {
+                replay = null;
+                rebuilding = false;
+            }
+            Metrics.record("analytics.rebuild", start);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Analytics rebuilt from %,d bookings in %.1f s (%,.0f rows/s)%n", rows, seconds, rows / Math.max(seconds, 1e-9));
+    }
+
+    /**
+     * Writes all aggregates to the checkpoint file, replacing it atomically.
+     */
+    public void checkpoint() throws IOException
+    {
+        long start = System.nanoTime();
+        Path tmp = CHECKPOINT.resolveSibling(CHECKPOINT.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+        {
+            out.writeInt(MAGIC);
+            writeVelocity(out, total);
+            for (Map.Entry<Integer, Aggregate> e : flights.entrySet())
+            {
+                Aggregate a = e.getValue();
+                synchronized (a)
+                {
+                    if (a.seats == 0) continue;
+                    out.writeBoolean(true);
+                    out.writeInt(e.getKey());
+                    out.writeInt(a.fares.length);
+                    out.writeInt(a.seats);
+                    for (int idx = a.sold.nextSetBit(0); idx >= 0; idx = a.sold.nextSetBit(idx + 1))
+                    {
+                        out.writeInt(idx);
+                        out.writeInt(a.fares[idx]);
+                    }
+                    writeVelocity(out, a.velocity);
+                }
+            }
+            out.writeBoolean(false);
+        }
+        Files.move(tmp, CHECKPOINT, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Metrics.record("analytics.checkpoint", start);
+    }
+
+    private void restore() throws IOException
+    {
+        ConcurrentHashMap<Integer, Aggregate> restored = new ConcurrentHashMap<>();
+        Velocity restoredTotal = new Velocity();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(CHECKPOINT))))
+        {
+            if (in.readInt() != MAGIC) throw new IOException("not an analytics checkpoint");
+            readVelocity(in, restoredTotal);
+            while (in.readBoolean())
+            {
+                int flightId = in.readInt();
+                Aggregate a = new Aggregate(in.readInt());
+                int seats = in.readInt();
+                for (int i = 0; i < seats; i++)
+                {
+                    int idx = in.readInt();
+                    int fare = in.readInt();
+                    if (idx < 0 || idx >= a.fares.length) throw new IOException("seat index out of range");
+                    a.sold.set(idx);
+                    a.fares[idx] = fare;
+                    a.revenue += fare;
+                }
+                a.seats = seats;
+                readVelocity(in, a.velocity);
+                restored.put(flightId, a);
+            }
+        }
+        catch (NoSuchFileException ex)
+        {
+            return; // first run
+        }
+        flights = restored;
+        synchronized (total)
+        {
+            System.arraycopy(restoredTotal.minute, 0, total.minute, 0, MINUTES);
+            System.arraycopy(restoredTotal.count, 0, total.count, 0, MINUTES);
+        }
+    }
+
+    private static void writeVelocity(DataOutputStream out, Velocity v) throws IOException
+    {
+        for (int i = 0; i < MINUTES; i++)
+        {
+            out.writeLong(v.minute[i]);
+            out.writeInt(v.count[i]);
+        }
+    }
+
+    private static void readVelocity(DataInputStream in, Velocity v) throws IOException
+    {
+        for (int i = 0; i < MINUTES; i++)
+        {
+            v.minute[i] = in.readLong();
+            v.count[i] = in.readInt();
+        }
+    }
+
+    private static long currentMinute()
+    {
+        return System.currentTimeMillis() / 60_000;
+    }
+}
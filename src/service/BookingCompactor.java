@@ -0,0 +1,188 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingCompactor - Background purge of cancelled bookings.
+ * Cancellation only marks a row {@link CancellationService#CANCELLED}; this compactor copies
+ * such rows to bookings_archive and deletes them in large batches, one transaction per batch,
+ * so deletes do not contend with booking traffic. Cancelled rows no longer hold their seat's
+ * unique key, so a seat can be booked again before its old row is purged. It runs every -Dbookings.purge.intervalSeconds
+ * (default 300) inside the off-peak window -Dbookings.purge.window (HH:mm-HH:mm, default
+ * 01:00-05:00, empty for any time), -Dbookings.purge.batchSize rows at a time (default 5000).
+ * -Dbookings.purge.archive=false deletes without archiving. Each run reports its throughput.
+ */
+public final class BookingCompactor
+{
+    private static final int BATCH_SIZE = Integer.getInteger("bookings.purge.batchSize", 5000);
+    private static final long INTERVAL_SECONDS = Long.getLong("bookings.purge.intervalSeconds", 300);
+    private static final String WINDOW = System.getProperty("bookings.purge.window", "01:00-05:00");
+    private static final boolean ARCHIVE = Boolean.parseBoolean(System.getProperty("bookings.purge.archive", "true"));
+
+    // Copied by name, so either table may gain columns (bookings has the generated active_seat)
+    private static final String ARCHIVE_COLUMNS =
+            "booking_id, flight_id, passenger_name, age, email, seat_number, payment_status, booking_time";
+
+    private static final BookingCompactor INSTANCE = new BookingCompactor();
+
+    private static volatile boolean archiveReady;
+
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private ScheduledExecutorService scheduler;
+
+    private BookingCompactor()
+    {
+        if (WINDOW.isBlank())
+        {
+            windowStart = windowEnd = null;
+        }
+        else
+        {
+            String[] parts = WINDOW.split("-");
+            windowStart = LocalTime.parse(parts[0].trim());
+            windowEnd = LocalTime.parse(parts[1].trim());
+        }
+    }
+
+    public static BookingCompactor getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Schedules the periodic purge. Safe to call more than once.
+     */
+    public synchronized void start()
+    {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread t = new Thread(r, "booking-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() ->
+        {
+            if (!inWindow(LocalTime.now())) return;
+            try
+            {
+                purge();
+            }
+            catch (SQLException ex)
+            {
+                System.out.println("Booking purge failed: " + ex.getMessage());
+            }
+        }, INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns true if the time is inside the purge window; windows may wrap past midnight.
+     */
+    public boolean inWindow(LocalTime now)
+    {
+        if (windowStart == null) return true;
+        return windowStart.isBefore(windowEnd)
+                ? !now.isBefore(windowStart) && now.isBefore(windowEnd)
+                : !now.isBefore(windowStart) || now.isBefore(windowEnd);
+    }
+
+    /**
+     * Archives and deletes cancelled bookings batch by batch until none are left or the
+     * window closes, and prints the throughput.
+     * @return Number of rows purged
+     */
+    public long purge() throws SQLException
+    {
+        long start = System.nanoTime();
+        long total = 0;
+        try (Connection con = DBConnection.getConnection())
+        {
+            ensureArchive(con);
+            con.setAutoCommit(false);
+            int purged;
+            do
+            {
+                long batchStart = System.nanoTime();
+                purged = moveToArchive(con, cancelledIds(con));
+                con.commit();
+                if (purged > 0) Metrics.record("bookings.purge.batch", batchStart);
+                total += purged;
+            }
+            while (purged == BATCH_SIZE && inWindow(LocalTime.now()));
+        }
+
+        if (total > 0)
+        {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Metrics.getInstance().counter("bookings.purged").add(total);
+            System.out.printf("Purged %d cancelled bookings in %.1f s (%.0f rows/s)%n", total, seconds, total / seconds);
+        }
+        return total;
+    }
+
+    private static List<Integer> cancelledIds(Connection con) throws SQLException
+    {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement pst = con.prepareStatement("SELECT booking_id FROM bookings WHERE payment_status = ?"
+                + " ORDER BY booking_id LIMIT " + BATCH_SIZE + " FOR UPDATE"))
+        {
+            pst.setString(1, CancellationService.CANCELLED);
+            try (ResultSet rs = pst.executeQuery())
+            {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Copies the rows to the archive (unless disabled) and deletes them, inside the caller's transaction.
+     */
+    private static int moveToArchive(Connection con, List<Integer> ids) throws SQLException
+    {
+        if (ids.isEmpty()) return 0;
+        StringBuilder in = new StringBuilder("(");
+        for (int i = 0; i < ids.size(); i++) in.append(i == 0 ? "" : ",").append(ids.get(i));
+        in.append(')');
+
+        try (Statement st = con.createStatement())
+        {
+            if (ARCHIVE)
+            {
+                st.executeUpdate("INSERT INTO bookings_archive (" + ARCHIVE_COLUMNS + ") SELECT " + ARCHIVE_COLUMNS
+                        + " FROM bookings WHERE booking_id IN " + in);
+            }
+            return st.executeUpdate("DELETE FROM bookings WHERE booking_id IN " + in);
+        }
+    }
+
+    /**
+     * Creates bookings_archive with the archived columns of bookings but none of its keys, so the same
+     * seat can be archived any number of times. DDL commits implicitly, so this runs before
+     * any transaction work.
+     */
+    private static void ensureArchive(Connection con) throws SQLException
+    {
+        if (!ARCHIVE || archiveReady) return;
+        try (Statement st = con.createStatement())
+        {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS bookings_archive AS SELECT " + ARCHIVE_COLUMNS
+                    + " FROM bookings WHERE 1 = 0");
+        }
+        archiveReady = true;
+    }
+}
@@ -0,0 +1,619 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * BookingJournal - Append-only, memory-mapped write-ahead log of reservations.
+ * A reservation is acknowledged once its entry is on disk. Concurrent appends share one
+ * fsync (group commit): the flush thread forces everything written so far and wakes every
+ * writer it covered. A second thread applies durable entries to the bookings table in
+ * batched transactions and records the last applied sequence in the file header; once all
+ * entries are applied, writing starts again at the top of the file.
+ * On startup entries past the applied sequence are replayed. An entry whose rows are
+ * already in the table (applied before a crash, header not yet updated) is skipped; this
+ * relies on the unique (flight_id, active_seat) key, so the journal refuses to open if
+ * the key is missing and cannot be added.
+ * A batch that keeps failing for a reason other than a lost connection or a seat conflict
+ * is applied entry by entry after -Dbooking.journal.maxAttempts tries (default 5); an entry
+ * the database still rejects is appended to -Dbooking.journal.deadLetter (default
+ * booking.journal.dead) and dropped, so it cannot hold up the entries behind it.
+ * The journal assumes this process is the only one booking its flights: an entry whose seat
+ * was taken by another process in the meantime cannot be applied and is reported and dropped.
+ * Enabled with -Dbooking.journal=true; the file is -Dbooking.journal.path (default
+ * booking.journal), mapped at -Dbooking.journal.sizeMb (default 64).
+ * <pre>
+ * Header: int magic, int unused, long applied sequence
+ * Entry:  int length, int crc32, long sequence, int flightId, utf email, int n, n * (utf seat, utf name, int age)
+ * </pre>
+ */
+public final class BookingJournal
+{
+    private static final boolean ENABLED = Boolean.getBoolean("booking.journal");
+    private static final Path PATH = Path.of(System.getProperty("booking.journal.path", "booking.journal"));
+    private static final int SIZE = Integer.getInteger("booking.journal.sizeMb", 64) << 20;
+    private static final int APPLY_BATCH = Integer.getInteger("booking.journal.applyBatch", 256);
+    private static final int MAX_ATTEMPTS = Integer.getInteger("booking.journal.maxAttempts", 5);
+    private static final Path DEAD_LETTER = Path.of(System.getProperty("booking.journal.deadLetter", "booking.journal.dead"));
+
+    private static final int MAGIC = 0x424A4E4C;
+    private static final int APPLIED_OFFSET = 8;
+    private static final int HEADER = 16;
+    private static final int ENTRY_HEADER = 8;
+
+    /**
+     * Entry - One journaled reservation.
+     */
+    record Entry(long sequence, int flightId, String email, List<ReservationService.SeatRequest> requests) {}
+
+    private static final class Holder
+    {
+        static final BookingJournal INSTANCE = open();
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer log;
+    private final SeatInventory inventory = SeatInventory.getInstance();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();  // flush thread waits for entries
+    private final Condition durable = lock.newCondition();  // writers wait for their fsync
+    private final Condition applicable = lock.newCondition(); // apply thread waits for durable entries
+    private final Condition space = lock.newCondition();    // writers wait for the file to be reused
+
+    // Guarded by lock
+    private int writePos;
+    private long lastSeq;
+    private long durableSeq;
+    private long appliedSeq;
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>(); // appended, not yet in the table
+
+    private BookingJournal(FileChannel channel, MappedByteBuffer log)
+    {
+        this.channel = channel;
+        this.log = log;
+    }
+
+    /**
+     * Returns true if reservations go through the journal (-Dbooking.journal=true).
+     */
+    public static boolean isEnabled()
+    {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the journal, opening and recovering it on first use.
+     * @throws UncheckedIOException if the journal file cannot be opened
+     * @throws IllegalStateException if the bookings table lacks the unique seat key
+     */
+    public static BookingJournal getInstance()
+    {
+        return Holder.INSTANCE;
+    }
+
+    private static BookingJournal open()
+    {
+        // Before replaying anything: replay detects applied entries through duplicate-key errors
+        try
+        {
+            ReservationService.getInstance().ensureSeatKey();
+        }
+        catch (SQLException e)
+        {
+            throw new IllegalStateException("Cannot open booking journal: " + e.getMessage(), e);
+        }
+
+        try
+        {
+            FileChannel channel = FileChannel.open(PATH, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            BookingJournal journal = new BookingJournal(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE));
+            journal.recover();
+            journal.start();
+            return journal;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Cannot open booking journal " + PATH, e);
+        }
+    }
+
+    // Append
+
+    /**
+     * Writes a reservation to the journal and waits until it is on disk.
+     * The seats must already be claimed in {@link SeatInventory}.
+     */
+    public void append(int flightId, String email, List<ReservationService.SeatRequest> requests) throws InterruptedException
+    {
+        long start = System.nanoTime();
+        byte[] body = encode(flightId, email, requests);
+        if (ENTRY_HEADER + body.length + 8 > SIZE - HEADER)
+        {
+            throw new IllegalArgumentException("Reservation too large for the booking journal.");
+        }
+
+        lock.lock();
+        try
+        {
+            while (writePos + ENTRY_HEADER + 8 + body.length > SIZE)
+            {
+                if (appliedSeq == lastSeq) writePos = HEADER;
+                else space.await();
+            }
+
+            long seq = ++lastSeq;
+            ByteBuffer entry = ByteBuffer.allocate(8 + body.length).putLong(seq).put(body).flip();
+            CRC32 crc = new CRC32();
+            crc.update(entry.duplicate());
+            log.putInt(writePos + 4, (int) crc.getValue());
+            log.put(writePos + ENTRY_HEADER, entry, 0, entry.limit());
+            log.putInt(writePos, entry.limit()); // length last: a torn entry fails its CRC or reads as end of log
+            writePos += ENTRY_HEADER + entry.limit();
+            pending.add(new Entry(seq, flightId, email, List.copyOf(requests)));
+            Metrics.increment("journal.entries");
+
+            written.signal();
+            while (durableSeq < seq) durable.awaitUninterruptibly(); // the entry is in the log either way
+        }
+        finally
+        {
+            lock.unlock();
+            Metrics.record("journal.append", start);
+        }
+    }
+
+    /**
+     * Returns the seats of a flight that are journaled but not yet in the bookings table.
+     */
+    List<String> pendingSeats(int flightId)
+    {
+        List<String> seats = new ArrayList<>();
+        lock.lock();
+        try
+        {
+            for (Entry e : pending)
+            {
+                if (e.flightId() != flightId) continue;
+                for (ReservationService.SeatRequest r : e.requests()) seats.add(r.seat());
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return seats;
+    }
+
+    /**
+     * Waits until every acknowledged reservation is in the bookings table, then closes the file.
+     * @return false if entries were still pending after the timeout; they are replayed on next start
+     */
+    public boolean close(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try
+        {
+            while (!pending.isEmpty() && nanos > 0) nanos = space.awaitNanos(nanos);
+            log.force();
+            return pending.isEmpty();
+        }
+        finally
+        {
+            lock.unlock();
+            try
+            {
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Group commit
+
+    private void start()
+    {
+        Thread flusher = new Thread(this::flushLoop, "journal-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+        Thread applier = new Thread(this::applyLoop, "journal-apply");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    /**
+     * Forces everything written so far with one fsync and releases all writers it covers.
+     */
+    private void flushLoop()
+    {
+        while (true)
+        {
+            long target;
+            lock.lock();
+            try
+            {
+                while (durableSeq == lastSeq) written.awaitUninterruptibly();
+                target = lastSeq;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            long start = System.nanoTime();
+            try
+            {
+                log.force();
+            }
+            catch (UncheckedIOException e)
+            {
+                e.printStackTrace();
+                sleepQuietly(1000);
+                continue;
+            }
+            Metrics.record("journal.fsync", start);
+
+            lock.lock();
+            try
+            {
+                durableSeq = target;
+                durable.signalAll();
+                applicable.signal();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Apply
+
+    /**
+     * Moves durable entries into the bookings table in batches. Failed batches are retried,
+     * entry by entry once they have failed {@link #MAX_ATTEMPTS} times.
+     */
+    private void applyLoop()
+    {
+        int attempts = 0;
+        while (true)
+        {
+            List<Entry> batch = new ArrayList<>();
+            lock.lock();
+            try
+            {
+                while (pending.isEmpty() || pending.peek().sequence() > durableSeq) applicable.awaitUninterruptibly();
+                for (Entry e : pending)
+                {
+                    if (e.sequence() > durableSeq || batch.size() == APPLY_BATCH) break;
+                    batch.add(e);
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            Set<Integer> conflicted;
+            try
+            {
+                conflicted = apply(batch, attempts >= MAX_ATTEMPTS);
+                attempts = 0;
+            }
+            catch (SQLException e)
+            {
+                attempts++;
+                System.out.println("Booking journal apply failed (attempt " + attempts + "), retrying: " + e.getMessage());
+                sleepQuietly(1000);
+                continue;
+            }
+
+            lock.lock();
+            try
+            {
+                for (int i = 0; i < batch.size(); i++) pending.poll();
+                appliedSeq = batch.getLast().sequence();
+                log.putLong(APPLIED_OFFSET, appliedSeq); // made durable by the next fsync
+                if (appliedSeq == lastSeq) writePos = HEADER;
+                space.signalAll();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            for (int flightId : conflicted) inventory.reload(flightId);
+            for (Entry e : batch) BookingQueryService.getInstance().evict(e.email()); // IDs were assigned by the insert
+        }
+    }
+
+    /**
+     * Inserts a batch in one transaction. If a row hits the unique seat key, the entries
+     * are applied one at a time instead so only the conflicting ones are dropped.
+     * @param isolate Apply entry by entry and dead-letter entries the database rejects
+     * @return Flights whose seat maps must be reloaded because an entry was dropped
+     */
+    private Set<Integer> apply(List<Entry> batch, boolean isolate) throws SQLException
+    {
+        long start = System.nanoTime();
+        Set<Integer> conflicted = new HashSet<>();
+        try (Connection con = DBConnection.getConnection())
+        {
+            con.setAutoCommit(false);
+            if (!isolate)
+            {
+                try (PreparedStatement ins = con.prepareStatement(ReservationService.INSERT_SQL))
+                {
+                    for (Entry e : batch) bind(ins, e);
+                    ins.executeBatch();
+                    con.commit();
+                    return conflicted;
+                }
+                catch (SQLException ex)
+                {
+                    con.rollback();
+                    if (!ReservationService.isDuplicateKey(ex)) throw ex;
+                }
+            }
+
+            for (Entry e : batch)
+            {
+                try
+                {
+                    insert(con, e);
+                }
+                catch (SQLException ex)
+                {
+                    con.rollback();
+                    if (!ReservationService.isDuplicateKey(ex))
+                    {
+                        if (!isolate || isTransient(ex)) throw ex;
+                        deadLetter(e, ex);
+                        Metrics.increment("journal.deadLetters");
+                        System.out.println("Booking journal entry " + e.sequence() + " dropped after " + MAX_ATTEMPTS
+                                + " attempts, written to " + DEAD_LETTER + ": " + ex.getMessage());
+                        dropped(e, conflicted);
+                        continue;
+                    }
+                    if (!isApplied(con, e))
+                    {
+                        Metrics.increment("journal.conflicts");
+                        System.out.println("Booking journal entry " + e.sequence() + " dropped: seats on flight "
+                                + e.flightId() + " were booked by another process.");
+                        dropped(e, conflicted);
+                    }
+                }
+            }
+            return conflicted;
+        }
+        finally
+        {
+            Metrics.record("journal.apply", start);
+        }
+    }
+
+    /**
+     * Gives up an entry's seats: its seat map is reloaded once the entry leaves the queue.
+     */
+    private static void dropped(Entry e, Set<Integer> conflicted)
+    {
+        conflicted.add(e.flightId());
+        BookingAnalytics.getInstance().released(e.flightId(), e.requests().stream().map(ReservationService.SeatRequest::seat).toList());
+    }
+
+    /**
+     * Whether a failure may go away on retry (lost connection, lock timeout, deadlock) rather
+     * than being caused by the entry's data.
+     */
+    private static boolean isTransient(SQLException ex)
+    {
+        String state = ex.getSQLState();
+        return ex instanceof SQLTransientException || ex instanceof SQLRecoverableException
+                || ex instanceof SQLNonTransientConnectionException || (state != null && state.startsWith("08"));
+    }
+
+    /**
+     * Appends an entry the database rejects to the dead-letter file, one tab-separated line
+     * per entry, so it can be fixed and re-entered by hand.
+     * @throws SQLException the original failure, if the line cannot be written; the entry is then kept
+     */
+    private static void deadLetter(Entry e, SQLException cause) throws SQLException
+    {
+        StringBuilder line = new StringBuilder().append(e.sequence()).append('\t').append(e.flightId()).append('\t').append(e.email());
+        for (ReservationService.SeatRequest r : e.requests())
+        {
+            line.append('\t').append(r.seat()).append('|').append(r.passengerName()).append('|').append(r.age());
+        }
+        line.append('\t').append(String.valueOf(cause.getMessage()).replace('\n', ' ')).append(System.lineSeparator());
+        try
+        {
+            Files.writeString(DEAD_LETTER, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        }
+        catch (IOException io)
+        {
+            cause.addSuppressed(io);
+            throw cause;
+        }
+    }
+
+    private static void insert(Connection con, Entry e) throws SQLException
+    {
+        try (PreparedStatement ins = con.prepareStatement(ReservationService.INSERT_SQL))
+        {
+            bind(ins, e);
+            ins.executeBatch();
+            con.commit();
+        }
+    }
+
+    private static void sleepQuietly(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void bind(PreparedStatement ins, Entry e) throws SQLException
+    {
+        for (ReservationService.SeatRequest r : e.requests())
+        {
+            ins.setInt(1, e.flightId());
+            ins.setString(2, r.passengerName());
+            ins.setInt(3, r.age());
+            ins.setString(4, e.email());
+            ins.setString(5, r.seat());
+            ins.setString(6, "PAID");
+            ins.addBatch();
+        }
+    }
+
+    /**
+     * Returns true if the entry's rows are already in the table, i.e. it was applied before a crash.
+     */
+    private static boolean isApplied(Connection con, Entry e) throws SQLException
+    {
+        try (PreparedStatement pst = con.prepareStatement(
+                "SELECT email, passenger_name FROM bookings WHERE flight_id = ? AND seat_number = ? AND payment_status <> ?"))
+        {
+            for (ReservationService.SeatRequest r : e.requests())
+            {
+                pst.setInt(1, e.flightId());
+                pst.setString(2, r.seat());
+                pst.setString(3, CancellationService.CANCELLED);
+                try (ResultSet rs = pst.executeQuery())
+                {
+                    if (!rs.next() || !e.email().equals(rs.getString(1)) || !r.passengerName().equals(rs.getString(2))) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Recovery
+
+    /**
+     * Reads the header and queues every valid entry past the applied sequence.
+     * The log ends at the first torn entry or the first sequence that does not increase.
+     * Seat maps see the queued seats through {@link #pendingSeats} when they are loaded.
+     */
+    private void recover()
+    {
+        if (log.getInt(0) != MAGIC)
+        {
+            log.putInt(0, MAGIC);
+            log.putLong(APPLIED_OFFSET, 0);
+            log.force();
+        }
+        appliedSeq = log.getLong(APPLIED_OFFSET);
+        lastSeq = appliedSeq;
+
+        int pos = HEADER;
+        long prev = 0;
+        while (pos + ENTRY_HEADER + 8 <= SIZE)
+        {
+            int length = log.getInt(pos);
+            if (length < 8 || pos + ENTRY_HEADER + length > SIZE) break;
+
+            ByteBuffer entry = log.slice(pos + ENTRY_HEADER, length);
+            CRC32 crc = new CRC32();
+            crc.update(entry.duplicate());
+            if ((int) crc.getValue() != log.getInt(pos + 4)) break;
+            long seq = entry.getLong(0);
+            if (seq <= prev) break;
+
+            prev = seq;
+            pos += ENTRY_HEADER + length;
+            if (seq > appliedSeq)
+            {
+                pending.add(decode(seq, entry.position(8)));
+                lastSeq = seq;
+            }
+        }
+        durableSeq = lastSeq;
+        writePos = pending.isEmpty() ? HEADER : pos;
+        if (!pending.isEmpty()) System.out.println("Booking journal: replaying " + pending.size() + " unapplied reservations.");
+    }
+
+    private static byte[] encode(int flightId, String email, List<ReservationService.SeatRequest> requests)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 32 * requests.size());
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            out.writeInt(flightId);
+            out.writeUTF(email);
+            out.writeInt(requests.size());
+            for (ReservationService.SeatRequest r : requests)
+            {
+                out.writeUTF(r.seat());
+                out.writeUTF(r.passengerName());
+                out.writeInt(r.age());
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(long seq, ByteBuffer body)
+    {
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes)))
+        {
+            int flightId = in.readInt();
+            String email = in.readUTF();
+            int n = in.readInt();
+            List<ReservationService.SeatRequest> requests = new ArrayList<>(n);
+            for (int i = 0; i < n; i++)
+            {
+                requests.add(new ReservationService.SeatRequest(in.readUTF(), in.readUTF(), in.readInt()));
+            }
+            return new Entry(seq, flightId, email, requests);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
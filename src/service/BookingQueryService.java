@@ -0,0 +1,194 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * BookingQueryService - In-memory email -> bookings index backing "my bookings" and
+ * cancellation. A user's bookings are read from the database on first lookup and then kept
+ * current by the booking and cancellation paths, so later lookups and cancellations do not
+ * query for them again. At most -Dbookings.index.maxUsers users (default 10000) are kept,
+ * least recently used first out. Thread-safe.
+ */
+public final class BookingQueryService
+{
+    private static final int MAX_USERS = Integer.getInteger("bookings.index.maxUsers", 10_000);
+    private static final int STRIPES = 256;
+
+    private static final BookingQueryService INSTANCE = new BookingQueryService();
+
+    /**
+     * Booking - One row of the bookings table.
+     */
+    public record Booking(int bookingId, int flightId, String passengerName, int age, String email, String seat, String paymentStatus) {}
+
+    // Loaded users by normalized email, each with bookings by ID; guarded by this
+    private final LinkedHashMap<String, TreeMap<Integer, Booking>> byEmail = new LinkedHashMap<>(256, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TreeMap<Integer, Booking>> eldest)
+        {
+            if (size() <= MAX_USERS) return false;
+            for (Integer id : eldest.getValue().keySet()) byId.remove(id);
+            return true;
+        }
+    };
+    private final HashMap<Integer, Booking> byId = new HashMap<>();
+
+    // Change counters per email hash; a load only caches its result if no write to that
+    // stripe happened while it was reading, so a concurrent insert or cancel is never lost
+    private final long[] versions = new long[STRIPES];
+
+    private BookingQueryService()
+    {
+        FlightEvents.getInstance().subscribe(event ->
+        {
+            if (event instanceof FlightEvent.Deleted) removeFlight(event.flightId());
+        });
+    }
+
+    public static BookingQueryService getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a user's bookings ordered by booking ID.
+     */
+    public List<Booking> bookingsOf(String email) throws SQLException
+    {
+        String key = normalize(email);
+        long version;
+        synchronized (this)
+        {
+            TreeMap<Integer, Booking> loaded = byEmail.get(key);
+            if (loaded != null)
+            {
+                Metrics.increment("bookings.index.hits");
+                return new ArrayList<>(loaded.values());
+            }
+            version = versions[stripe(key)];
+        }
+
+        Metrics.increment("bookings.index.misses");
+        TreeMap<Integer, Booking> bookings = load(email);
+        synchronized (this)
+        {
+            if (versions[stripe(key)] == version && !byEmail.containsKey(key))
+            {
+                byEmail.put(key, bookings);
+                for (Booking b : bookings.values()) byId.put(b.bookingId(), b);
+            }
+        }
+        return new ArrayList<>(bookings.values());
+    }
+
+    /**
+     * Returns a booking if its owner's bookings are loaded, else null.
+     */
+    public synchronized Booking find(int bookingId)
+    {
+        return byId.get(bookingId);
+    }
+
+    /**
+     * Drops a user's cached bookings; the next lookup reads the database.
+     */
+    public synchronized void evict(String email)
+    {
+        String key = normalize(email);
+        versions[stripe(key)]++;
+        TreeMap<Integer, Booking> removed = byEmail.remove(key);
+        if (removed != null) removed.keySet().forEach(byId::remove);
+    }
+
+    /**
+     * Records committed bookings. Users whose bookings are not loaded are skipped.
+     */
+    synchronized void added(List<Booking> bookings)
+    {
+        for (Booking b : bookings)
+        {
+            String key = normalize(b.email());
+            versions[stripe(key)]++;
+            TreeMap<Integer, Booking> loaded = byEmail.get(key);
+            if (loaded != null)
+            {
+                loaded.put(b.bookingId(), b);
+                byId.put(b.bookingId(), b);
+            }
+        }
+    }
+
+    /**
+     * Records a deleted booking.
+     */
+    synchronized void removed(String email, int bookingId)
+    {
+        String key = normalize(email);
+        versions[stripe(key)]++;
+        TreeMap<Integer, Booking> loaded = byEmail.get(key);
+        if (loaded != null) loaded.remove(bookingId);
+        byId.remove(bookingId);
+    }
+
+    private synchronized void removeFlight(int flightId)
+    {
+        for (int i = 0; i < STRIPES; i++) versions[i]++;
+        for (TreeMap<Integer, Booking> bookings : byEmail.values())
+        {
+            bookings.values().removeIf(b -> b.flightId() == flightId);
+        }
+        byId.values().removeIf(b -> b.flightId() == flightId);
+    }
+
+    private static TreeMap<Integer, Booking> load(String email) throws SQLException
+    {
+        long start = System.nanoTime();
+        TreeMap<Integer, Booking> bookings = new TreeMap<>();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement(
+                     "SELECT booking_id, flight_id, passenger_name, age, email, seat_number, payment_status FROM bookings"
+                             + " WHERE email = ? AND payment_status <> ?"))
+        {
+            pst.setString(1, email);
+            pst.setString(2, CancellationService.CANCELLED);
+            try (ResultSet rs = pst.executeQuery())
+            {
+                while (rs.next())
+                {
+                    bookings.put(rs.getInt(1), new Booking(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getInt(4),
+                            rs.getString(5), rs.getString(6), rs.getString(7)));
+                }
+            }
+        }
+        finally
+        {
+            Metrics.record("bookings.load", start);
+        }
+        return bookings;
+    }
+
+    // Emails compare case-insensitively, as in the database's default collation
+    private static String normalize(String email)
+    {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int stripe(String key)
+    {
+        return key.hashCode() & (STRIPES - 1);
+    }
+}
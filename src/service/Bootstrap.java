@@ -0,0 +1,48 @@
+package service;
+
+import java.sql.SQLException;
+
+/**
+ * Bootstrap - Startup shared by every entry point (desktop apps and the HTTP API).
+ * Sets up the password columns and the unique seat key of bookings, replays the booking journal
+ * if it is enabled, and starts the background services: the booking compactor, schedule
+ * expansion, seat cluster membership and booking analytics. Each of those is a no-op or already idempotent when disabled or started
+ * twice, so calling this more than once is harmless.
+ */
+public final class Bootstrap
+{
+    private static boolean started;
+
+    private Bootstrap() {}
+
+    /**
+     * Runs the startup steps once per process.
+     * @throws IllegalStateException if the booking journal or the seat cluster cannot start
+     */
+    public static synchronized void start()
+    {
+        if (started) return;
+        try
+        {
+            AuthService.getInstance().ensureSchema();
+        }
+        catch (SQLException e)
+        {
+            System.out.println("Password columns cannot hold hashes, registration is disabled: " + e.getMessage());
+        }
+        try
+        {
+            ReservationService.getInstance().ensureSeatKey();
+        }
+        catch (SQLException e)
+        {
+            System.out.println("Reservations use the locking check. " + e.getMessage() + " Cause: " + e.getCause());
+        }
+        if (BookingJournal.isEnabled()) BookingJournal.getInstance(); // replay now; refuses to start without the seat key
+        BookingCompactor.getInstance().start();
+        ScheduleService.getInstance().start();
+        SeatCluster.getInstance().start();
+        BookingAnalytics.getInstance().start();
+        started = true;
+    }
+}
@@ -0,0 +1,95 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * CancellationService - Cancels bookings and, in the same step, frees their seats in
+ * {@link SeatInventory} (lowering occupancy) and drops them from {@link BookingQueryService}.
+ * A cancelled row is only marked {@link #CANCELLED}; {@link BookingCompactor} archives and
+ * deletes it later. Bookings already in the booking index are cancelled without first
+ * reading the row. The owner of the flight's {@link SeatCluster} partition, if it is another
+ * node, is told about the freed seat. Thread-safe.
+ */
+public final class CancellationService
+{
+    private static final CancellationService INSTANCE = new CancellationService();
+
+    /** payment_status of a cancelled booking; every booking query skips these rows. */
+    public static final String CANCELLED = "CANCELLED";
+
+    /**
+     * Cancellation - A booking that was cancelled and the seat it freed.
+     */
+    public record Cancellation(int bookingId, int flightId, String seat) {}
+
+    private final BookingQueryService bookings = BookingQueryService.getInstance();
+
+    private CancellationService() {}
+
+    public static CancellationService getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Marks a booking cancelled and frees its seat.
+     * @param email If not empty, the booking is only cancelled when it was made with this email
+     * @return The cancellation, or null if no matching booking exists
+     */
+    public Cancellation cancel(int bookingId, String email) throws SQLException
+    {
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection();
+            PreparedStatement pst = con.prepareStatement("Update bookings set payment_status = ? where booking_id = ?"
+                    + " and payment_status <> ?" + (email.isEmpty() ? "" : " and email = ?")))
+        {
+            // Remember which seat is freed so the in-memory seat map and occupancy can be updated
+            BookingQueryService.Booking known = bookings.find(bookingId);
+            if (known == null) known = read(con, bookingId);
+
+            pst.setString(1, CANCELLED);
+            pst.setInt(2, bookingId);
+            pst.setString(3, CANCELLED);
+            if (!email.isEmpty())
+            {
+                pst.setString(4, email);
+            }
+
+            if (pst.executeUpdate() == 0) return null;
+            if (known == null) return new Cancellation(bookingId, -1, null); // not visible when read
+
+            SeatInventory.getInstance().cancel(known.flightId(), known.seat());
+            BookingAnalytics.getInstance().released(known.flightId(), List.of(known.seat()));
+            SeatCluster.getInstance().released(known.flightId(), known.seat());
+            bookings.removed(known.email(), bookingId);
+            return new Cancellation(bookingId, known.flightId(), known.seat());
+        }
+        finally
+        {
+            Metrics.record("cancel", start);
+        }
+    }
+
+    private static BookingQueryService.Booking read(Connection con, int bookingId) throws SQLException
+    {
+        try (PreparedStatement find = con.prepareStatement(
+                "Select flight_id, passenger_name, age, email, seat_number, payment_status from bookings where booking_id = ? and payment_status <> ?"))
+        {
+            find.setInt(1, bookingId);
+            find.setString(2, CANCELLED);
+            try (ResultSet rs = find.executeQuery())
+            {
+                if (!rs.next()) return null;
+                return new BookingQueryService.Booking(bookingId, rs.getInt("flight_id"), rs.getString("passenger_name"),
+                        rs.getInt("age"), rs.getString("email"), rs.getString("seat_number"), rs.getString("payment_status"));
+            }
+        }
+    }
+}
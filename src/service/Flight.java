@@ -0,0 +1,36 @@
+package service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+
+/**
+ * Flight - Immutable snapshot of one row of the flights table.
+ */
+public record Flight(int flightId, String airlineName, String source, String destination,
+                     Date date, Time departureTime, Time arrivalTime, BigDecimal price)
+{
+    /**
+     * Reads the current row of a result set in {@link db.FlightSchema#selectAllSql()} column order.
+     */
+    public static Flight read(ResultSet r) throws SQLException
+    {
+        return new Flight(r.getInt(1), r.getString(2), r.getString(3), r.getString(4),
+                r.getDate(5), r.getTime(6), r.getTime(7), r.getBigDecimal(8));
+    }
+
+    /**
+     * Returns the row in the column order used by the flight tables in the UI.
+     */
+    public Object[] toRow()
+    {
+        return new Object[]
+        {
+            flightId, airlineName, source, destination,
+            String.valueOf(date), String.valueOf(departureTime), String.valueOf(arrivalTime),
+            price == null ? "0" : price.toString()
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package service;
+
+/**
+ * FlightEvent - A committed change to one row of the flights table, published on {@link FlightEvents}.
+ */
+public sealed interface FlightEvent
+{
+    int flightId();
+
+    /**
+     * Inserted - A new flight was added.
+     */
+    record Inserted(Flight flight) implements FlightEvent
+    {
+        @Override
+        public int flightId()
+        {
+            return flight.flightId();
+        }
+    }
+
+    /**
+     * Updated - An existing flight was changed; carries the new row.
+     */
+    record Updated(Flight flight) implements FlightEvent
+    {
+        @Override
+        public int flightId()
+        {
+            return flight.flightId();
+        }
+    }
+
+    /**
+     * Deleted - A flight was removed.
+     */
+    record Deleted(int flightId) implements FlightEvent {}
+}
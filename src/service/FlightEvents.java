@@ -0,0 +1,52 @@
+package service;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * FlightEvents - In-process bus for flight changes.
+ * Writers publish one {@link FlightEvent} per changed row after the change is committed;
+ * caches and views apply it to the single affected entry instead of reloading everything.
+ * Listeners run synchronously on the publishing thread, so UI listeners must hand off to the EDT.
+ */
+public final class FlightEvents
+{
+    private static final FlightEvents INSTANCE = new FlightEvents();
+
+    private final CopyOnWriteArrayList<Consumer<FlightEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private FlightEvents() {}
+
+    public static FlightEvents getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a listener.
+     * @return Action that removes the listener again
+     */
+    public Runnable subscribe(Consumer<FlightEvent> listener)
+    {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to every listener. A failing listener does not stop the others.
+     */
+    public void publish(FlightEvent event)
+    {
+        for (Consumer<FlightEvent> listener : listeners)
+        {
+            try
+            {
+                listener.accept(event);
+            }
+            catch (RuntimeException ex)
+            {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,807 @@
+package service;
+
+import db.DBConnection;
+import db.FlightSchema;
+import metrics.Metrics;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * FlightImporter - Streaming bulk import of flight schedules from CSV or JSON files.
+ * The file is read once, in chunks, by the calling thread; parser threads validate the records
+ * and drop flights that already exist (same airline, route, date and departure) or repeat
+ * earlier in the file; writer threads insert the rest with batched INSERTs, one commit per
+ * batch. The JDBC URL's rewriteBatchedStatements turns each batch into multi-row statements.
+ * Queues between the stages are bounded, so records in flight do not grow with the file size;
+ * the duplicate filter does, holding the natural key of every existing flight and every
+ * record accepted so far.
+ *
+ * CSV files may start with a header naming the columns; without one the columns are
+ * airline_name, source, destination, date, departure_time, arrival_time, price. JSON files are
+ * either an array of objects or one object per line, keyed by the same names. Dates are
+ * yyyy-MM-dd and times HH:mm or HH:mm:ss.
+ *
+ * Defaults come from -Dflight.import.parsers (processor count), -Dflight.import.writers (2) and
+ * -Dflight.import.batchSize (5000). Invalid records are counted and skipped. A failed batch
+ * stops the import; batches committed before it stay in place.
+ */
+public final class FlightImporter
+{
+    private static final int CHUNK_RECORDS = 1000;
+    private static final int MAX_ERRORS = 100;
+    private static final long PROGRESS_MILLIS = 250;
+
+    private static final String[] FIELDS = {"airline_name", "source", "destination", "date", "departure_time", "arrival_time", "price"};
+    private static final Map<String, Integer> ALIASES = new HashMap<>();
+
+    static
+    {
+        for (int i = 0; i < FIELDS.length; i++) ALIASES.put(FIELDS[i], i);
+        ALIASES.put("airline", 0);
+        ALIASES.put("from", 1);
+        ALIASES.put("origin", 1);
+        ALIASES.put("to", 2);
+        ALIASES.put("dest", 2);
+        ALIASES.put("flight_date", 3);
+        ALIASES.put("departure", 4);
+        ALIASES.put("arrival", 5);
+        ALIASES.put("fare", 6);
+    }
+
+    // End-of-input markers passed through the queues
+    private static final Chunk END_OF_RECORDS = new Chunk(-1, List.of());
+    private static final List<Row> END_OF_ROWS = List.of();
+
+    /**
+     * Progress - Snapshot of a running import.
+     */
+    public record Progress(long bytesRead, long totalBytes, long records, long imported, long duplicates, long invalid, double rowsPerSecond)
+    {
+        /**
+         * Share of the file read so far, from 0 to 1.
+         */
+        public double fraction()
+        {
+            return totalBytes == 0 ? 1 : Math.min(1, (double) bytesRead / totalBytes);
+        }
+    }
+
+    /**
+     * Result - Outcome of an import, with the first invalid records' messages.
+     */
+    public record Result(long records, long imported, long duplicates, long invalid, double seconds, boolean cancelled, List<String> errors)
+    {
+        public double rowsPerSecond()
+        {
+            return seconds == 0 ? 0 : records / seconds;
+        }
+    }
+
+    private record Chunk(long firstRecord, List<String> records) {}
+
+    /**
+     * Row - One validated flight, ready to insert.
+     */
+    record Row(String airline, String source, String destination, LocalDate date, LocalTime departure, LocalTime arrival, BigDecimal price) {}
+
+    private enum Format { CSV, JSON_ARRAY, JSON_LINES }
+
+    private final int parsers;
+    private final int writers;
+    private final int batchSize;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    public FlightImporter()
+    {
+        this(Integer.getInteger("flight.import.parsers", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("flight.import.writers", 2), Integer.getInteger("flight.import.batchSize", 5000));
+    }
+
+    /**
+     * @param parsers Threads validating and deduplicating records
+     * @param writers Threads inserting, each with its own connection
+     * @param batchSize Rows per INSERT batch and transaction
+     */
+    public FlightImporter(int parsers, int writers, int batchSize)
+    {
+        if (parsers < 1 || writers < 1 || batchSize < 1) throw new IllegalArgumentException("parsers, writers and batchSize must be positive");
+        this.parsers = parsers;
+        this.writers = writers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Stops a running import after the batches already being written.
+     */
+    public void cancel()
+    {
+        cancelled.set(true);
+    }
+
+    /**
+     * Imports a schedule file, reporting progress about four times a second and once at the end.
+     * The flight search index is reloaded afterwards if rows were added.
+     */
+    public Result importFile(Path file, Consumer<Progress> progress) throws IOException, SQLException
+    {
+        return new Run(file, progress).execute();
+    }
+
+    /**
+     * One import: the queues, counters and threads of a single file.
+     */
+    private final class Run
+    {
+        private final Path file;
+        private final Consumer<Progress> progress;
+        private final long totalBytes;
+        private final long start = System.nanoTime();
+
+        private final BlockingQueue<Chunk> records = new ArrayBlockingQueue<>(parsers * 4);
+        private final BlockingQueue<List<Row>> rows = new ArrayBlockingQueue<>(writers * 4);
+        private final Set<Key> seen = ConcurrentHashMap.newKeySet();
+        private final List<String> errors = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicInteger parsersLeft = new AtomicInteger(parsers);
+
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong recordCount = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong invalid = new AtomicLong();
+
+        private int[] columns; // CSV position of each of FIELDS, set from the header
+
+        Run(Path file, Consumer<Progress> progress) throws IOException
+        {
+            this.file = file;
+            this.progress = progress;
+            this.totalBytes = Files.size(file);
+        }
+
+        Result execute() throws IOException, SQLException
+        {
+            FlightSchema.DateMapping mapping = FlightSchema.get().dateMapping();
+            loadExistingKeys();
+
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < parsers; i++) threads.add(Thread.ofPlatform().name("flight-import-parse-" + i).start(this::parse));
+            for (int i = 0; i < writers; i++) threads.add(Thread.ofPlatform().name("flight-import-write-" + i).start(() -> write(mapping)));
+
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread t = new Thread(r, "flight-import-progress");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(() -> progress.accept(snapshot()), PROGRESS_MILLIS, PROGRESS_MILLIS, TimeUnit.MILLISECONDS);
+            try
+            {
+                read();
+            }
+            catch (IOException | RuntimeException e)
+            {
+                failure.compareAndSet(null, e);
+            }
+            finally
+            {
+                for (int i = 0; i < parsers; i++) offer(records, END_OF_RECORDS);
+                join(threads);
+                reporter.shutdownNow();
+            }
+            progress.accept(snapshot());
+
+            Metrics.getInstance().counter("import.rows").add(imported.get());
+            Metrics.getInstance().counter("import.duplicates").add(duplicates.get());
+            Metrics.getInstance().counter("import.invalid").add(invalid.get());
+            if (imported.get() > 0 && FlightIndex.getInstance().isLoaded()) FlightIndex.getInstance().load();
+
+            Throwable t = failure.get();
+            if (t instanceof SQLException e) throw e;
+            if (t instanceof IOException e) throw e;
+            if (t != null) throw new IllegalStateException("Flight import failed", t);
+
+            synchronized (errors)
+            {
+                return new Result(recordCount.get(), imported.get(), duplicates.get(), invalid.get(),
+                        (System.nanoTime() - start) / 1e9, cancelled.get(), List.copyOf(errors));
+            }
+        }
+
+        /**
+         * Waits for the worker threads; an interrupt cancels the import but still waits for them.
+         */
+        private void join(List<Thread> threads)
+        {
+            boolean interrupted = false;
+            for (Thread t : threads)
+            {
+                while (t.isAlive())
+                {
+                    try
+                    {
+                        t.join();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        interrupted = true;
+                        cancel();
+                    }
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        private Progress snapshot()
+        {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long n = recordCount.get();
+            return new Progress(bytesRead.get(), totalBytes, n, imported.get(), duplicates.get(), invalid.get(), seconds == 0 ? 0 : n / seconds);
+        }
+
+        private boolean stopped()
+        {
+            return cancelled.get() || failure.get() != null;
+        }
+
+        /**
+         * Seeds the duplicate filter with every flight already in the database.
+         */
+        private void loadExistingKeys() throws SQLException
+        {
+            try (Connection con = DBConnection.getConnection())
+            {
+                try (PreparedStatement pst = con.prepareStatement(FlightSchema.get().selectAllSql());
+                     ResultSet r = pst.executeQuery())
+                {
+                    while (r.next())
+                    {
+                        Date date = r.getDate(5);
+                        Time departure = r.getTime(6);
+                        if (date == null || departure == null) continue;
+                        seen.add(key(r.getString(2), r.getString(3), r.getString(4), date.toLocalDate(), departure.toLocalTime()));
+                    }
+                }
+            }
+        }
+
+        // Reading (calling thread)
+
+        private void read() throws IOException
+        {
+            try (InputStream in = new CountingStream(Files.newInputStream(file), bytesRead);
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16))
+            {
+                switch (detect(reader))
+                {
+                    case CSV -> readCsv(reader);
+                    case JSON_LINES -> readLines(reader);
+                    case JSON_ARRAY -> readJsonArray(reader);
+                }
+            }
+        }
+
+        private void readCsv(BufferedReader reader) throws IOException
+        {
+            String first = reader.readLine();
+            if (first == null) return;
+            if (first.startsWith("\uFEFF")) first = first.substring(1);
+
+            List<String> pending = new ArrayList<>(CHUNK_RECORDS);
+            if (first.toLowerCase(Locale.ROOT).contains("airline"))
+            {
+                columns = header(splitCsv(first));
+            }
+            else
+            {
+                columns = new int[] {0, 1, 2, 3, 4, 5, 6};
+                pending.add(first);
+            }
+            readLines(reader, pending);
+        }
+
+        private void readLines(BufferedReader reader) throws IOException
+        {
+            readLines(reader, new ArrayList<>(CHUNK_RECORDS));
+        }
+
+        private void readLines(BufferedReader reader, List<String> pending) throws IOException
+        {
+            String line;
+            while (!stopped() && (line = reader.readLine()) != null)
+            {
+                if (line.isBlank()) continue;
+                pending.add(line);
+                if (pending.size() == CHUNK_RECORDS) pending = emit(pending);
+            }
+            if (!pending.isEmpty()) emit(pending);
+        }
+
+        /**
+         * Splits a JSON array into its top-level objects without parsing them.
+         */
+        private void readJsonArray(BufferedReader reader) throws IOException
+        {
+            List<String> pending = new ArrayList<>(CHUNK_RECORDS);
+            StringBuilder object = new StringBuilder(256);
+            char[] buf = new char[1 << 16];
+            int depth = 0;
+            boolean inString = false, escaped = false;
+            int n;
+            while (!stopped() && (n = reader.read(buf)) > 0)
+            {
+                for (int i = 0; i < n; i++)
+                {
+                    char c = buf[i];
+                    if (depth > 0) object.append(c);
+                    if (inString)
+                    {
+                        if (escaped) escaped = false;
+                        else if (c == '\\') escaped = true;
+                        else if (c == '"') inString = false;
+                    }
+                    else if (c == '"')
+                    {
+                        inString = true;
+                    }
+                    else if (c == '{')
+                    {
+                        if (depth++ == 0) object.append(c);
+                    }
+                    else if (c == '}' && depth > 0 && --depth == 0)
+                    {
+                        pending.add(object.toString());
+                        object.setLength(0);
+                        if (pending.size() == CHUNK_RECORDS) pending = emit(pending);
+                    }
+                }
+            }
+            if (!pending.isEmpty()) emit(pending);
+        }
+
+        private List<String> emit(List<String> pending)
+        {
+            long first = recordCount.getAndAdd(pending.size()) + 1;
+            offer(records, new Chunk(first, pending));
+            return new ArrayList<>(CHUNK_RECORDS);
+        }
+
+        // Parsing and deduplication (parser threads)
+
+        private void parse()
+        {
+            try
+            {
+                Chunk chunk;
+                while ((chunk = take(records)) != null && chunk != END_OF_RECORDS)
+                {
+                    List<Row> valid = new ArrayList<>(chunk.records().size());
+                    long number = chunk.firstRecord();
+                    for (String record : chunk.records())
+                    {
+                        try
+                        {
+                            Row row = toRow(columns == null ? jsonFields(record) : csvFields(record));
+                            if (seen.add(key(row.airline(), row.source(), row.destination(), row.date(), row.departure()))) valid.add(row);
+                            else duplicates.incrementAndGet();
+                        }
+                        catch (IllegalArgumentException | DateTimeParseException e)
+                        {
+                            invalid.incrementAndGet();
+                            synchronized (errors)
+                            {
+                                if (errors.size() < MAX_ERRORS) errors.add("Record " + number + ": " + e.getMessage());
+                            }
+                        }
+                        number++;
+                    }
+                    if (!valid.isEmpty()) offer(rows, valid);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                failure.compareAndSet(null, e);
+            }
+            finally
+            {
+                if (parsersLeft.decrementAndGet() == 0)
+                {
+                    for (int i = 0; i < writers; i++) offer(rows, END_OF_ROWS);
+                }
+            }
+        }
+
+        private String[] csvFields(String line)
+        {
+            List<String> values = splitCsv(line);
+            String[] fields = new String[FIELDS.length];
+            for (int i = 0; i < FIELDS.length; i++)
+            {
+                int column = columns[i];
+                fields[i] = column < values.size() ? values.get(column) : null;
+            }
+            return fields;
+        }
+
+        // Writing (writer threads)
+
+        private void write(FlightSchema.DateMapping mapping)
+        {
+            try (Connection con = DBConnection.getConnection())
+            {
+                con.setAutoCommit(false);
+                try (PreparedStatement ins = con.prepareStatement(insertSql(mapping)))
+                {
+                    int pending = 0;
+                    List<Row> batch;
+                    while ((batch = take(rows)) != null && batch != END_OF_ROWS)
+                    {
+                        for (Row row : batch)
+                        {
+                            bind(ins, mapping, row);
+                            ins.addBatch();
+                            if (++pending == batchSize)
+                            {
+                                flush(con, ins, pending);
+                                pending = 0;
+                            }
+                        }
+                    }
+                    if (pending > 0 && !stopped()) flush(con, ins, pending);
+                }
+            }
+            catch (SQLException | RuntimeException e)
+            {
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private void flush(Connection con, PreparedStatement ins, int pending) throws SQLException
+        {
+            long step = System.nanoTime();
+            ins.executeBatch();
+            con.commit();
+            Metrics.record("import.batch", step);
+            imported.addAndGet(pending);
+        }
+
+        // Queue hand-off that gives up once the import is cancelled or has failed
+
+        private <T> void offer(BlockingQueue<T> queue, T item)
+        {
+            try
+            {
+                while (!queue.offer(item, 100, TimeUnit.MILLISECONDS))
+                {
+                    if (stopped()) return;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+        }
+
+        private <T> T take(BlockingQueue<T> queue)
+        {
+            try
+            {
+                while (!stopped())
+                {
+                    T item = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (item != null) return item;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+            return null;
+        }
+    }
+
+    private static Format detect(BufferedReader reader) throws IOException
+    {
+        reader.mark(1 << 12);
+        int c;
+        do
+        {
+            c = reader.read();
+        }
+        while (c != -1 && (Character.isWhitespace(c) || c == '\uFEFF'));
+        reader.reset();
+        return c == '[' ? Format.JSON_ARRAY : c == '{' ? Format.JSON_LINES : Format.CSV;
+    }
+
+    private static int[] header(List<String> names) throws IOException
+    {
+        int[] columns = new int[FIELDS.length];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < names.size(); i++)
+        {
+            Integer field = ALIASES.get(names.get(i).trim().toLowerCase(Locale.ROOT).replace(' ', '_'));
+            if (field != null) columns[field] = i;
+        }
+        for (int i = 0; i < FIELDS.length; i++)
+        {
+            if (columns[i] == -1) throw new IOException("CSV header has no " + FIELDS[i] + " column.");
+        }
+        return columns;
+    }
+
+    /**
+     * Splits one CSV line; fields may be quoted, with "" for a quote inside.
+     */
+    private static List<String> splitCsv(String line)
+    {
+        List<String> values = new ArrayList<>(FIELDS.length);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (quoted)
+            {
+                if (c != '"') value.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') value.append(line.charAt(++i));
+                else quoted = false;
+            }
+            else if (c == '"') quoted = true;
+            else if (c == ',')
+            {
+                values.add(value.toString());
+                value.setLength(0);
+            }
+            else value.append(c);
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Reads the known fields of a flat JSON object; other keys and nested values are ignored.
+     */
+    private static String[] jsonFields(String json)
+    {
+        String[] fields = new String[FIELDS.length];
+        int[] pos = {json.indexOf('{') + 1};
+        if (pos[0] == 0) throw new IllegalArgumentException("not a JSON object");
+        while (true)
+        {
+            char c = skipSpace(json, pos);
+            if (c == '}') return fields;
+            if (c == ',')
+            {
+                pos[0]++;
+                continue;
+            }
+            if (c != '"') throw new IllegalArgumentException("malformed JSON at offset " + pos[0]);
+            String name = jsonString(json, pos);
+            if (skipSpace(json, pos) != ':') throw new IllegalArgumentException("malformed JSON at offset " + pos[0]);
+            pos[0]++;
+            String value = skipSpace(json, pos) == '"' ? jsonString(json, pos) : jsonLiteral(json, pos);
+            Integer field = ALIASES.get(name.toLowerCase(Locale.ROOT));
+            if (field != null) fields[field] = value;
+        }
+    }
+
+    private static char skipSpace(String json, int[] pos)
+    {
+        while (pos[0] < json.length() && Character.isWhitespace(json.charAt(pos[0]))) pos[0]++;
+        if (pos[0] == json.length()) throw new IllegalArgumentException("unterminated JSON object");
+        return json.charAt(pos[0]);
+    }
+
+    private static String jsonString(String json, int[] pos)
+    {
+        StringBuilder s = new StringBuilder();
+        int i = pos[0] + 1;
+        while (i < json.length())
+        {
+            char c = json.charAt(i++);
+            if (c == '"')
+            {
+                pos[0] = i;
+                return s.toString();
+            }
+            if (c != '\\')
+            {
+                s.append(c);
+                continue;
+            }
+            if (i == json.length()) break;
+            char e = json.charAt(i++);
+            switch (e)
+            {
+                case 'n' -> s.append('\n');
+                case 't' -> s.append('\t');
+                case 'r' -> s.append('\r');
+                case 'b' -> s.append('\b');
+                case 'f' -> s.append('\f');
+                case 'u' ->
+                {
+                    if (i + 4 > json.length()) throw new IllegalArgumentException("bad \\u escape");
+                    s.append((char) Integer.parseInt(json, i, i + 4, 16));
+                    i += 4;
+                }
+                default -> s.append(e);
+            }
+        }
+        throw new IllegalArgumentException("unterminated JSON string");
+    }
+
+    /**
+     * Reads a number, true, false or null; nested objects and arrays are skipped and read as null.
+     */
+    private static String jsonLiteral(String json, int[] pos)
+    {
+        int i = pos[0];
+        char c = json.charAt(i);
+        if (c == '{' || c == '[')
+        {
+            int depth = 0;
+            boolean inString = false, escaped = false;
+            for (; i < json.length(); i++)
+            {
+                char d = json.charAt(i);
+                if (inString)
+                {
+                    if (escaped) escaped = false;
+                    else if (d == '\\') escaped = true;
+                    else if (d == '"') inString = false;
+                }
+                else if (d == '"') inString = true;
+                else if (d == '{' || d == '[') depth++;
+                else if ((d == '}' || d == ']') && --depth == 0) break;
+            }
+            pos[0] = i + 1;
+            return null;
+        }
+        while (i < json.length() && ",}".indexOf(json.charAt(i)) == -1 && !Character.isWhitespace(json.charAt(i))) i++;
+        String literal = json.substring(pos[0], i);
+        pos[0] = i;
+        return literal.equals("null") ? null : literal;
+    }
+
+    /**
+     * Validates the fields of one record, in {@link #FIELDS} order.
+     */
+    private static Row toRow(String[] f)
+    {
+        for (int i = 0; i < FIELDS.length; i++)
+        {
+            if (f[i] == null || f[i].isBlank()) throw new IllegalArgumentException(FIELDS[i] + " is missing");
+            f[i] = f[i].trim();
+        }
+        if (f[1].equalsIgnoreCase(f[2])) throw new IllegalArgumentException("source and destination are the same");
+        BigDecimal price;
+        try
+        {
+            price = new BigDecimal(f[6]);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("invalid price " + f[6]);
+        }
+        if (price.signum() < 0) throw new IllegalArgumentException("negative price " + f[6]);
+        return new Row(f[0], f[1], f[2], LocalDate.parse(f[3]), LocalTime.parse(f[4]), LocalTime.parse(f[5]), price);
+    }
+
+    /**
+     * Key - Case-folded natural key of a flight. Kept whole rather than hashed, so two
+     * different flights can never be taken for duplicates.
+     */
+    private record Key(String airline, String source, String destination, LocalDate date, LocalTime departure) {}
+
+    private static Key key(String airline, String source, String destination, LocalDate date, LocalTime departure)
+    {
+        return new Key(String.valueOf(airline).toLowerCase(Locale.ROOT), String.valueOf(source).toLowerCase(Locale.ROOT),
+                String.valueOf(destination).toLowerCase(Locale.ROOT), date, departure);
+    }
+
+    /**
+     * INSERT of one flight into the columns of the probed schema; bound by {@link #bind}.
+     */
+    static String insertSql(FlightSchema.DateMapping mapping)
+    {
+        return switch (mapping)
+        {
+            case FLIGHT_DATE -> "INSERT INTO flights(airline_name, source, destination, flight_date, departure_time, arrival_time, price) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            case DATE -> "INSERT INTO flights(airline_name, source, destination, `date`, departure_time, arrival_time, price) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            case DEPARTURE_TIME -> "INSERT INTO flights(airline_name, source, destination, departure_time, arrival_time, price) VALUES (?, ?, ?, ?, ?, ?)";
+        };
+    }
+
+    static void bind(PreparedStatement ins, FlightSchema.DateMapping mapping, Row row) throws SQLException
+    {
+        ins.setString(1, row.airline());
+        ins.setString(2, row.source());
+        ins.setString(3, row.destination());
+        if (mapping == FlightSchema.DateMapping.DEPARTURE_TIME)
+        {
+            // Date and time share one column; an arrival before the departure is on the next day
+            LocalDateTime departure = row.date().atTime(row.departure());
+            LocalDateTime arrival = row.date().atTime(row.arrival());
+            if (arrival.isBefore(departure)) arrival = arrival.plusDays(1);
+            ins.setTimestamp(4, Timestamp.valueOf(departure));
+            ins.setTimestamp(5, Timestamp.valueOf(arrival));
+            ins.setBigDecimal(6, row.price());
+        }
+        else
+        {
+            ins.setDate(4, Date.valueOf(row.date()));
+            ins.setTime(5, Time.valueOf(row.departure()));
+            ins.setTime(6, Time.valueOf(row.arrival()));
+            ins.setBigDecimal(7, row.price());
+        }
+    }
+
+    /**
+     * Input stream that counts the bytes read from it, for progress reporting.
+     */
+    private static final class CountingStream extends FilterInputStream
+    {
+        private final AtomicLong count;
+
+        CountingStream(InputStream in, AtomicLong count)
+        {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if (b != -1) count.incrementAndGet();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int n = super.read(b, off, len);
+            if (n > 0) count.addAndGet(n);
+            return n;
+        }
+    }
+}
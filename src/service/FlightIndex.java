@@ -0,0 +1,261 @@
+package service;
+
+import db.DBConnection;
+import db.FlightSchema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlightIndex - In-memory route/date index of the flights table.
+ * Flights are grouped by (source, destination) into arrays sorted by date, so a search is a
+ * hash lookup plus a binary search. Loaded once, kept current from {@link FlightEvents} and
+ * fully refreshed every -Dflight.index.refreshSeconds (default 300) to pick up writes made
+ * by other processes.
+ */
+public final class FlightIndex
+{
+    private static final FlightIndex INSTANCE = new FlightIndex();
+
+    private static final long REFRESH_SECONDS = Long.getLong("flight.index.refreshSeconds", 300);
+    private static final Comparator<Flight> BY_DATE_AND_TIME = Comparator
+            .comparing(Flight::date, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Flight::departureTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    // Index state; routes are replaced copy-on-write so searches never lock
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Flight> byId = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private ScheduledExecutorService refresher;
+
+    private FlightIndex()
+    {
+        FlightEvents.getInstance().subscribe(this::apply);
+    }
+
+    public static FlightIndex getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Route - Flights of one city pair, sorted by date, with a parallel array of epoch days.
+     */
+    private record Route(Flight[] flights, long[] days)
+    {
+        static Route of(List<Flight> list)
+        {
+            Flight[] arr = list.toArray(new Flight[0]);
+            Arrays.sort(arr, BY_DATE_AND_TIME);
+            long[] days = new long[arr.length];
+            for (int i = 0; i < arr.length; i++)
+            {
+                days[i] = arr[i].date() == null ? Long.MIN_VALUE : arr[i].date().toLocalDate().toEpochDay();
+            }
+            return new Route(arr, days);
+        }
+    }
+
+    /**
+     * Finds all flights of a route on a date, ordered by departure time.
+     * Loads the index on first use.
+     * @throws SQLException if the index has never been loaded and the database is unreachable
+     */
+    public List<Flight> search(String source, String destination, LocalDate date) throws SQLException
+    {
+        ensureLoaded();
+        Route route = routes.get(key(source, destination));
+        if (route == null) return List.of();
+
+        long day = date.toEpochDay();
+        int lo = lowerBound(route.days, day);
+        int hi = lo;
+        while (hi < route.days.length && route.days[hi] == day) hi++;
+        return lo == hi ? List.of() : Collections.unmodifiableList(Arrays.asList(route.flights).subList(lo, hi));
+    }
+
+    public Flight get(int flightId)
+    {
+        return byId.get(flightId);
+    }
+
+    /**
+     * Returns a read-only view of every indexed flight.
+     */
+    public Collection<Flight> flights()
+    {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    public boolean isLoaded()
+    {
+        return loaded;
+    }
+
+    /**
+     * Loads the index if it has not been loaded yet.
+     */
+    public void ensureLoaded() throws SQLException
+    {
+        if (!loaded) load();
+    }
+
+    /**
+     * Rebuilds the whole index from the database in one pass.
+     */
+    public synchronized void load() throws SQLException
+    {
+        Map<String, List<Flight>> grouped = new HashMap<>();
+        Map<Integer, Flight> all = new HashMap<>();
+
+        try (Connection con = DBConnection.getConnection())
+        {
+            try (PreparedStatement pst = con.prepareStatement(FlightSchema.get().selectAllSql()))
+            {
+                try (ResultSet r = pst.executeQuery())
+                {
+                    while (r.next())
+                    {
+                        Flight f = Flight.read(r);
+                        all.put(f.flightId(), f);
+                        grouped.computeIfAbsent(key(f.source(), f.destination()), _ -> new ArrayList<>()).add(f);
+                    }
+                }
+            }
+        }
+
+        // Swap in the new content route by route
+        Map<String, Route> fresh = new HashMap<>();
+        grouped.forEach((k, list) -> fresh.put(k, Route.of(list)));
+        routes.putAll(fresh);
+        routes.keySet().retainAll(fresh.keySet());
+        byId.putAll(all);
+        byId.keySet().retainAll(all.keySet());
+        loaded = true;
+    }
+
+    /**
+     * Adds a flight or replaces the flight with the same ID. Does nothing if the index already
+     * holds this exact row.
+     */
+    public synchronized void put(Flight flight)
+    {
+        putAll(List.of(flight));
+    }
+
+    /**
+     * Adds or replaces several flights, rebuilding each affected route once instead of once per
+     * flight; for bulk inserts such as schedule expansion. Rows the index already holds unchanged
+     * are skipped, so the per-flight events published afterwards cost a lookup each.
+     */
+    public synchronized void putAll(Collection<Flight> flights)
+    {
+        Map<String, List<Flight>> added = new HashMap<>();
+        for (Flight flight : flights)
+        {
+            Flight old = byId.put(flight.flightId(), flight);
+            if (flight.equals(old)) continue;
+            if (old != null) removeFromRoute(old);
+            added.computeIfAbsent(key(flight.source(), flight.destination()), _ -> new ArrayList<>()).add(flight);
+        }
+        added.forEach((k, list) ->
+        {
+            Route route = routes.get(k);
+            if (route != null) list.addAll(Arrays.asList(route.flights));
+            routes.put(k, Route.of(list));
+        });
+    }
+
+    /**
+     * Removes a flight from the index.
+     */
+    public synchronized void remove(int flightId)
+    {
+        Flight old = byId.remove(flightId);
+        if (old != null) removeFromRoute(old);
+    }
+
+    private void apply(FlightEvent event)
+    {
+        switch (event)
+        {
+            case FlightEvent.Inserted e -> put(e.flight());
+            case FlightEvent.Updated e -> put(e.flight());
+            case FlightEvent.Deleted e -> remove(e.flightId());
+        }
+    }
+
+    private void removeFromRoute(Flight flight)
+    {
+        String k = key(flight.source(), flight.destination());
+        Route route = routes.get(k);
+        if (route == null) return;
+
+        List<Flight> list = new ArrayList<>(route.flights.length);
+        for (Flight f : route.flights)
+        {
+            if (f.flightId() != flight.flightId()) list.add(f);
+        }
+        if (list.isEmpty()) routes.remove(k);
+        else routes.put(k, Route.of(list));
+    }
+
+    /**
+     * Loads the index on a background thread and schedules the periodic refresh.
+     */
+    public synchronized void startBackgroundRefresh()
+    {
+        if (refresher != null) return;
+        refresher = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread t = new Thread(r, "flight-index-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(() ->
+        {
+            try
+            {
+                load();
+            }
+            catch (SQLException ex)
+            {
+                System.out.println("Flight index refresh failed: " + ex.getMessage());
+            }
+        }, 0, REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static int lowerBound(long[] days, long day)
+    {
+        int lo = 0, hi = days.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static String key(String source, String destination)
+    {
+        return (source == null ? "" : source.trim().toLowerCase(Locale.ROOT)) + '\u0000'
+                + (destination == null ? "" : destination.trim().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import db.DBConnection;
+import db.FlightSchema;
+import metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FlightSearchService - Flight search and seat-map loading for any client (Swing or HTTP).
+ * Searches are answered by {@link FlightIndex}; if the index cannot be loaded the same
+ * search runs against the database. Thread-safe.
+ */
+public final class FlightSearchService
+{
+    private static final FlightSearchService INSTANCE = new FlightSearchService();
+
+    private final FlightIndex index = FlightIndex.getInstance();
+    private final ScheduleService schedules = ScheduleService.getInstance();
+    private final SeatInventory inventory = SeatInventory.getInstance();
+
+    private FlightSearchService() {}
+
+    public static FlightSearchService getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Finds the flights of a route on a date, ordered by departure time.
+     * Recurring schedules of the route are expanded to the date first if needed.
+     */
+    public List<Flight> search(String source, String destination, LocalDate date) throws SQLException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            schedules.ensureExpanded(source, destination, date);
+        }
+        catch (SQLException ex)
+        {
+            Metrics.increment("schedule.expandFailures");
+            System.out.println("Schedule expansion failed: " + ex.getMessage());
+        }
+
+        try
+        {
+            return index.search(source, destination, date);
+        }
+        catch (SQLException ex)
+        {
+            Metrics.increment("search.indexFallback");
+            System.out.println("Flight index unavailable, querying database: " + ex.getMessage());
+        }
+        finally
+        {
+            Metrics.record("search", start);
+        }
+
+        start = System.nanoTime();
+        try
+        {
+            return searchDatabase(source, destination, date);
+        }
+        finally
+        {
+            Metrics.record("search.database", start);
+        }
+    }
+
+    /**
+     * Returns a flight by ID, or null if it does not exist.
+     */
+    public Flight flight(int flightId) throws SQLException
+    {
+        index.ensureLoaded();
+        return index.get(flightId);
+    }
+
+    /**
+     * Returns the seat map of a flight, loading it on first use.
+     */
+    public SeatInventory.FlightSeats seats(int flightId)
+    {
+        return inventory.seats(flightId);
+    }
+
+    /**
+     * Runs the search directly against the database.
+     * Uses the search statement derived from the probed flights schema.
+     */
+    private List<Flight> searchDatabase(String source, String destination, LocalDate date) throws SQLException
+    {
+        List<Flight> flights = new ArrayList<>();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement(FlightSchema.get().searchSql()))
+        {
+            pst.setString(1, source);
+            pst.setString(2, destination);
+            pst.setDate(3, Date.valueOf(date));
+            try (ResultSet r = pst.executeQuery())
+            {
+                while (r.next())
+                {
+                    flights.add(Flight.read(r));
+                }
+            }
+        }
+        return flights;
+    }
+}
@@ -0,0 +1,101 @@
+package service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PasswordHasher - Salted PBKDF2-HMAC-SHA256 password hashes with a tunable iteration count.
+ * Hashes are stored as pbkdf2$iterations$salt$hash (Base64), so the cost can be raised
+ * later without invalidating existing passwords. Values without that prefix are treated
+ * as legacy plaintext passwords. Thread-safe.
+ */
+public final class PasswordHasher
+{
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param iterations PBKDF2 iteration count for new hashes; higher is slower to verify and to attack
+     */
+    public PasswordHasher(int iterations)
+    {
+        if (iterations < 1) throw new IllegalArgumentException("iterations must be positive");
+        this.iterations = iterations;
+    }
+
+    /**
+     * Hashes a password with a fresh random salt.
+     */
+    public String hash(String password)
+    {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Checks a password against a stored value in constant time.
+     * Legacy plaintext values are compared directly.
+     */
+    public boolean verify(String password, String stored)
+    {
+        if (stored == null) return false;
+        if (!isHashed(stored))
+        {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return false;
+        try
+        {
+            Base64.Decoder b64 = Base64.getDecoder();
+            byte[] expected = b64.decode(parts[3]);
+            return MessageDigest.isEqual(derive(password, b64.decode(parts[2]), Integer.parseInt(parts[1])), expected);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return false; // malformed stored value
+        }
+    }
+
+    /**
+     * Returns true if the stored value is plaintext or hashed with a different iteration count.
+     */
+    public boolean needsRehash(String stored)
+    {
+        return !isHashed(stored) || !stored.startsWith(PREFIX + iterations + "$");
+    }
+
+    public static boolean isHashed(String stored)
+    {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations)
+    {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try
+        {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 unavailable", e);
+        }
+        finally
+        {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PricingEngine - Compiles the fare rules of a flight into a flat per-seat price table.
+ * A table holds one fare array per load-factor tier, so pricing a seat is an array lookup.
+ * Tables are cached per flight and dropped when the flight is edited or deleted
+ * ({@link FlightEvents}) or its seat layout changes.
+ * Load-factor tiers are configured with -Dpricing.loadTiers, default "50:110,75:125,90:150"
+ * (from 50% of seats booked the fare is 110%, and so on); an empty value makes fares static.
+ * The load is the flight's committed-booking counter in {@link SeatInventory}, so a quote is O(1).
+ */
+public final class PricingEngine
+{
+    private static final PricingEngine INSTANCE = new PricingEngine();
+
+    /**
+     * SeatPosition - Where a seat sits in its row, for position surcharges.
+     */
+    public enum SeatPosition { WINDOW, AISLE, MIDDLE }
+
+    /**
+     * FareRules - Inputs a fare table is compiled from. Fares are whole rupees.
+     * @param businessFare     Fare of a business-class seat, replacing the flight's base fare
+     * @param loadThresholds   Percent of seats booked at which each load tier starts, ascending
+     * @param loadFarePercents Fare of each load tier as a percent of the static fare
+     */
+    public record FareRules(int businessFare, int windowSurcharge, int aisleSurcharge, int middleSurcharge,
+                            int[] loadThresholds, int[] loadFarePercents)
+    {
+        public static final FareRules DEFAULT =
+                withLoadTiers(8000, 250, 200, 150, System.getProperty("pricing.loadTiers", "50:110,75:125,90:150"));
+
+        /**
+         * Builds rules from a tier spec such as "50:110,75:125,90:150".
+         */
+        public static FareRules withLoadTiers(int businessFare, int window, int aisle, int middle, String tiers)
+        {
+            String[] parts = tiers.isBlank() ? new String[0] : tiers.split(",");
+            int[] thresholds = new int[parts.length];
+            int[] percents = new int[parts.length];
+            for (int i = 0; i < parts.length; i++)
+            {
+                String[] kv = parts[i].trim().split(":");
+                thresholds[i] = Integer.parseInt(kv[0].trim());
+                percents[i] = Integer.parseInt(kv[1].trim());
+            }
+            return new FareRules(businessFare, window, aisle, middle, thresholds, percents);
+        }
+
+        public int surcharge(SeatPosition position)
+        {
+            return switch (position)
+            {
+                case WINDOW -> windowSurcharge;
+                case AISLE -> aisleSurcharge;
+                case MIDDLE -> middleSurcharge;
+            };
+        }
+    }
+
+    /**
+     * FareTable - Compiled fares of one flight: one int array per load tier, indexed by seat.
+     */
+    public static final class FareTable
+    {
+        private final int flightId;
+        private final SeatLayout layout;
+        private final BigDecimal baseFare;
+        private final int[] tierStart; // booked seats at which each tier starts; tierStart[0] == 0
+        private final int[][] fares;
+
+        private FareTable(int flightId, SeatLayout layout, BigDecimal baseFare, int[] tierStart, int[][] fares)
+        {
+            this.flightId = flightId;
+            this.layout = layout;
+            this.baseFare = baseFare;
+            this.tierStart = tierStart;
+            this.fares = fares;
+        }
+
+        public SeatLayout layout()
+        {
+            return layout;
+        }
+
+        /**
+         * Returns the fares at a given number of booked seats. The array is shared; do not modify it.
+         */
+        public int[] fares(int bookedSeats)
+        {
+            int tier = 0;
+            while (tier + 1 < tierStart.length && bookedSeats >= tierStart[tier + 1]) tier++;
+            return fares[tier];
+        }
+
+        /**
+         * Returns the fares at the flight's current load, read from its occupancy counter.
+         */
+        public int[] current()
+        {
+            return fares(SeatInventory.getInstance().occupancy(flightId));
+        }
+
+        /**
+         * Returns the current fare of a seat label such as "12C".
+         * @throws IllegalArgumentException if the seat is not in the layout
+         */
+        public int fare(CharSequence seat)
+        {
+            int idx = layout.indexOf(seat);
+            if (idx < 0) throw new IllegalArgumentException("Unknown seat: " + seat);
+            return current()[idx];
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, FareTable> tables = new ConcurrentHashMap<>();
+    private volatile FareRules rules = FareRules.DEFAULT;
+
+    private PricingEngine()
+    {
+        FlightEvents.getInstance().subscribe(event ->
+        {
+            if (!(event instanceof FlightEvent.Inserted)) invalidate(event.flightId());
+        });
+    }
+
+    public static PricingEngine getInstance()
+    {
+        return INSTANCE;
+    }
+
+    public FareRules rules()
+    {
+        return rules;
+    }
+
+    /**
+     * Replaces the fare rules. Every table is recompiled on next use.
+     */
+    public void setRules(FareRules rules)
+    {
+        this.rules = rules;
+        tables.clear();
+    }
+
+    /**
+     * Returns the fare table of a flight, compiling it if it is missing or stale.
+     * @param baseFare The flight's economy fare (flights.price)
+     */
+    public FareTable fares(int flightId, BigDecimal baseFare)
+    {
+        SeatLayout layout = SeatInventory.getInstance().layoutOf(flightId);
+        FareTable t = tables.get(flightId);
+        if (t != null && t.layout == layout && t.baseFare.compareTo(baseFare) == 0) return t;
+
+        t = compile(flightId, layout, baseFare, rules);
+        tables.put(flightId, t);
+        return t;
+    }
+
+    public void invalidate(int flightId)
+    {
+        tables.remove(flightId);
+    }
+
+    /**
+     * Classifies a column: outermost seats are windows, seats next to an aisle are aisle seats.
+     */
+    public static SeatPosition position(SeatLayout layout, int col)
+    {
+        if (col == 0 || col == layout.columns() - 1) return SeatPosition.WINDOW;
+        if (layout.hasAisleBefore(col) || layout.hasAisleBefore(col + 1)) return SeatPosition.AISLE;
+        return SeatPosition.MIDDLE;
+    }
+
+    /**
+     * Compiles the fare table of one flight.
+     */
+    public static FareTable compile(int flightId, SeatLayout layout, BigDecimal baseFare, FareRules rules)
+    {
+        int base = baseFare.intValue();
+
+        // Surcharge per column, computed once
+        int[] columnSurcharge = new int[layout.columns()];
+        for (int c = 0; c < columnSurcharge.length; c++) columnSurcharge[c] = rules.surcharge(position(layout, c));
+
+        int capacity = layout.capacity();
+        int[] statics = new int[capacity];
+        for (int i = 0; i < capacity; i++)
+        {
+            int fare = layout.isBusiness(layout.rowOf(i)) ? rules.businessFare() : base;
+            statics[i] = fare + columnSurcharge[layout.colOf(i)];
+        }
+
+        // One scaled copy per load tier
+        int tiers = rules.loadThresholds().length + 1;
+        int[] tierStart = new int[tiers];
+        int[][] fares = new int[tiers][];
+        fares[0] = statics;
+        for (int t = 1; t < tiers; t++)
+        {
+            tierStart[t] = (int) Math.ceil(capacity * rules.loadThresholds()[t - 1] / 100.0);
+            int percent = rules.loadFarePercents()[t - 1];
+            int[] scaled = new int[capacity];
+            for (int i = 0; i < capacity; i++) scaled[i] = (int) ((long) statics[i] * percent / 100);
+            fares[t] = scaled;
+        }
+        return new FareTable(flightId, layout, baseFare, tierStart, fares);
+    }
+}
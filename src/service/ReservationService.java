@@ -0,0 +1,505 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ReservationService - Books several seats of one flight as a single all-or-nothing operation.
+ * Seats are claimed in {@link SeatInventory} first (respecting other users' seat holds),
+ * then written with one batched INSERT (rewritten to a multi-row VALUES by the driver)
+ * inside a single transaction. A unique key on (flight_id, active_seat), where active_seat
+ * is a generated column holding the seat of every booking that is not cancelled, makes the
+ * database reject double bookings from other processes without a separate check query,
+ * while a cancelled seat can be booked again straight away. The key is added at startup by
+ * {@link #ensureSeatKey}; a reservation only checks whether it exists.
+ * With -Dbooking.journal=true the rows are written through {@link BookingJournal} instead:
+ * the reservation is acknowledged once group-committed to the local log.
+ * With -Dcluster.enabled=true a flight owned by another node of the {@link SeatCluster} is
+ * booked by forwarding the reservation to that node; this process only mirrors the outcome.
+ * It books locally (or with the next owner) only once an unreachable owner has left the view;
+ * until then the reservation fails with SQLTransientConnectionException and can be retried.
+ * Timed as reserve, reserve.insert and reserve.commit; conflicts and rollbacks are counted.
+ */
+public final class ReservationService
+{
+    private static final ReservationService INSTANCE = new ReservationService();
+
+    static final String INSERT_SQL =
+            "INSERT INTO bookings (flight_id, passenger_name, age, email, seat_number, payment_status) VALUES (?,?,?,?,?,?)";
+    private static final String UNIQUE_KEY_NAME = "uq_bookings_flight_active_seat";
+    private static final String ACTIVE_SEAT_COLUMN = "active_seat VARCHAR(16) AS (IF(payment_status <> '"
+            + CancellationService.CANCELLED + "', seat_number, NULL)) VIRTUAL";
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private final SeatInventory inventory = SeatInventory.getInstance();
+
+    // Whether bookings has the unique (flight_id, active_seat) key; detected once per process
+    private volatile Boolean uniqueSeats;
+
+    /**
+     * SeatRequest - One passenger and the seat they should get.
+     */
+    public record SeatRequest(String seat, String passengerName, int age) {}
+
+    private ReservationService() {}
+
+    public static ReservationService getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Books all requested seats or none of them.
+     * @param flightId Flight to book on
+     * @param email    Contact email stored with every booking
+     * @param requests One entry per seat
+     * @return Generated booking IDs, in request order; empty when the booking journal is
+     *         enabled, since the rows are only written after the reservation is acknowledged
+     * @throws SeatConflictException if any seat is already booked; nothing was written
+     */
+    public List<Integer> reserve(int flightId, String email, List<SeatRequest> requests) throws SeatConflictException, SQLException
+    {
+        return reserve(flightId, email, requests, null);
+    }
+
+    /**
+     * Books all requested seats or none of them, consuming the caller's seat holds.
+     * @param holdOwner Owner of the {@link SeatHolds} on these seats, or null if none
+     * @see #reserve(int, String, List)
+     */
+    public List<Integer> reserve(int flightId, String email, List<SeatRequest> requests, Object holdOwner)
+            throws SeatConflictException, SQLException
+    {
+        SeatCluster cluster = SeatCluster.getInstance();
+        // forward only gives up on an owner that left the view, so the owner differs each round
+        for (SeatCluster.Node owner = cluster.remoteOwner(flightId); owner != null; owner = cluster.remoteOwner(flightId))
+        {
+            List<Integer> ids = forward(owner, flightId, email, requests, holdOwner);
+            if (ids != null) return ids;
+        }
+        return reserveLocal(flightId, email, requests, holdOwner);
+    }
+
+    /**
+     * Books on this node whichever node owns the flight; used for reservations another
+     * {@link SeatCluster} node forwarded here, which must not be forwarded again. Holds are
+     * local to the forwarding process, which consumes its own once this succeeds, so none
+     * are consumed here.
+     * @see #reserve(int, String, List)
+     */
+    public List<Integer> reserveOwned(int flightId, String email, List<SeatRequest> requests) throws SeatConflictException, SQLException
+    {
+        return reserveLocal(flightId, email, requests, null);
+    }
+
+    private List<Integer> reserveLocal(int flightId, String email, List<SeatRequest> requests, Object holdOwner)
+            throws SeatConflictException, SQLException
+    {
+        long start = System.nanoTime();
+        List<String> seats = seatsOf(requests);
+
+        boolean claimed = inventory.tryBook(flightId, seats, holdOwner);
+        if (!claimed && reloadIfStale(flightId, seats)) claimed = inventory.tryBook(flightId, seats, holdOwner);
+        if (!claimed)
+        {
+            SeatLayout layout = inventory.layoutOf(flightId);
+            List<String> taken = new ArrayList<>();
+            for (String seat : seats)
+            {
+                if (!inventory.isAvailable(flightId, layout.indexOf(seat), holdOwner)) taken.add(seat);
+            }
+            Metrics.increment("reserve.conflicts");
+            Metrics.record("reserve", start);
+            throw new SeatConflictException(flightId, taken.isEmpty() ? seats : taken);
+        }
+
+        if (BookingJournal.isEnabled())
+        {
+            boolean journaled = false;
+            try
+            {
+                BookingJournal.getInstance().append(flightId, email, requests);
+                journaled = true;
+                inventory.addCommitted(flightId, requests.size());
+                BookingAnalytics.getInstance().booked(flightId, seats);
+                return List.of();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the booking journal.", e);
+            }
+            finally
+            {
+                if (!journaled) inventory.release(flightId, seats);
+                Metrics.record("reserve", start);
+            }
+        }
+
+        boolean releaseClaim = true;
+        try (Connection con = DBConnection.getConnection())
+        {
+            boolean guarded = hasUniqueSeatKey(con);
+
+            con.setAutoCommit(false);
+            try
+            {
+                if (!guarded)
+                {
+                    List<String> taken = findTaken(con, flightId, seats);
+                    if (!taken.isEmpty())
+                    {
+                        con.rollback();
+                        inventory.reload(flightId);
+                        releaseClaim = false;
+                        Metrics.increment("reserve.conflicts");
+                        throw new SeatConflictException(flightId, taken);
+                    }
+                }
+
+                List<Integer> ids = insertAndCommit(con, flightId, email, requests);
+                releaseClaim = false;
+
+                // Re-mark in case the seat map was reloaded while this transaction was open
+                booked(flightId, email, requests, ids);
+                return ids;
+            }
+            catch (SQLException ex)
+            {
+                con.rollback();
+                Metrics.increment("reserve.rollbacks");
+                if (isDuplicateKey(ex))
+                {
+                    // Booked by another process: our seat map is stale
+                    inventory.reload(flightId);
+                    releaseClaim = false;
+                    Metrics.increment("reserve.conflicts");
+                    throw new SeatConflictException(flightId, seats);
+                }
+                throw ex;
+            }
+        }
+        finally
+        {
+            if (releaseClaim) inventory.release(flightId, seats);
+            Metrics.record("reserve", start);
+        }
+    }
+
+    /**
+     * Books through the node that owns the flight and mirrors the outcome in the local seat map.
+     * @return Booking IDs as returned by the owner (empty if it journaled them), or null if the
+     *         owner could not be reached and has since left the view, so the flight has a new owner
+     * @throws SQLTransientConnectionException if the owner could not be reached but is still in
+     *         the view; booking anywhere else could race it, so the caller should retry
+     */
+    private List<Integer> forward(SeatCluster.Node owner, int flightId, String email, List<SeatRequest> requests, Object holdOwner)
+            throws SeatConflictException, SQLException
+    {
+        StringBuilder form = new StringBuilder("flightId=").append(flightId).append("&email=").append(encode(email));
+        for (SeatRequest r : requests)
+        {
+            form.append("&seat=").append(encode(r.seat()))
+                    .append("&name=").append(encode(r.passengerName()))
+                    .append("&age=").append(r.age());
+        }
+
+        SeatCluster.Reply reply;
+        try
+        {
+            reply = SeatCluster.getInstance().send(owner, "POST", "/reservations", form.toString());
+        }
+        catch (IOException ex)
+        {
+            // Slow or partitioned, not necessarily dead: it may still be booking this flight
+            if (SeatCluster.getInstance().isLive(owner.id()))
+            {
+                Metrics.increment("cluster.forward.unavailable");
+                throw new SQLTransientConnectionException("Seat owner " + owner.id() + " unreachable, try again.", ex);
+            }
+            Metrics.increment("cluster.forward.fallbacks");
+            System.out.println("Seat owner " + owner.id() + " left the cluster, booking with the new owner: " + ex.getMessage());
+            return null;
+        }
+
+        List<String> seats = seatsOf(requests);
+        switch (reply.status())
+        {
+            case 201, 202 ->
+            {
+                List<Integer> ids = new ArrayList<>();
+                for (String id : SeatCluster.arrayField(reply.body(), "bookingIds")) ids.add(Integer.parseInt(id));
+                inventory.tryBook(flightId, seats, holdOwner); // consumes our holds on them
+                booked(flightId, email, requests, ids);
+                return ids;
+            }
+            case 409 ->
+            {
+                inventory.reload(flightId); // our seat map missed the owner's bookings
+                Metrics.increment("reserve.conflicts");
+                List<String> taken = SeatCluster.arrayField(reply.body(), "seats");
+                throw new SeatConflictException(flightId, taken.isEmpty() ? seats : taken);
+            }
+            case 400 -> throw new IllegalArgumentException("Reservation rejected by " + owner.id() + ": " + reply.body());
+            default -> throw new SQLException("Reservation failed on " + owner.id() + " with HTTP " + reply.status());
+        }
+    }
+
+    /**
+     * Records committed (or journaled, if ids is empty) bookings in the in-memory views.
+     */
+    private void booked(int flightId, String email, List<SeatRequest> requests, List<Integer> ids)
+    {
+        List<String> seats = seatsOf(requests);
+        inventory.markBooked(flightId, seats);
+        inventory.addCommitted(flightId, requests.size());
+        BookingAnalytics.getInstance().booked(flightId, seats);
+        List<BookingQueryService.Booking> booked = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++)
+        {
+            SeatRequest r = requests.get(i);
+            booked.add(new BookingQueryService.Booking(ids.get(i), flightId, r.passengerName(), r.age(), email, r.seat(), "PAID"));
+        }
+        BookingQueryService.getInstance().added(booked);
+    }
+
+    private static List<String> seatsOf(List<SeatRequest> requests)
+    {
+        List<String> seats = new ArrayList<>(requests.size());
+        for (SeatRequest r : requests) seats.add(r.seat());
+        return seats;
+    }
+
+    private static String encode(String value)
+    {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private List<Integer> insertAndCommit(Connection con, int flightId, String email, List<SeatRequest> requests) throws SQLException
+    {
+        long step = System.nanoTime();
+        List<Integer> ids = insertBatch(con, flightId, email, requests);
+        Metrics.record("reserve.insert", step);
+        step = System.nanoTime();
+        con.commit();
+        Metrics.record("reserve.commit", step);
+        return ids;
+    }
+
+    /**
+     * Writes all bookings with one executeBatch and collects the generated keys.
+     */
+    private List<Integer> insertBatch(Connection con, int flightId, String email, List<SeatRequest> requests) throws SQLException
+    {
+        List<Integer> ids = new ArrayList<>(requests.size());
+        try (PreparedStatement ins = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS))
+        {
+            for (SeatRequest r : requests)
+            {
+                ins.setInt(1, flightId);
+                ins.setString(2, r.passengerName());
+                ins.setInt(3, r.age());
+                ins.setString(4, email);
+                ins.setString(5, r.seat());
+                ins.setString(6, "PAID");
+                ins.addBatch();
+            }
+
+            int[] counts = ins.executeBatch();
+            for (int i = 0; i < counts.length; i++)
+            {
+                if (counts[i] == 0) throw new SQLException("Insert failed for " + requests.get(i).seat());
+            }
+
+            try (ResultSet keys = ins.getGeneratedKeys())
+            {
+                while (keys.next()) ids.add(keys.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Fallback conflict check, used only when the unique key is missing: one query for all seats.
+     */
+    /**
+     * Checks seats the seat map shows as booked against the database and reloads the map if any
+     * of them is free there. A cancellation made in another process, or a release from another
+     * cluster node that never arrived, otherwise leaves the seat taken here until the next reload.
+     * @return true if the seat map was reloaded
+     */
+    private boolean reloadIfStale(int flightId, List<String> seats) throws SQLException
+    {
+        List<String> booked = new ArrayList<>();
+        for (String seat : seats)
+        {
+            if (inventory.isBooked(flightId, seat)) booked.add(seat);
+        }
+        if (booked.isEmpty()) return false; // only held, which the database knows nothing about
+
+        try (Connection con = DBConnection.getConnection())
+        {
+            if (findTaken(con, flightId, booked).size() == booked.size()) return false;
+        }
+        inventory.reload(flightId); // keeps holds
+        Metrics.increment("reserve.stale_reloads");
+        return true;
+    }
+
+    private List<String> findTaken(Connection con, int flightId, List<String> seats) throws SQLException
+    {
+        StringBuilder q = new StringBuilder("SELECT seat_number FROM bookings WHERE flight_id = ? AND seat_number IN (");
+        for (int i = 0; i < seats.size(); i++) q.append(i == 0 ? "?" : ",?");
+        q.append(") AND payment_status <> ? FOR UPDATE");
+
+        List<String> taken = new ArrayList<>();
+        try (PreparedStatement pst = con.prepareStatement(q.toString()))
+        {
+            pst.setInt(1, flightId);
+            for (int i = 0; i < seats.size(); i++) pst.setString(i + 2, seats.get(i));
+            pst.setString(seats.size() + 2, CancellationService.CANCELLED);
+            try (ResultSet rs = pst.executeQuery())
+            {
+                while (rs.next()) taken.add(rs.getString(1));
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Startup migration: gives bookings the generated active_seat column and the unique
+     * (flight_id, active_seat) key if it lacks them. A unique key on (flight_id, seat_number)
+     * from an older version is dropped in the same ALTER, and reported, since it would keep
+     * cancelled bookings holding their seats. The ALTER may lock the table, so it runs from
+     * {@link Bootstrap} and never from a reservation. Safe to call more than once.
+     * The booking journal depends on the key to detect entries that were already applied.
+     * @throws SQLException if the key is missing and cannot be added, e.g. because of
+     *         duplicate active seat bookings; reservations then use the locking check
+     */
+    public synchronized void ensureSeatKey() throws SQLException
+    {
+        if (Boolean.TRUE.equals(uniqueSeats)) return;
+        try (Connection con = DBConnection.getConnection())
+        {
+            Map<String, List<String>> indexes = uniqueIndexes(con);
+            if (hasActiveSeatKey(indexes))
+            {
+                uniqueSeats = true;
+                return;
+            }
+
+            boolean hasColumn;
+            try (ResultSet rs = con.getMetaData().getColumns(con.getCatalog(), null, "bookings", "active_seat"))
+            {
+                hasColumn = rs.next();
+            }
+            StringBuilder alter = new StringBuilder("ALTER TABLE bookings");
+            if (!hasColumn) alter.append(" ADD COLUMN ").append(ACTIVE_SEAT_COLUMN).append(',');
+            for (Map.Entry<String, List<String>> index : indexes.entrySet())
+            {
+                if (index.getValue().size() == 2 && Set.copyOf(index.getValue()).equals(Set.of("flight_id", "seat_number")))
+                {
+                    System.out.println("Replacing unique key " + index.getKey() + " (flight_id, seat_number) of bookings with "
+                            + UNIQUE_KEY_NAME + " (flight_id, active_seat).");
+                    alter.append(" DROP INDEX `").append(index.getKey()).append("`,");
+                }
+            }
+            alter.append(" ADD UNIQUE KEY ").append(UNIQUE_KEY_NAME).append(" (flight_id, active_seat)");
+            try (Statement st = con.createStatement())
+            {
+                st.executeUpdate(alter.toString());
+            }
+            uniqueSeats = true;
+        }
+        catch (SQLException ex)
+        {
+            throw new SQLException("The bookings table has no unique (flight_id, active_seat) key and it could not be added;"
+                    + " remove duplicate seat bookings and restart.", ex);
+        }
+    }
+
+    /**
+     * Checks once whether bookings has the unique (flight_id, active_seat) key. Never changes
+     * the schema; {@link #ensureSeatKey} adds the key at startup. Without it the locking check is used.
+     */
+    private boolean hasUniqueSeatKey(Connection con)
+    {
+        Boolean known = uniqueSeats;
+        if (known != null) return known;
+
+        synchronized (this)
+        {
+            if (uniqueSeats != null) return uniqueSeats;
+
+            boolean found = false;
+            try
+            {
+                found = hasActiveSeatKey(uniqueIndexes(con));
+            }
+            catch (SQLException ex)
+            {
+                System.out.println("Could not read the keys of bookings: " + ex.getMessage());
+            }
+            if (!found) System.out.println("Unique (flight_id, active_seat) key missing, using locking check.");
+            uniqueSeats = found;
+            return found;
+        }
+    }
+
+    /**
+     * Returns the unique indexes of bookings by name, with their lower-case column names.
+     */
+    private static Map<String, List<String>> uniqueIndexes(Connection con) throws SQLException
+    {
+        Map<String, List<String>> indexes = new HashMap<>();
+        try (ResultSet rs = con.getMetaData().getIndexInfo(con.getCatalog(), null, "bookings", true, false))
+        {
+            while (rs.next())
+            {
+                String column = rs.getString("COLUMN_NAME");
+                if (column != null)
+                {
+                    indexes.computeIfAbsent(rs.getString("INDEX_NAME"), _ -> new ArrayList<>()).add(column.toLowerCase());
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private static boolean hasActiveSeatKey(Map<String, List<String>> indexes)
+    {
+        for (List<String> cols : indexes.values())
+        {
+            if (cols.size() == 2 && Set.copyOf(cols).equals(Set.of("flight_id", "active_seat"))) return true;
+        }
+        return false;
+    }
+
+    static boolean isDuplicateKey(SQLException ex)
+    {
+        for (Throwable t = ex; t != null; t = t.getCause())
+        {
+            if (t instanceof SQLException sql && sql.getErrorCode() == ER_DUP_ENTRY) return true;
+        }
+        for (SQLException next = ex.getNextException(); next != null; next = next.getNextException())
+        {
+            if (next.getErrorCode() == ER_DUP_ENTRY) return true;
+        }
+        return false;
+    }
+}
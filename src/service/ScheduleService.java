@@ -0,0 +1,398 @@
+package service;
+
+import db.DBConnection;
+import db.FlightSchema;
+import metrics.Metrics;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScheduleService - Recurring flight schedules. A schedule (airline, route, times, price,
+ * weekdays and validity range) is stored once in flight_schedules and expanded into concrete
+ * flights rows up to a rolling horizon of -Dschedule.horizonDays days (default 90). Each
+ * expansion writes all of its flights with one batched INSERT in one transaction and
+ * publishes them on {@link FlightEvents}. A search for a date past a schedule's expanded range
+ * expands it on demand first, and a background task moves the horizon forward every
+ * -Dschedule.extendHours hours (default 6). Thread-safe.
+ */
+public final class ScheduleService
+{
+    private static final int HORIZON_DAYS = Integer.getInteger("schedule.horizonDays", 90);
+    private static final long EXTEND_HOURS = Long.getLong("schedule.extendHours", 6);
+
+    private static final ScheduleService INSTANCE = new ScheduleService();
+
+    /**
+     * Schedule - One row of flight_schedules. Flights exist up to expandedTo (inclusive).
+     */
+    public record Schedule(int scheduleId, String airline, String source, String destination, LocalTime departure, LocalTime arrival,
+                           BigDecimal price, Set<DayOfWeek> days, LocalDate validFrom, LocalDate validTo, LocalDate expandedTo)
+    {
+        public boolean runsOn(LocalDate day)
+        {
+            return !day.isBefore(validFrom) && !day.isAfter(validTo) && days.contains(day.getDayOfWeek());
+        }
+
+        /**
+         * Number of flights the schedule has up to its expanded date.
+         */
+        public int flightCount()
+        {
+            int n = 0;
+            for (LocalDate day = validFrom; !day.isAfter(expandedTo); day = day.plusDays(1))
+            {
+                if (runsOn(day)) n++;
+            }
+            return n;
+        }
+
+        Schedule expandedTo(LocalDate day)
+        {
+            return new Schedule(scheduleId, airline, source, destination, departure, arrival, price, days, validFrom, validTo, day);
+        }
+    }
+
+    // Schedules by route, loaded on first use and replaced as a whole on change; written under this
+    private volatile Map<String, List<Schedule>> routes;
+
+    private ScheduledExecutorService extender;
+
+    private ScheduleService() {}
+
+    public static ScheduleService getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Stores a schedule and expands it up to the horizon.
+     * @return The schedule with the date its flights now reach
+     */
+    public Schedule create(String airline, String source, String destination, LocalTime departure, LocalTime arrival,
+                           BigDecimal price, Set<DayOfWeek> days, LocalDate validFrom, LocalDate validTo) throws SQLException
+    {
+        if (days.isEmpty()) throw new IllegalArgumentException("Choose at least one day of the week.");
+        if (validTo.isBefore(validFrom)) throw new IllegalArgumentException("The schedule ends before it starts.");
+        if (source.equalsIgnoreCase(destination)) throw new IllegalArgumentException("Source and destination are the same.");
+        if (price.signum() < 0) throw new IllegalArgumentException("Price cannot be negative.");
+
+        long start = System.nanoTime();
+        Schedule schedule;
+        try (Connection con = DBConnection.getConnection())
+        {
+            ensureTable(con);
+            try (PreparedStatement pst = con.prepareStatement("INSERT INTO flight_schedules(airline_name, source, destination, departure_time,"
+                    + " arrival_time, price, days_of_week, valid_from, valid_to, expanded_to) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS))
+            {
+                LocalDate none = validFrom.minusDays(1);
+                pst.setString(1, airline);
+                pst.setString(2, source);
+                pst.setString(3, destination);
+                pst.setTime(4, Time.valueOf(departure));
+                pst.setTime(5, Time.valueOf(arrival));
+                pst.setBigDecimal(6, price);
+                pst.setInt(7, mask(days));
+                pst.setDate(8, Date.valueOf(validFrom));
+                pst.setDate(9, Date.valueOf(validTo));
+                pst.setDate(10, Date.valueOf(none));
+                pst.executeUpdate();
+                try (ResultSet keys = pst.getGeneratedKeys())
+                {
+                    if (!keys.next()) throw new SQLException("No schedule ID returned.");
+                    schedule = new Schedule(keys.getInt(1), airline, source, destination, departure, arrival, price,
+                            EnumSet.copyOf(days), validFrom, validTo, none);
+                }
+            }
+        }
+        finally
+        {
+            Metrics.record("schedule.create", start);
+        }
+
+        routes(); // load the others before adding this one
+        replace(schedule);
+        return expand(schedule, horizon(schedule));
+    }
+
+    /**
+     * Returns every schedule.
+     */
+    public List<Schedule> schedules() throws SQLException
+    {
+        List<Schedule> all = new ArrayList<>();
+        routes().values().forEach(all::addAll);
+        return all;
+    }
+
+    /**
+     * Makes sure every schedule of a route that runs on the date has been expanded to it.
+     * Called before each search; costs one map lookup when nothing needs expanding.
+     */
+    public void ensureExpanded(String source, String destination, LocalDate date) throws SQLException
+    {
+        List<Schedule> route = routes().get(key(source, destination));
+        if (route == null) return;
+        for (Schedule s : route)
+        {
+            if (s.expandedTo().isBefore(date) && !date.isBefore(s.validFrom()) && !date.isAfter(s.validTo()))
+            {
+                LocalDate upTo = horizon(s);
+                expand(s, upTo.isBefore(date) ? date : upTo);
+            }
+        }
+    }
+
+    /**
+     * Expands every schedule up to the horizon.
+     * @return Number of flights added
+     */
+    public int extendAll() throws SQLException
+    {
+        int added = 0;
+        for (Schedule s : schedules())
+        {
+            LocalDate upTo = horizon(s);
+            if (s.expandedTo().isBefore(upTo)) added += expand(s, upTo).flightCount() - s.flightCount();
+        }
+        return added;
+    }
+
+    /**
+     * Schedules the periodic horizon extension. Safe to call more than once.
+     */
+    public synchronized void start()
+    {
+        if (extender != null) return;
+        extender = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread t = new Thread(r, "schedule-horizon");
+            t.setDaemon(true);
+            return t;
+        });
+        extender.scheduleWithFixedDelay(() ->
+        {
+            try
+            {
+                int added = extendAll();
+                if (added > 0) System.out.println("Schedules extended: " + added + " flights added.");
+            }
+            catch (SQLException ex)
+            {
+                System.out.println("Schedule extension failed: " + ex.getMessage());
+            }
+        }, 0, EXTEND_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Writes the flights of the days after the schedule's expanded range up to the given date,
+     * all in one batch and one transaction. The schedule row is locked first, so concurrent
+     * expansions (in this or another process) never write the same day twice.
+     * @return The schedule as stored after the expansion
+     */
+    private synchronized Schedule expand(Schedule schedule, LocalDate upTo) throws SQLException
+    {
+        // Another search may have expanded it while this one waited
+        Schedule current = find(schedule.scheduleId());
+        if (current != null && !current.expandedTo().isBefore(upTo)) return current;
+
+        long start = System.nanoTime();
+        List<Flight> added = new ArrayList<>();
+        LocalDate expandedTo;
+        try (Connection con = DBConnection.getConnection())
+        {
+            FlightSchema.DateMapping mapping = FlightSchema.get().dateMapping();
+            con.setAutoCommit(false);
+            try
+            {
+                try (PreparedStatement lock = con.prepareStatement("SELECT expanded_to FROM flight_schedules WHERE schedule_id = ? FOR UPDATE"))
+                {
+                    lock.setInt(1, schedule.scheduleId());
+                    try (ResultSet r = lock.executeQuery())
+                    {
+                        if (!r.next()) throw new SQLException("Schedule " + schedule.scheduleId() + " no longer exists.");
+                        expandedTo = r.getDate(1).toLocalDate();
+                    }
+                }
+
+                if (expandedTo.isBefore(upTo))
+                {
+                    List<LocalDate> days = new ArrayList<>();
+                    try (PreparedStatement ins = con.prepareStatement(FlightImporter.insertSql(mapping), Statement.RETURN_GENERATED_KEYS))
+                    {
+                        for (LocalDate day = expandedTo.plusDays(1); !day.isAfter(upTo); day = day.plusDays(1))
+                        {
+                            if (!schedule.runsOn(day)) continue;
+                            FlightImporter.bind(ins, mapping, new FlightImporter.Row(schedule.airline(), schedule.source(),
+                                    schedule.destination(), day, schedule.departure(), schedule.arrival(), schedule.price()));
+                            ins.addBatch();
+                            days.add(day);
+                        }
+                        if (!days.isEmpty())
+                        {
+                            ins.executeBatch();
+                            try (ResultSet keys = ins.getGeneratedKeys())
+                            {
+                                for (int i = 0; keys.next() && i < days.size(); i++)
+                                {
+                                    added.add(new Flight(keys.getInt(1), schedule.airline(), schedule.source(), schedule.destination(),
+                                            Date.valueOf(days.get(i)), Time.valueOf(schedule.departure()), Time.valueOf(schedule.arrival()),
+                                            schedule.price()));
+                                }
+                            }
+                        }
+                    }
+                    try (PreparedStatement pst = con.prepareStatement("UPDATE flight_schedules SET expanded_to = ? WHERE schedule_id = ?"))
+                    {
+                        pst.setDate(1, Date.valueOf(upTo));
+                        pst.setInt(2, schedule.scheduleId());
+                        pst.executeUpdate();
+                    }
+                    expandedTo = upTo;
+                }
+                con.commit();
+            }
+            catch (SQLException | RuntimeException ex)
+            {
+                con.rollback();
+                throw ex;
+            }
+        }
+        finally
+        {
+            Metrics.record("schedule.expand", start);
+        }
+
+        Schedule stored = schedule.expandedTo(expandedTo);
+        replace(stored);
+        if (!added.isEmpty())
+        {
+            Metrics.getInstance().counter("schedule.flights").add(added.size());
+            FlightIndex.getInstance().putAll(added); // one re-sort per route; the index then skips the events below
+            for (Flight f : added) FlightEvents.getInstance().publish(new FlightEvent.Inserted(f));
+        }
+        return stored;
+    }
+
+    private Schedule find(int scheduleId)
+    {
+        Map<String, List<Schedule>> r = routes;
+        if (r == null) return null;
+        for (List<Schedule> list : r.values())
+        {
+            for (Schedule s : list)
+            {
+                if (s.scheduleId() == scheduleId) return s;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, List<Schedule>> routes() throws SQLException
+    {
+        Map<String, List<Schedule>> r = routes;
+        return r != null ? r : load();
+    }
+
+    private synchronized Map<String, List<Schedule>> load() throws SQLException
+    {
+        if (routes != null) return routes;
+        Map<String, List<Schedule>> loaded = new HashMap<>();
+        try (Connection con = DBConnection.getConnection())
+        {
+            ensureTable(con);
+            try (PreparedStatement pst = con.prepareStatement("SELECT schedule_id, airline_name, source, destination, departure_time,"
+                    + " arrival_time, price, days_of_week, valid_from, valid_to, expanded_to FROM flight_schedules");
+                 ResultSet r = pst.executeQuery())
+            {
+                while (r.next())
+                {
+                    Schedule s = new Schedule(r.getInt(1), r.getString(2), r.getString(3), r.getString(4), r.getTime(5).toLocalTime(),
+                            r.getTime(6).toLocalTime(), r.getBigDecimal(7), days(r.getInt(8)), r.getDate(9).toLocalDate(),
+                            r.getDate(10).toLocalDate(), r.getDate(11).toLocalDate());
+                    loaded.computeIfAbsent(key(s.source(), s.destination()), _ -> new ArrayList<>()).add(s);
+                }
+            }
+        }
+        routes = loaded;
+        return loaded;
+    }
+
+    /**
+     * Swaps in a copy of the route map with the schedule added or replaced.
+     */
+    private synchronized void replace(Schedule schedule)
+    {
+        Map<String, List<Schedule>> copy = new HashMap<>(routes == null ? Map.of() : routes);
+        String k = key(schedule.source(), schedule.destination());
+        List<Schedule> list = new ArrayList<>(copy.getOrDefault(k, List.of()));
+        list.removeIf(s -> s.scheduleId() == schedule.scheduleId());
+        list.add(schedule);
+        copy.put(k, List.copyOf(list));
+        routes = copy;
+    }
+
+    /**
+     * The date a schedule is kept expanded to: the horizon or its last day, whichever is earlier.
+     */
+    private static LocalDate horizon(Schedule s)
+    {
+        LocalDate horizon = LocalDate.now().plusDays(HORIZON_DAYS);
+        return horizon.isBefore(s.validTo()) ? horizon : s.validTo();
+    }
+
+    private static void ensureTable(Connection con) throws SQLException
+    {
+        try (Statement st = con.createStatement())
+        {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS flight_schedules ("
+                    + "schedule_id INT AUTO_INCREMENT PRIMARY KEY, airline_name VARCHAR(100) NOT NULL,"
+                    + " source VARCHAR(100) NOT NULL, destination VARCHAR(100) NOT NULL,"
+                    + " departure_time TIME NOT NULL, arrival_time TIME NOT NULL, price DECIMAL(10, 2) NOT NULL,"
+                    + " days_of_week TINYINT NOT NULL, valid_from DATE NOT NULL, valid_to DATE NOT NULL, expanded_to DATE NOT NULL)");
+        }
+    }
+
+    // Days of week as bits, Monday = bit 0
+    private static int mask(Set<DayOfWeek> days)
+    {
+        int mask = 0;
+        for (DayOfWeek d : days) mask |= 1 << (d.getValue() - 1);
+        return mask;
+    }
+
+    private static Set<DayOfWeek> days(int mask)
+    {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values())
+        {
+            if ((mask & 1 << (d.getValue() - 1)) != 0) days.add(d);
+        }
+        return days;
+    }
+
+    private static String key(String source, String destination)
+    {
+        return source.trim().toLowerCase(Locale.ROOT) + '\u0000' + destination.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,493 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SeatCluster - Partitioned ownership of seat inventory when several booking front-ends share
+ * one database. Enabled with -Dcluster.enabled=true; otherwise every flight is local and no
+ * method does any work.
+ * Flights are hashed by flight_id into -Dcluster.partitions partitions (default 64) and each
+ * partition is owned by exactly one live node, chosen by rendezvous hashing over the members,
+ * so a node joining or leaving only moves the partitions it gains or loses. The owner
+ * serializes reservations for its flights in its {@link SeatInventory}; other processes forward
+ * them to it over the HTTP API (see api.BookingServer) instead of racing at the database.
+ * Members (servers that {@link #join} with an HTTP address) heartbeat into the cluster_nodes
+ * table every -Dcluster.heartbeatMillis (default 1000); a member whose heartbeat is older than
+ * -Dcluster.timeoutMillis (default 5000, judged by the database clock) is dropped and its
+ * partitions fail over to the remaining members, which reload those seat maps from the
+ * database. Processes that only {@link #start} (the desktop apps) follow the membership,
+ * forward reservations and read seat maps from the owner. Seat holds are not forwarded: a hold
+ * only keeps other users of the same process off a seat, and the owner's reservation decides.
+ * Every process of a cluster must share the secret -Dcluster.secret, sent with each request one
+ * node makes to another; starting without it fails. A request that claims to be forwarded
+ * without the secret is served like any client request, and seat releases are only accepted
+ * from a current member. During a failover two nodes may briefly both accept a flight; the
+ * unique (flight_id, active_seat) key still rejects the loser, as it does without a cluster.
+ */
+public final class SeatCluster
+{
+    private static final boolean ENABLED = Boolean.getBoolean("cluster.enabled");
+    private static final int PARTITIONS = Integer.getInteger("cluster.partitions", 64);
+    private static final long HEARTBEAT_MILLIS = Long.getLong("cluster.heartbeatMillis", 1000);
+    private static final long TIMEOUT_MILLIS = Long.getLong("cluster.timeoutMillis", 5000);
+    private static final long FORWARD_TIMEOUT_MILLIS = Long.getLong("cluster.forwardTimeoutMillis", 5000);
+    private static final byte[] SECRET = System.getProperty("cluster.secret", "").getBytes(StandardCharsets.UTF_8);
+
+    /** Header marking a request forwarded by another node, set to the sender's node ID; the receiver never forwards it again. */
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+    /** Header carrying the shared cluster secret. */
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    private static final String SEAT_ENTRY = "{\"seat\":\"";
+
+    private static final SeatCluster INSTANCE = new SeatCluster();
+
+    /**
+     * Node - One member and the base URL of its HTTP API.
+     */
+    public record Node(String id, String address) {}
+
+    /**
+     * View - Live members, sorted by ID, and the owner of every partition.
+     */
+    public record View(List<Node> nodes, Node[] owners)
+    {
+        static final View EMPTY = new View(List.of(), new Node[0]);
+
+        public Node ownerOf(int partition)
+        {
+            return owners.length == 0 ? null : owners[partition];
+        }
+
+        int ownedBy(String nodeId)
+        {
+            int n = 0;
+            for (Node owner : owners)
+            {
+                if (owner.id().equals(nodeId)) n++;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Reply - Status code and body returned by another node.
+     */
+    public record Reply(int status, String body) {}
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(FORWARD_TIMEOUT_MILLIS))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private volatile View view = View.EMPTY;
+    private volatile Node self; // null unless this process is a member
+    private ScheduledExecutorService heartbeat;
+    private boolean tableReady; // only touched by the heartbeat thread
+
+    private SeatCluster() {}
+
+    public static SeatCluster getInstance()
+    {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled()
+    {
+        return ENABLED;
+    }
+
+    /**
+     * Follows the membership without owning partitions, so every reservation is forwarded.
+     * Safe to call more than once; does nothing unless the cluster is enabled.
+     * @throws IllegalStateException if -Dcluster.secret is not set
+     */
+    public synchronized void start()
+    {
+        if (!ENABLED || heartbeat != null) return;
+        if (SECRET.length == 0) throw new IllegalStateException("Set -Dcluster.secret to the same value on every process of the seat cluster.");
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread t = new Thread(r, "cluster-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleWithFixedDelay(this::beat, 0, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Becomes a member that owns partitions and serves forwarded requests at the given address.
+     * The node ID is -Dcluster.nodeId, or the address if unset. Call once the HTTP API is listening.
+     * @param address Base URL of this node's HTTP API, e.g. http://10.0.0.5:8080
+     */
+    public synchronized void join(String address)
+    {
+        if (!ENABLED) return;
+        self = new Node(System.getProperty("cluster.nodeId", address), address);
+        start();
+        System.out.println("Joined seat cluster as " + self.id());
+    }
+
+    /**
+     * Leaves the cluster so the other members take over this node's partitions immediately
+     * instead of after the heartbeat timeout.
+     */
+    public synchronized void leave()
+    {
+        if (heartbeat == null) return;
+        heartbeat.shutdownNow();
+        heartbeat = null;
+        Node me = self;
+        self = null;
+        if (me == null) return;
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement("DELETE FROM cluster_nodes WHERE node_id = ?"))
+        {
+            pst.setString(1, me.id());
+            pst.executeUpdate();
+        }
+        catch (SQLException ex)
+        {
+            System.out.println("Could not leave the seat cluster: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the current membership view.
+     */
+    public View view()
+    {
+        return view;
+    }
+
+    /**
+     * Returns this node, or null if it is not a member.
+     */
+    public Node self()
+    {
+        return self;
+    }
+
+    /**
+     * Returns true if a request carries the cluster secret, i.e. comes from a process of this cluster.
+     */
+    public boolean isAuthentic(String secret)
+    {
+        return ENABLED && SECRET.length > 0 && secret != null
+                && MessageDigest.isEqual(SECRET, secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns true if a request carries the cluster secret and comes from a node of the current view.
+     */
+    public boolean isMember(String nodeId, String secret)
+    {
+        return isAuthentic(secret) && isLive(nodeId);
+    }
+
+    /**
+     * Returns true if the node is in the current view, i.e. its heartbeat has not lapsed.
+     */
+    public boolean isLive(String nodeId)
+    {
+        for (Node n : view.nodes())
+        {
+            if (n.id().equals(nodeId)) return true;
+        }
+        return false;
+    }
+
+    public static int partitionOf(int flightId)
+    {
+        return Math.floorMod(Long.hashCode(mix(flightId)), PARTITIONS);
+    }
+
+    /**
+     * Returns the node that owns a flight if it is another node, or null if this process should
+     * handle the flight itself: the cluster is disabled, this node owns it, or no member is alive.
+     */
+    public Node remoteOwner(int flightId)
+    {
+        if (!ENABLED) return null;
+        Node owner = view.ownerOf(partitionOf(flightId));
+        Node me = self;
+        return owner == null || (me != null && owner.id().equals(me.id())) ? null : owner;
+    }
+
+    /**
+     * Sends a request to another node, marked as forwarded.
+     * @param form Form-encoded body, or null for a request without one
+     * @throws IOException if the node cannot be reached or does not answer in time
+     */
+    public Reply send(Node node, String method, String pathAndQuery, String form) throws IOException
+    {
+        long start = System.nanoTime();
+        HttpRequest.Builder req = request(node.address() + pathAndQuery);
+        if (form == null)
+        {
+            req.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        else
+        {
+            req.header("Content-Type", "application/x-www-form-urlencoded")
+                    .method(method, HttpRequest.BodyPublishers.ofString(form, StandardCharsets.UTF_8));
+        }
+
+        try
+        {
+            HttpResponse<String> res = http.send(req.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            return new Reply(res.statusCode(), res.body());
+        }
+        catch (HttpTimeoutException ex)
+        {
+            Metrics.increment("cluster.forward.timeouts");
+            throw ex;
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while forwarding to " + node.id(), ex);
+        }
+        finally
+        {
+            Metrics.record("cluster.forward", start);
+        }
+    }
+
+    /**
+     * Copies the booked seats of a flight from the node that owns it into the local seat map,
+     * which otherwise misses bookings made through other nodes.
+     * @return False if this process owns the flight or the owner did not answer; the local seat map is unchanged then
+     */
+    public boolean refreshSeats(int flightId)
+    {
+        Node owner = remoteOwner(flightId);
+        if (owner == null) return false;
+        try
+        {
+            Reply reply = send(owner, "GET", "/flights/" + flightId + "/seats", null);
+            if (reply.status() != 200) return false;
+
+            // Entries look like {"seat":"12A","available":false,"fare":...}
+            String body = reply.body();
+            List<String> booked = new ArrayList<>();
+            for (int at = body.indexOf(SEAT_ENTRY); at >= 0; at = body.indexOf(SEAT_ENTRY, at + 1))
+            {
+                int from = at + SEAT_ENTRY.length();
+                int to = body.indexOf('"', from);
+                if (to < 0) break;
+                if (body.startsWith(",\"available\":false", to + 1)) booked.add(body.substring(from, to));
+            }
+            SeatInventory.getInstance().replaceBooked(flightId, booked);
+            return true;
+        }
+        catch (IOException ex)
+        {
+            Metrics.increment("cluster.forward.fallbacks");
+            return false;
+        }
+    }
+
+    /**
+     * Tells the owner of a flight that a seat was cancelled here, so its seat map frees it
+     * without waiting for a conflict. Best effort and asynchronous. Only members are trusted to
+     * release seats, so a process that has not joined sends nothing; in both cases the owner
+     * finds the seat free in the database when a booking for it conflicts, and reloads.
+     */
+    public void released(int flightId, String seat)
+    {
+        Node owner = remoteOwner(flightId);
+        if (owner == null || seat == null || self == null) return;
+        String form = "flightId=" + flightId + "&seat=" + URLEncoder.encode(seat, StandardCharsets.UTF_8);
+        HttpRequest req = request(owner.address() + "/cluster/released")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form, StandardCharsets.UTF_8))
+                .build();
+        http.sendAsync(req, HttpResponse.BodyHandlers.discarding()).whenComplete((res, ex) ->
+        {
+            if (ex != null || res.statusCode() != 200) Metrics.increment("cluster.released.lost");
+        });
+    }
+
+    /**
+     * Starts a request to another node, marked as forwarded by this node and carrying the secret.
+     */
+    private HttpRequest.Builder request(String url)
+    {
+        Node me = self;
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(FORWARD_TIMEOUT_MILLIS))
+                .header(FORWARDED_HEADER, me == null ? "-" : me.id()) // "-": a process that is not a member
+                .header(SECRET_HEADER, new String(SECRET, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a flat JSON array field such as "seats":["1A","1B"] or "bookingIds":[4, 5] from a
+     * reply of the HTTP API.
+     * @return The elements without quotes; empty if the field is missing
+     */
+    static List<String> arrayField(String json, String field)
+    {
+        List<String> values = new ArrayList<>();
+        int at = json.indexOf("\"" + field + "\":[");
+        if (at < 0) return values;
+        int from = at + field.length() + 4;
+        int to = json.indexOf(']', from);
+        if (to < 0) return values;
+        for (String v : json.substring(from, to).split(","))
+        {
+            v = v.trim();
+            if (v.length() >= 2 && v.startsWith("\"") && v.endsWith("\"")) v = v.substring(1, v.length() - 1);
+            if (!v.isEmpty()) values.add(v);
+        }
+        return values;
+    }
+
+    // Membership
+
+    /**
+     * One heartbeat: refreshes this member's row, reads the live members and installs the new
+     * view. Failures are logged and retried on the next tick with the old view.
+     */
+    private void beat()
+    {
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection())
+        {
+            if (!tableReady)
+            {
+                ensureTable(con);
+                tableReady = true;
+            }
+            Node me = self;
+            if (me != null)
+            {
+                try (PreparedStatement pst = con.prepareStatement("INSERT INTO cluster_nodes(node_id, address, heartbeat_at) VALUES (?, ?, NOW(3))"
+                        + " ON DUPLICATE KEY UPDATE address = VALUES(address), heartbeat_at = NOW(3)"))
+                {
+                    pst.setString(1, me.id());
+                    pst.setString(2, me.address());
+                    pst.executeUpdate();
+                }
+            }
+
+            List<Node> live = new ArrayList<>();
+            try (PreparedStatement pst = con.prepareStatement("SELECT node_id, address FROM cluster_nodes"
+                    + " WHERE heartbeat_at > NOW(3) - INTERVAL ? MICROSECOND"))
+            {
+                pst.setLong(1, TIMEOUT_MILLIS * 1000);
+                try (ResultSet rs = pst.executeQuery())
+                {
+                    while (rs.next()) live.add(new Node(rs.getString(1), rs.getString(2)));
+                }
+            }
+            install(live);
+        }
+        catch (SQLException ex)
+        {
+            Metrics.increment("cluster.heartbeat.failures");
+            System.out.println("Seat cluster heartbeat failed: " + ex.getMessage());
+        }
+        catch (RuntimeException ex)
+        {
+            ex.printStackTrace(); // keep the heartbeat scheduled
+        }
+        finally
+        {
+            Metrics.record("cluster.heartbeat", start);
+        }
+    }
+
+    /**
+     * Installs a new view if the membership changed and reloads the seat maps of the
+     * partitions this node gained, since their previous owner may have booked seats in them.
+     */
+    private void install(List<Node> live)
+    {
+        live.sort(Comparator.comparing(Node::id));
+        View old = view;
+        if (live.equals(old.nodes())) return;
+
+        Node[] owners = new Node[live.isEmpty() ? 0 : PARTITIONS];
+        for (int p = 0; p < owners.length; p++)
+        {
+            Node best = null;
+            long bestWeight = 0;
+            for (Node n : live)
+            {
+                long w = mix(n.id().hashCode() * 0x9E3779B97F4A7C15L + p);
+                if (best == null || Long.compareUnsigned(w, bestWeight) > 0)
+                {
+                    best = n;
+                    bestWeight = w;
+                }
+            }
+            owners[p] = best;
+        }
+        View next = new View(List.copyOf(live), owners);
+        view = next;
+
+        Node me = self;
+        int gained = 0;
+        if (me != null)
+        {
+            boolean[] reload = new boolean[PARTITIONS];
+            for (int p = 0; p < PARTITIONS; p++)
+            {
+                Node was = old.ownerOf(p);
+                if (next.ownerOf(p).id().equals(me.id()) && was != null && !was.id().equals(me.id()))
+                {
+                    reload[p] = true;
+                    gained++;
+                }
+            }
+            if (gained > 0) SeatInventory.getInstance().reloadIf(flightId -> reload[partitionOf(flightId)]);
+        }
+        if (gained > 0) Metrics.getInstance().counter("cluster.partitions.gained").add(gained);
+        Metrics.increment("cluster.views");
+        System.out.println("Seat cluster view: " + live.size() + " node(s)"
+                + (me == null ? "" : ", " + next.ownedBy(me.id()) + " of " + PARTITIONS + " partitions owned here"));
+    }
+
+    private static void ensureTable(Connection con) throws SQLException
+    {
+        try (Statement st = con.createStatement())
+        {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS cluster_nodes (node_id VARCHAR(100) PRIMARY KEY,"
+                    + " address VARCHAR(255) NOT NULL, heartbeat_at TIMESTAMP(3) NOT NULL)");
+        }
+    }
+
+    /**
+     * 64-bit finalizer (splitmix64), spreading sequential flight IDs evenly over partitions.
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,33 @@
+package service;
+
+import java.util.List;
+
+/**
+ * SeatConflictException - Thrown when a reservation asks for seats that are already booked.
+ * No seat of the request has been booked when this is thrown.
+ */
+public class SeatConflictException extends Exception
+{
+    private final int flightId;
+    private final List<String> seats;
+
+    public SeatConflictException(int flightId, List<String> seats)
+    {
+        super("Seats already booked on flight " + flightId + ": " + seats);
+        this.flightId = flightId;
+        this.seats = List.copyOf(seats);
+    }
+
+    public int getFlightId()
+    {
+        return flightId;
+    }
+
+    /**
+     * Seats of the request that were found taken (may be all requested seats if unknown).
+     */
+    public List<String> getSeats()
+    {
+        return seats;
+    }
+}
@@ -0,0 +1,145 @@
+package service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SeatHolds - Short-lived seat holds placed while a user is between seat selection and payment.
+ * A hold makes the seat unavailable to everyone else in {@link SeatInventory} until it is
+ * released, consumed by a booking, or expires. Expiry runs on a single {@link TimerWheel}.
+ * Holds are local to this process and are not forwarded to the {@link SeatCluster} node that
+ * owns the flight; the owner only sees the reservation, which may still lose the seat to a
+ * user of another process. The hold time can be set with -Dseat.hold.ttlSeconds (default 300).
+ */
+public final class SeatHolds
+{
+    private static final SeatHolds INSTANCE = new SeatHolds();
+
+    private static final long TTL_MILLIS = Long.getLong("seat.hold.ttlSeconds", 300) * 1000;
+
+    private final SeatInventory inventory = SeatInventory.getInstance();
+    private final TimerWheel wheel = new TimerWheel("seat-hold-expiry", 1000, 512);
+
+    // Seats currently held per owner, encoded as flightId << 32 | seatIndex
+    private final ConcurrentHashMap<Object, Set<Long>> byOwner = new ConcurrentHashMap<>();
+
+    /**
+     * Hold - One hold placed by an owner. Identity matters: a refresh replaces the
+     * instance, so an older expiry cannot release a newer hold. Keeps the handle of its
+     * expiry timer so a hold released, refreshed or booked early leaves nothing in the wheel.
+     */
+    public static final class Hold
+    {
+        private final Object owner;
+        private TimerWheel.Timeout expiry; // guarded by this
+        private boolean dropped;           // guarded by this
+
+        Hold(Object owner)
+        {
+            this.owner = owner;
+        }
+
+        public Object owner()
+        {
+            return owner;
+        }
+
+        synchronized void expireWith(TimerWheel.Timeout timeout)
+        {
+            if (dropped) timeout.cancel(); // released before its timer was set
+            else expiry = timeout;
+        }
+
+        /**
+         * Cancels the expiry timer; called whenever the hold leaves its seat other than by expiring.
+         */
+        synchronized void drop()
+        {
+            dropped = true;
+            if (expiry != null) expiry.cancel();
+            expiry = null;
+        }
+    }
+
+    private SeatHolds() {}
+
+    public static SeatHolds getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Places or refreshes a hold on a seat.
+     * @param owner Identity of the holder, e.g. the booking session
+     * @return false if the seat is booked or held by someone else
+     */
+    public boolean hold(int flightId, String seat, Object owner)
+    {
+        SeatInventory.FlightSeats seats = inventory.seats(flightId);
+        int idx = seats.layout().indexOf(seat);
+        Hold hold = new Hold(owner);
+        if (!seats.hold(idx, hold)) return false;
+
+        long key = key(flightId, idx);
+        byOwner.computeIfAbsent(owner, _ -> ConcurrentHashMap.newKeySet()).add(key);
+        hold.expireWith(wheel.schedule(() -> expire(flightId, idx, hold), TTL_MILLIS));
+        return true;
+    }
+
+    /**
+     * Releases the owner's hold on one seat, e.g. when it is deselected.
+     */
+    public void release(int flightId, String seat, Object owner)
+    {
+        SeatInventory.FlightSeats seats = inventory.seats(flightId);
+        int idx = seats.layout().indexOf(seat);
+        if (idx < 0) return;
+        releaseKey(owner, key(flightId, idx));
+    }
+
+    /**
+     * Releases every hold of an owner, e.g. when they navigate back to search.
+     */
+    public void releaseAll(Object owner)
+    {
+        Set<Long> keys = byOwner.remove(owner);
+        if (keys == null) return;
+        for (long key : keys) clear((int) (key >>> 32), (int) key, owner);
+    }
+
+    private void releaseKey(Object owner, long key)
+    {
+        Set<Long> keys = byOwner.get(owner);
+        if (keys != null)
+        {
+            keys.remove(key);
+            if (keys.isEmpty()) byOwner.remove(owner, keys);
+        }
+        clear((int) (key >>> 32), (int) key, owner);
+    }
+
+    private void clear(int flightId, int idx, Object owner)
+    {
+        inventory.seats(flightId).unholdOwner(idx, owner);
+    }
+
+    private void expire(int flightId, int idx, Hold hold)
+    {
+        SeatInventory.FlightSeats seats = inventory.seats(flightId);
+        seats.unhold(idx, hold);
+        if (!seats.isHeldBy(idx, hold.owner()))
+        {
+            Set<Long> keys = byOwner.get(hold.owner());
+            if (keys != null)
+            {
+                keys.remove(key(flightId, idx));
+                if (keys.isEmpty()) byOwner.remove(hold.owner(), keys);
+            }
+        }
+    }
+
+    private static long key(int flightId, int idx)
+    {
+        return ((long) flightId << 32) | (idx & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,433 @@
+package service;
+
+import db.DBConnection;
+import metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * SeatInventory - Process-wide, in-memory seat maps.
+ * Each flight's booked seats are kept as a bitset indexed by {@link SeatLayout}, loaded
+ * from the bookings table the first time the flight is touched and then kept current
+ * by the booking and cancellation paths. Lookups and counts do not allocate.
+ * Seats may also carry a temporary hold (see {@link SeatHolds}); a held seat is
+ * unavailable to everyone except the hold's owner.
+ */
+public final class SeatInventory
+{
+    private static final SeatInventory INSTANCE = new SeatInventory();
+
+    // Seat maps and per-flight layouts
+    private final ConcurrentHashMap<Integer, FlightSeats> flights = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, SeatLayout> layouts = new ConcurrentHashMap<>();
+
+    private SeatInventory()
+    {
+        FlightEvents.getInstance().subscribe(event ->
+        {
+            if (event instanceof FlightEvent.Deleted) evict(event.flightId());
+        });
+    }
+
+    public static SeatInventory getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Assigns a non-default cabin layout to a flight. Drops any seat map already loaded.
+     */
+    public void setLayout(int flightId, SeatLayout layout)
+    {
+        layouts.put(flightId, layout);
+        flights.remove(flightId);
+    }
+
+    public SeatLayout layoutOf(int flightId)
+    {
+        return layouts.getOrDefault(flightId, SeatLayout.DEFAULT);
+    }
+
+    /**
+     * Returns the seat map of a flight, loading it from the database on first use.
+     */
+    public FlightSeats seats(int flightId)
+    {
+        FlightSeats seats = flights.get(flightId);
+        if (seats != null) return seats;
+
+        try
+        {
+            FlightSeats loaded = load(flightId);
+            FlightSeats prev = flights.putIfAbsent(flightId, loaded);
+            return prev != null ? prev : loaded;
+        }
+        catch (SQLException ex)
+        {
+            ex.printStackTrace();
+            return new FlightSeats(layoutOf(flightId)); // not cached; retried on next access
+        }
+    }
+
+    /**
+     * Discards the cached seat map and reloads it from the database.
+     */
+    public FlightSeats reload(int flightId)
+    {
+        FlightSeats old = flights.remove(flightId);
+        FlightSeats fresh = seats(flightId);
+        if (old != null) fresh.copyHoldsFrom(old);
+        return fresh;
+    }
+
+    /**
+     * Reloads every cached seat map whose flight matches, e.g. after taking over its partition.
+     */
+    public void reloadIf(IntPredicate flightIds)
+    {
+        for (int flightId : List.copyOf(flights.keySet()))
+        {
+            if (flightIds.test(flightId)) reload(flightId);
+        }
+    }
+
+    /**
+     * Forgets a flight entirely, e.g. after it has been deleted.
+     */
+    public void evict(int flightId)
+    {
+        flights.remove(flightId);
+        layouts.remove(flightId);
+    }
+
+    public boolean isBooked(int flightId, int seatIndex)
+    {
+        return seats(flightId).isBooked(seatIndex);
+    }
+
+    public boolean isBooked(int flightId, CharSequence seat)
+    {
+        FlightSeats s = seats(flightId);
+        int idx = s.layout.indexOf(seat);
+        return idx >= 0 && s.isBooked(idx);
+    }
+
+    public int bookedCount(int flightId)
+    {
+        return seats(flightId).bookedCount();
+    }
+
+    public int availableCount(int flightId)
+    {
+        FlightSeats s = seats(flightId);
+        return s.layout.capacity() - s.bookedCount();
+    }
+
+    /**
+     * Returns true if the seat is neither booked nor held by someone other than the owner.
+     */
+    public boolean isAvailable(int flightId, int seatIndex, Object owner)
+    {
+        return seats(flightId).isAvailable(seatIndex, owner);
+    }
+
+    /**
+     * Marks all given seats booked, or none of them if any is already taken or held by someone else.
+     * Holds of the owner on those seats are consumed.
+     * @param owner Hold owner making the booking, or null if it holds nothing
+     * @return true if every seat was available and is now booked
+     */
+    public boolean tryBook(int flightId, Collection<String> seats, Object owner)
+    {
+        return seats(flightId).tryBook(seats, owner);
+    }
+
+    /**
+     * Marks seats booked unconditionally (e.g. after a committed insert).
+     */
+    public void markBooked(int flightId, Collection<String> seats)
+    {
+        FlightSeats s = seats(flightId);
+        for (String seat : seats) s.set(s.layout.indexOf(seat), true);
+    }
+
+    /**
+     * Frees seats after a cancellation or a failed booking.
+     */
+    public void release(int flightId, Collection<String> seats)
+    {
+        FlightSeats s = seats(flightId);
+        for (String seat : seats) s.set(s.layout.indexOf(seat), false);
+    }
+
+    /**
+     * Frees a seat after its booking was cancelled and lowers the flight's occupancy, only if
+     * the seat was booked, so a repeated or stray cancel cannot lower it twice.
+     * Does nothing if the seat map is not loaded; the next load reads the database.
+     */
+    public void cancel(int flightId, String seat)
+    {
+        FlightSeats s = flights.get(flightId);
+        if (s == null) return;
+        synchronized (s)
+        {
+            if (s.set(s.layout.indexOf(seat), false)) s.addCommitted(-1);
+        }
+    }
+
+    /**
+     * Replaces a flight's booked seats with the given ones, e.g. with the seat map of the
+     * {@link SeatCluster} node that owns the flight. Holds are kept.
+     */
+    public void replaceBooked(int flightId, Collection<String> booked)
+    {
+        seats(flightId).replaceBooked(booked);
+    }
+
+    /**
+     * Counts bookings that were just committed for a flight.
+     */
+    public void addCommitted(int flightId, int count)
+    {
+        seats(flightId).addCommitted(count);
+    }
+
+    /**
+     * Returns the number of committed bookings of a flight. Seeded from the rows read when the
+     * seat map is loaded and kept current by {@link #addCommitted} and {@link #cancel}, so it
+     * never queries the database once the seat map is loaded.
+     */
+    public int occupancy(int flightId)
+    {
+        return seats(flightId).committedCount();
+    }
+
+    /**
+     * Finds the first run of n available seats side by side in one row, not split by an aisle.
+     * Seats held by another owner are skipped, as in {@link #isAvailable}.
+     * @param owner Hold owner asking, whose own holds count as available, or null if none
+     * @return Index of the first seat in the run, or -1 if there is none
+     */
+    public int findAdjacent(int flightId, int n, Object owner)
+    {
+        return seats(flightId).findAdjacent(n, owner);
+    }
+
+    private FlightSeats load(int flightId) throws SQLException
+    {
+        long start = System.nanoTime();
+        FlightSeats seats = new FlightSeats(layoutOf(flightId));
+
+        // Journaled reservations not yet in the table; read first so none is missed while being applied
+        List<String> journaled = BookingJournal.isEnabled() ? BookingJournal.getInstance().pendingSeats(flightId) : List.of();
+        try (Connection con = DBConnection.getConnection())
+        {
+            try (PreparedStatement pst = con.prepareStatement("SELECT seat_number FROM bookings WHERE flight_id = ? AND payment_status <> ?"))
+            {
+                pst.setInt(1, flightId);
+                pst.setString(2, CancellationService.CANCELLED);
+                try (ResultSet rs = pst.executeQuery())
+                {
+                    while (rs.next())
+                    {
+                        seats.set(seats.layout.indexOf(rs.getString(1)), true);
+                        seats.addCommitted(1);
+                    }
+                }
+            }
+            for (String seat : journaled)
+            {
+                int idx = seats.layout.indexOf(seat);
+                if (!seats.isBooked(idx))
+                {
+                    seats.set(idx, true);
+                    seats.addCommitted(1);
+                }
+            }
+        }
+        finally
+        {
+            Metrics.record("seats.load", start);
+        }
+        return seats;
+    }
+
+    /**
+     * FlightSeats - Booked-seat bitset and hold slots of one flight.
+     * All access is synchronized on the instance.
+     */
+    public static final class FlightSeats
+    {
+        private final SeatLayout layout;
+        private final long[] bits;
+        private final SeatHolds.Hold[] holds;
+        private int booked;    // seats marked in bits, including claims not yet committed
+        private int committed; // committed booking rows, for load-factor pricing
+
+        FlightSeats(SeatLayout layout)
+        {
+            this.layout = layout;
+            this.bits = new long[(layout.capacity() + 63) >>> 6];
+            this.holds = new SeatHolds.Hold[layout.capacity()];
+        }
+
+        public SeatLayout layout()
+        {
+            return layout;
+        }
+
+        public synchronized boolean isBooked(int index)
+        {
+            return index >= 0 && (bits[index >>> 6] & (1L << index)) != 0;
+        }
+
+        public synchronized int bookedCount()
+        {
+            return booked;
+        }
+
+        public synchronized int committedCount()
+        {
+            return committed;
+        }
+
+        synchronized void addCommitted(int delta)
+        {
+            committed = Math.max(0, committed + delta);
+        }
+
+        /**
+         * Marks a seat booked or free.
+         * @return True if the seat changed state
+         */
+        synchronized boolean set(int index, boolean value)
+        {
+            if (index < 0) return false;
+            long mask = 1L << index;
+            boolean was = (bits[index >>> 6] & mask) != 0;
+            if (was == value) return false;
+            if (value)
+            {
+                bits[index >>> 6] |= mask;
+                booked++;
+            }
+            else
+            {
+                bits[index >>> 6] &= ~mask;
+                booked--;
+            }
+            return true;
+        }
+
+        synchronized void replaceBooked(Collection<String> seats)
+        {
+            boolean[] want = new boolean[layout.capacity()];
+            for (String seat : seats)
+            {
+                int idx = layout.indexOf(seat);
+                if (idx >= 0) want[idx] = true;
+            }
+            for (int i = 0; i < want.length; i++) set(i, want[i]);
+            committed = booked;
+        }
+
+        public synchronized boolean isHeld(int index)
+        {
+            return index >= 0 && holds[index] != null;
+        }
+
+        public synchronized boolean isHeldBy(int index, Object owner)
+        {
+            return index >= 0 && holds[index] != null && holds[index].owner() == owner;
+        }
+
+        public synchronized boolean isAvailable(int index, Object owner)
+        {
+            if (index < 0 || isBooked(index)) return false;
+            SeatHolds.Hold h = holds[index];
+            return h == null || (owner != null && h.owner() == owner);
+        }
+
+        synchronized boolean tryBook(Collection<String> seats, Object owner)
+        {
+            for (String seat : seats)
+            {
+                if (!isAvailable(layout.indexOf(seat), owner)) return false;
+            }
+            for (String seat : seats)
+            {
+                int idx = layout.indexOf(seat);
+                set(idx, true);
+                drop(idx);
+            }
+            return true;
+        }
+
+        /**
+         * Places or refreshes a hold. Fails if the seat is booked or held by another owner.
+         */
+        synchronized boolean hold(int index, SeatHolds.Hold hold)
+        {
+            if (!isAvailable(index, hold.owner())) return false;
+            if (holds[index] != hold) drop(index); // a refresh replaces the owner's older hold
+            holds[index] = hold;
+            return true;
+        }
+
+        /**
+         * Clears the hold only if it is still this exact hold (not a newer refresh).
+         */
+        synchronized void unhold(int index, SeatHolds.Hold hold)
+        {
+            if (index >= 0 && holds[index] == hold) holds[index] = null;
+        }
+
+        synchronized void unholdOwner(int index, Object owner)
+        {
+            if (isHeldBy(index, owner)) drop(index);
+        }
+
+        private void drop(int index)
+        {
+            SeatHolds.Hold h = holds[index];
+            if (h != null) h.drop();
+            holds[index] = null;
+        }
+
+        synchronized void copyHoldsFrom(FlightSeats other)
+        {
+            if (other.layout != layout) return;
+            synchronized (other)
+            {
+                for (int i = 0; i < holds.length; i++)
+                {
+                    if (other.holds[i] != null && !isBooked(i)) holds[i] = other.holds[i];
+                }
+            }
+        }
+
+        synchronized int findAdjacent(int n, Object owner)
+        {
+            if (n < 1 || n > layout.columns()) return -1;
+            for (int row = 1; row <= layout.rows(); row++)
+            {
+                int run = 0;
+                for (int col = 0; col < layout.columns(); col++)
+                {
+                    if (layout.hasAisleBefore(col)) run = 0;
+                    int idx = layout.index(row, col);
+                    run = isAvailable(idx, owner) ? run + 1 : 0;
+                    if (run == n) return idx - n + 1;
+                }
+            }
+            return -1;
+        }
+    }
+}
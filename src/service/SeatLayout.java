@@ -0,0 +1,102 @@
+package service;
+
+/**
+ * SeatLayout - Describes an aircraft cabin: number of rows, seat letters per row,
+ * aisle positions and how many front rows are business class.
+ * Seats are addressed by a dense index (row-major) so seat maps can be stored as bitsets.
+ */
+public final class SeatLayout
+{
+    // Default cabin: 30 rows, A–F, aisle between C and D, rows 1–5 business
+    public static final SeatLayout DEFAULT = new SeatLayout(30, "ABCDEF", new int[]{3}, 5);
+
+    private final int rows;
+    private final char[] letters;
+    private final boolean[] aisleBefore;
+    private final int businessRows;
+
+    /**
+     * @param rows         Number of seat rows (numbered from 1)
+     * @param letters      Seat letters in a row, left to right
+     * @param aisles       Column indexes that have an aisle immediately before them
+     * @param businessRows Number of front rows sold as business class
+     */
+    public SeatLayout(int rows, String letters, int[] aisles, int businessRows)
+    {
+        if (rows < 1 || letters.isEmpty())
+        {
+            throw new IllegalArgumentException("Layout needs at least one row and one seat letter.");
+        }
+        this.rows = rows;
+        this.letters = letters.toUpperCase().toCharArray();
+        this.aisleBefore = new boolean[this.letters.length];
+        for (int a : aisles)
+        {
+            if (a > 0 && a < this.letters.length) aisleBefore[a] = true;
+        }
+        this.businessRows = businessRows;
+    }
+
+    public int rows() { return rows; }
+    public int columns() { return letters.length; }
+    public int capacity() { return rows * letters.length; }
+    public int businessRows() { return businessRows; }
+    public char letter(int col) { return letters[col]; }
+    public boolean hasAisleBefore(int col) { return aisleBefore[col]; }
+    public boolean isBusiness(int row) { return row <= businessRows; }
+
+    /**
+     * Returns the dense index of a seat.
+     * @param row Row number, starting at 1
+     * @param col Column index, starting at 0
+     */
+    public int index(int row, int col)
+    {
+        return (row - 1) * letters.length + col;
+    }
+
+    public int rowOf(int index) { return index / letters.length + 1; }
+    public int colOf(int index) { return index % letters.length; }
+
+    /**
+     * Returns the column index of a seat letter, or -1 if the layout has no such letter.
+     */
+    public int columnOf(char letter)
+    {
+        char up = Character.toUpperCase(letter);
+        for (int c = 0; c < letters.length; c++)
+        {
+            if (letters[c] == up) return c;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a seat label such as "12C" without allocating.
+     * @return Seat index, or -1 if the label is not a seat in this layout
+     */
+    public int indexOf(CharSequence seat)
+    {
+        int len = seat.length();
+        if (len < 2) return -1;
+
+        int row = 0;
+        for (int i = 0; i < len - 1; i++)
+        {
+            char ch = seat.charAt(i);
+            if (ch < '0' || ch > '9') return -1;
+            row = row * 10 + (ch - '0');
+        }
+        int col = columnOf(seat.charAt(len - 1));
+        if (row < 1 || row > rows || col < 0) return -1;
+        return index(row, col);
+    }
+
+    /**
+     * Returns the label ("12C") of a seat index.
+     */
+    public String label(int index)
+    {
+        return String.valueOf(rowOf(index)) + letters[colOf(index)];
+    }
+}
@@ -0,0 +1,154 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TimerWheel - Hashed timing wheel driven by one daemon thread.
+ * Scheduling and cancelling are O(1); each tick only visits one bucket, so thousands
+ * of short-lived timeouts cost one thread instead of one thread or heap entry each.
+ * A cancelled timeout is unlinked from its bucket at once rather than when its tick comes.
+ * Precision is one tick.
+ */
+public final class TimerWheel
+{
+    private final long tickMillis;
+    private final Set<Timeout>[] buckets;
+    private final int mask;
+    private final Thread worker;
+    private long currentTick; // guarded by this
+
+    /**
+     * @param name       Worker thread name
+     * @param tickMillis Tick length in milliseconds
+     * @param wheelSize  Number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(String name, long tickMillis, int wheelSize)
+    {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) * 2 - 1);
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = newBuckets(size);
+        for (int i = 0; i < size; i++) buckets[i] = new LinkedHashSet<>();
+
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Runs the task once after roughly the given delay, on the wheel thread.
+     * Tasks must be short; long work should be handed off to another executor.
+     */
+    public Timeout schedule(Runnable task, long delayMillis)
+    {
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+        Timeout timeout = new Timeout(this, task);
+        synchronized (this)
+        {
+            long deadline = currentTick + ticks;
+            timeout.rounds = (ticks - 1) / buckets.length;
+            timeout.bucket = (int) (deadline & mask);
+            buckets[timeout.bucket].add(timeout);
+        }
+        return timeout;
+    }
+
+    private synchronized void unlink(Timeout timeout)
+    {
+        if (timeout.bucket >= 0) buckets[timeout.bucket].remove(timeout);
+        timeout.bucket = -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Timeout>[] newBuckets(int size)
+    {
+        return (Set<Timeout>[]) new Set<?>[size];
+    }
+
+    private void run()
+    {
+        long next = System.nanoTime();
+        List<Timeout> due = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted())
+        {
+            next += tickMillis * 1_000_000L;
+            long sleep = (next - System.nanoTime()) / 1_000_000L;
+            if (sleep > 0)
+            {
+                try
+                {
+                    Thread.sleep(sleep);
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+            }
+
+            synchronized (this)
+            {
+                currentTick++;
+                Iterator<Timeout> it = buckets[(int) (currentTick & mask)].iterator();
+                while (it.hasNext())
+                {
+                    Timeout t = it.next();
+                    if (t.rounds > 0)
+                    {
+                        t.rounds--;
+                    }
+                    else
+                    {
+                        it.remove();
+                        t.bucket = -1;
+                        due.add(t);
+                    }
+                }
+            }
+
+            for (Timeout t : due)
+            {
+                if (t.cancelled) continue;
+                try
+                {
+                    t.task.run();
+                }
+                catch (RuntimeException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+            due.clear();
+        }
+    }
+
+    /**
+     * Timeout - Handle of a scheduled task.
+     */
+    public static final class Timeout
+    {
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private long rounds;  // guarded by the wheel
+        private int bucket;   // guarded by the wheel; -1 once due or cancelled
+        private volatile boolean cancelled;
+
+        private Timeout(TimerWheel wheel, Runnable task)
+        {
+            this.wheel = wheel;
+            this.task = task;
+        }
+
+        /**
+         * Prevents the task from running if it has not run yet and frees its slot in the wheel.
+         */
+        public void cancel()
+        {
+            cancelled = true;
+            wheel.unlink(this);
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package ui;
 
 import db.DBConnection;
+import db.FlightSchema;
+import metrics.Metrics;
+import service.Flight;
+import service.FlightEvent;
+import service.FlightEvents;
 
 import javax.swing.*;
 import java.awt.*;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
-import java.text.SimpleDateFormat;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 
 /**
  * AddFlightForm - UI form for adding a new flight to the system.
@@ -17,17 +29,15 @@ public class AddFlightForm extends JFrame
 {
     // UI Components
     private final JTextField airlineField, sourceField, destField, dateField, departField, arriveField, priceField;
-    private final AdminDashboard dashboard;
+    private final JButton addButton;
 
     // Constructor
     public AddFlightForm(AdminDashboard dashboard)
     {
-        this.dashboard = dashboard;
-
         // Frame setup
         setTitle("Add new Flight");
         setSize(400, 450);
-        setLocationRelativeTo(null);
+        setLocationRelativeTo(dashboard);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new GridLayout(8, 2, 10, 10));
         setResizable(false);
@@ -72,7 +82,7 @@ public class AddFlightForm extends JFrame
         formPanel.add(priceField);
 
         // Add button
-        JButton addButton = new JButton("Add Flight");
+        addButton = new JButton("Add Flight");
         addButton.addActionListener(_ -> insertFlight());
         formPanel.add(new JLabel()); // Empty cell for layout
         formPanel.add(addButton);
@@ -99,7 +109,7 @@ public class AddFlightForm extends JFrame
     }
 
     /**
-     * Validates input and inserts flight data into the database.
+     * Validates input, then inserts the flight off the EDT and reports the outcome.
      */
     private void insertFlight()
     {
@@ -118,55 +128,90 @@ public class AddFlightForm extends JFrame
             return;
         }
 
+        double price;
+        LocalDate day;
+        LocalTime depTime;
+        LocalTime arrTime;
         try
         {
-            double price = Double.parseDouble(priceStr);
-
-            // Parse date
-            Date sqlDate;
-            try
-            {
-                sqlDate = Date.valueOf(date);
-            }
-            catch (IllegalArgumentException e)
-            {
-                JOptionPane.showMessageDialog(this, "Invalid date format. Use yyyy-MM-dd.", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+            price = Double.parseDouble(priceStr);
+        }
+        catch (NumberFormatException ex)
+        {
+            JOptionPane.showMessageDialog(this, "Invalid price format.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        try
+        {
+            day = LocalDate.parse(date);
+        }
+        catch (DateTimeParseException e)
+        {
+            JOptionPane.showMessageDialog(this, "Invalid date format. Use yyyy-MM-dd.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        try
+        {
+            depTime = LocalTime.parse(depart);
+            arrTime = LocalTime.parse(arrive);
+        }
+        catch (DateTimeParseException e)
+        {
+            JOptionPane.showMessageDialog(this, "Invalid time format. Use HH:mm.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            // Parse time
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-            java.sql.Time depSQL = new java.sql.Time(sdf.parse(depart).getTime());
-            java.sql.Time arrSQL = new java.sql.Time(sdf.parse(arrive).getTime());
+        // Insert off the EDT; the button stays disabled until the outcome is known
+        addButton.setEnabled(false);
+        SwingAsync.run(() -> insert(airline, source, dest, day, depTime, arrTime, price),
+                added ->
+                {
+                    addButton.setEnabled(true);
+                    if (added)
+                    {
+                        JOptionPane.showMessageDialog(this, "Flight added successfully!");
+                        dispose(); // Close form
+                    }
+                },
+                ex ->
+                {
+                    addButton.setEnabled(true);
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Error adding flight", "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
 
-            // Insert into database
-            Connection con = DBConnection.getConnection();
-            String q = "Insert into flights(airline_name, source, destination, date, departure_time, arrival_time, price) values(?, ?, ?, ?, ?, ?, ?)";
-            PreparedStatement stm = con.prepareStatement(q);
+    /**
+     * Inserts the flight, in the date columns this installation uses, and publishes it.
+     * @return True if a row was inserted
+     */
+    private static boolean insert(String airline, String source, String dest, LocalDate day, LocalTime depTime,
+                                  LocalTime arrTime, double price) throws SQLException
+    {
+        FlightSchema schema = FlightSchema.get();
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(schema.insertSql(), Statement.RETURN_GENERATED_KEYS))
+        {
             stm.setString(1, airline);
             stm.setString(2, source);
             stm.setString(3, dest);
-            stm.setDate(4, sqlDate);
-            stm.setTime(5, depSQL);
-            stm.setTime(6, arrSQL);
-            stm.setDouble(7, price);
+            stm.setDouble(schema.bindSchedule(stm, 4, day, depTime, arrTime), price);
 
             int rows = stm.executeUpdate();
-            if (rows > 0)
+            Metrics.record("admin.flight.insert", start);
+            if (rows == 0) return false;
+
+            // Publish the new row; the search index and the dashboard table apply it
+            try (ResultSet keys = stm.getGeneratedKeys())
             {
-                JOptionPane.showMessageDialog(this, "Flight added successfully!");
-                dashboard.loadFlightData(); // Refresh dashboard
-                dispose(); // Close form
+                if (keys.next())
+                {
+                    FlightEvents.getInstance().publish(new FlightEvent.Inserted(new Flight(keys.getInt(1),
+                            airline, source, dest, Date.valueOf(day), Time.valueOf(depTime), Time.valueOf(arrTime), BigDecimal.valueOf(price))));
+                }
             }
-        }
-        catch (NumberFormatException ex)
-        {
-            JOptionPane.showMessageDialog(this, "Invalid price format.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
-        catch (Exception ex)
-        {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error adding flight", "Error", JOptionPane.ERROR_MESSAGE);
+            return true;
         }
     }
 }
@@ -0,0 +1,184 @@
+package ui;
+
+import service.ScheduleService;
+
+import javax.swing.*;
+import java.awt.*;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * AddScheduleForm - UI form for adding a recurring flight schedule.
+ * The schedule is saved once and {@link ScheduleService} creates its flights.
+ */
+public class AddScheduleForm extends JFrame
+{
+    // UI Components
+    private final JTextField airlineField, sourceField, destField, departField, arriveField, priceField, fromField, toField;
+    private final JCheckBox[] dayBoxes = new JCheckBox[7];
+    private final JButton saveButton = new JButton("Save Schedule");
+
+    // Constructor
+    public AddScheduleForm(AdminDashboard dashboard)
+    {
+        // Frame setup
+        setTitle("Add Recurring Schedule");
+        setSize(480, 560);
+        setLocationRelativeTo(dashboard);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setResizable(false);
+
+        // Background image panel
+        BackgroundImagePanel bgPanel = new BackgroundImagePanel("/ui/Icons/4.jpg");
+        setContentPane(bgPanel);
+        bgPanel.setLayout(new BorderLayout());
+
+        // Form panel
+        JPanel formPanel = new JPanel(new GridLayout(10, 2, 10, 10));
+        formPanel.setOpaque(false);
+        formPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        // Form fields
+        formPanel.add(new JLabel("Airline Name:"));
+        airlineField = new JTextField();
+        formPanel.add(airlineField);
+
+        formPanel.add(new JLabel("Source:"));
+        sourceField = new JTextField();
+        formPanel.add(sourceField);
+
+        formPanel.add(new JLabel("Destination:"));
+        destField = new JTextField();
+        formPanel.add(destField);
+
+        formPanel.add(new JLabel("Departure (HH:mm):"));
+        departField = new JTextField();
+        formPanel.add(departField);
+
+        formPanel.add(new JLabel("Arrival (HH:mm):"));
+        arriveField = new JTextField();
+        formPanel.add(arriveField);
+
+        formPanel.add(new JLabel("Price"));
+        priceField = new JTextField();
+        formPanel.add(priceField);
+
+        formPanel.add(new JLabel("Valid From (yyyy-MM-dd):"));
+        fromField = new JTextField(LocalDate.now().toString());
+        formPanel.add(fromField);
+
+        formPanel.add(new JLabel("Valid To (yyyy-MM-dd):"));
+        toField = new JTextField(LocalDate.now().plusYears(1).toString());
+        formPanel.add(toField);
+
+        // Days of week, Monday first, all ticked by default
+        formPanel.add(new JLabel("Days:"));
+        JPanel daysPanel = new JPanel(new GridLayout(1, 7));
+        daysPanel.setOpaque(false);
+        for (DayOfWeek d : DayOfWeek.values())
+        {
+            JCheckBox box = new JCheckBox(d.getDisplayName(TextStyle.NARROW, Locale.getDefault()), true);
+            box.setOpaque(false);
+            box.setForeground(Color.YELLOW);
+            box.setToolTipText(d.getDisplayName(TextStyle.FULL, Locale.getDefault()));
+            dayBoxes[d.ordinal()] = box;
+            daysPanel.add(box);
+        }
+        formPanel.add(daysPanel);
+
+        // Save button
+        saveButton.addActionListener(_ -> saveSchedule());
+        formPanel.add(new JLabel()); // Empty cell for layout
+        formPanel.add(saveButton);
+
+        // Styling components
+        for (Component comp : formPanel.getComponents())
+        {
+            if (comp instanceof JLabel)
+            {
+                comp.setFont(new Font("Arial", Font.BOLD, 15));
+                comp.setForeground(Color.YELLOW);
+            }
+            else if (comp instanceof JTextField)
+            {
+                comp.setFont(new Font("Arial", Font.PLAIN, 14));
+            }
+            else if (comp instanceof JButton)
+            {
+                comp.setFont(new Font("Arial", Font.BOLD, 15));
+            }
+        }
+
+        bgPanel.add(formPanel, BorderLayout.CENTER);
+    }
+
+    /**
+     * Validates input, then saves the schedule and creates its flights off the EDT.
+     */
+    private void saveSchedule()
+    {
+        String airline = airlineField.getText().trim();
+        String source = sourceField.getText().trim();
+        String dest = destField.getText().trim();
+        if (airline.isEmpty() || source.isEmpty() || dest.isEmpty())
+        {
+            JOptionPane.showMessageDialog(this, "All fields are required.", "Validation", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        LocalTime depart, arrive;
+        LocalDate from, to;
+        BigDecimal price;
+        try
+        {
+            depart = LocalTime.parse(departField.getText().trim());
+            arrive = LocalTime.parse(arriveField.getText().trim());
+            from = LocalDate.parse(fromField.getText().trim());
+            to = LocalDate.parse(toField.getText().trim());
+            price = new BigDecimal(priceField.getText().trim());
+        }
+        catch (DateTimeParseException ex)
+        {
+            JOptionPane.showMessageDialog(this, "Invalid date or time. Use yyyy-MM-dd and HH:mm.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        catch (NumberFormatException ex)
+        {
+            JOptionPane.showMessageDialog(this, "Invalid price format.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values())
+        {
+            if (dayBoxes[d.ordinal()].isSelected()) days.add(d);
+        }
+
+        saveButton.setEnabled(false);
+        SwingAsync.run(() -> ScheduleService.getInstance().create(airline, source, dest, depart, arrive, price, days, from, to),
+                schedule ->
+                {
+                    JOptionPane.showMessageDialog(this, "Schedule saved: " + schedule.flightCount() + " flights created through "
+                            + schedule.expandedTo() + ".\nLater dates are added as they come into range or are searched for.");
+                    dispose(); // Close form
+                },
+                ex ->
+                {
+                    saveButton.setEnabled(true);
+                    if (ex instanceof IllegalArgumentException)
+                    {
+                        JOptionPane.showMessageDialog(this, ex.getMessage(), "Validation", JOptionPane.WARNING_MESSAGE);
+                        return;
+                    }
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Error saving schedule", "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+}
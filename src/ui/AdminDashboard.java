@@ -1,32 +1,36 @@
 package ui;
 
 import db.DBConnection;
+import metrics.Metrics;
+import service.Bootstrap;
+import service.FlightEvent;
+import service.FlightEvents;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.Vector;
 
 /**
  * AdminDashboard - Flight management interface for administrators.
- * Allows viewing, adding, editing, deleting flights and viewing bookings.
+ * Allows viewing, adding, scheduling, bulk-importing, editing, deleting flights, viewing bookings and analytics.
  */
 public class AdminDashboard extends JFrame
 {
     // UI Components
     private final JTable flightTable;
-    private final DefaultTableModel tableModel;
+    private final FlightTableModel tableModel;
 
     // Constructor
     public AdminDashboard()
     {
         // Frame setup
         setTitle("Admin Dashboard");
-        setSize(800, 400);
+        setSize(1100, 400);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout());
@@ -40,25 +44,62 @@ public class AdminDashboard extends JFrame
         JLabel title = new JLabel("Admin Dashboard - Flight Management", SwingConstants.CENTER);
         title.setFont(new Font("Arial", Font.BOLD, 18));
         title.setForeground(Color.DARK_GRAY);
-        bgPanel.add(title, BorderLayout.NORTH);
 
-        // Table setup
-        tableModel = new DefaultTableModel();
+        // Filter row (airline, source or destination prefix; applied by the database)
+        JTextField filterField = new JTextField(20);
+        JButton filterBtn = new JButton("Filter");
+        JPanel filterPanel = new JPanel(new FlowLayout());
+        filterPanel.setOpaque(false);
+        filterPanel.add(new JLabel("Airline / City:"));
+        filterPanel.add(filterField);
+        filterPanel.add(filterBtn);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.setOpaque(false);
+        northPanel.add(title, BorderLayout.NORTH);
+        northPanel.add(filterPanel, BorderLayout.SOUTH);
+        bgPanel.add(northPanel, BorderLayout.NORTH);
+
+        // Table setup; rows are fetched page by page as they are scrolled into view
+        tableModel = new FlightTableModel(e ->
+        {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading flights.", "Error", JOptionPane.ERROR_MESSAGE);
+        });
         flightTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(flightTable);
         scrollPane.getViewport().setOpaque(false);
         scrollPane.setOpaque(false);
         bgPanel.add(scrollPane, BorderLayout.CENTER);
 
-        // Table columns
-        tableModel.setColumnIdentifiers(new String[]
-                {
-                        "Flight ID", "Airline", "Source", "Destination", "Date", "Departure", "Arrival", "Price"
-                });
+        // Clicking a column header sorts by it on the server; clicking again reverses the order
+        flightTable.getTableHeader().addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int column = flightTable.columnAtPoint(e.getPoint());
+                if (column >= 0) tableModel.setSort(flightTable.convertColumnIndexToModel(column));
+            }
+        });
+
+        filterBtn.addActionListener(_ -> tableModel.setFilter(filterField.getText()));
+        filterField.addActionListener(_ -> tableModel.setFilter(filterField.getText()));
 
         // Load flight data from database
         loadFlightData();
 
+        // Apply flight changes row by row as they are published
+        Runnable unsubscribe = FlightEvents.getInstance().subscribe(e -> SwingUtilities.invokeLater(() -> tableModel.apply(e)));
+        addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                unsubscribe.run();
+            }
+        });
+
         // Button panel
         JPanel btnPanel = new JPanel(new FlowLayout());
         btnPanel.setOpaque(false);
@@ -66,17 +107,25 @@ public class AdminDashboard extends JFrame
 
         // Buttons
         JButton addBtn = new JButton("Add Flight");
+        JButton scheduleBtn = new JButton("Add Schedule");
+        JButton importBtn = new JButton("Import Schedule");
         JButton editBtn = new JButton("Edit Flight");
         JButton deleteBtn = new JButton("Delete Flight");
         JButton viewBookingsBtn = new JButton("View Bookings");
+        JButton analyticsBtn = new JButton("Analytics");
 
         btnPanel.add(addBtn);
+        btnPanel.add(scheduleBtn);
+        btnPanel.add(importBtn);
         btnPanel.add(editBtn);
         btnPanel.add(deleteBtn);
         btnPanel.add(viewBookingsBtn);
+        btnPanel.add(analyticsBtn);
 
         // Button actions
         addBtn.addActionListener(_ -> new AddFlightForm(this).setVisible(true));
+        scheduleBtn.addActionListener(_ -> new AddScheduleForm(this).setVisible(true));
+        importBtn.addActionListener(_ -> new ImportFlightsDialog(this).setVisible(true));
 
         editBtn.addActionListener(_ ->
         {
@@ -86,11 +135,13 @@ public class AdminDashboard extends JFrame
                 JOptionPane.showMessageDialog(this, "please select a flight to edit.");
                 return;
             }
-            int flightId = (int) tableModel.getValueAt(selectedRow, 0);
+            int flightId = tableModel.flightIdAt(selectedRow);
+            if (flightId == -1) return; // row still loading
             new EditFlightForm(flightId, AdminDashboard.this).setVisible(true);
         });
 
         deleteBtn.addActionListener(_ -> deleteSelectedFlight());
+        analyticsBtn.addActionListener(_ -> new AnalyticsPanel(this).setVisible(true));
 
         viewBookingsBtn.addActionListener(_ ->
         {
@@ -100,46 +151,23 @@ public class AdminDashboard extends JFrame
                 JOptionPane.showMessageDialog(this, "Please select a flight.");
                 return;
             }
-            int flightId = (int) tableModel.getValueAt(selectedRow, 0);
+            int flightId = tableModel.flightIdAt(selectedRow);
+            if (flightId == -1) return; // row still loading
             new ViewBookings(flightId).setVisible(true);
         });
     }
 
     /**
-     * Loads flight data from the database into the table.
+     * Reloads the flight table. Only the row count is queried here; pages are fetched
+     * off the EDT as the table displays them.
      */
     public void loadFlightData()
     {
-        tableModel.setRowCount(0); // Clear existing rows
-        try (Connection con = DBConnection.getConnection())
-        {
-            String q = "select * from flights";
-            PreparedStatement stm = con.prepareStatement(q);
-            ResultSet r = stm.executeQuery();
-
-            while (r.next())
-            {
-                Vector<Object> row = new Vector<>();
-                row.add(r.getInt("flight_id"));
-                row.add(r.getString("airline_name"));
-                row.add(r.getString("source"));
-                row.add(r.getString("destination"));
-                row.add(r.getString("date"));
-                row.add(r.getTime("departure_time"));
-                row.add(r.getTime("arrival_time"));
-                row.add(r.getDouble("price"));
-                tableModel.addRow(row);
-            }
-        }
-        catch (SQLException e)
-        {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading flights.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        tableModel.refresh();
     }
 
     /**
-     * Deletes the selected flight from the database and refreshes the table.
+     * Deletes the selected flight from the database; the table drops the row when the change is published.
      */
     private void deleteSelectedFlight()
     {
@@ -152,27 +180,38 @@ public class AdminDashboard extends JFrame
 
         int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete this flight?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
 
-        if (confirm == JOptionPane.YES_OPTION)
+        int flightID = tableModel.flightIdAt(row);
+        if (confirm == JOptionPane.YES_OPTION && flightID != -1)
         {
-            int flightID = (int) tableModel.getValueAt(row, 0);
 
-            try (Connection con = DBConnection.getConnection())
-            {
-                PreparedStatement stm = con.prepareStatement("Delete from flights where flight_id = ?");
-                stm.setInt(1, flightID);
-                stm.executeUpdate();
-                JOptionPane.showMessageDialog(this, "Flight deleted");
-                loadFlightData(); // refresh table
-            }
-            catch (SQLException e)
-            {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Could not delete flight.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            SwingAsync.run(() ->
+                    {
+                        long start = System.nanoTime();
+                        try (Connection con = DBConnection.getConnection())
+                        {
+                            PreparedStatement stm = con.prepareStatement("Delete from flights where flight_id = ?");
+                            stm.setInt(1, flightID);
+                            stm.executeUpdate();
+                        }
+                        finally
+                        {
+                            Metrics.record("admin.flight.delete", start);
+                        }
+                        FlightEvents.getInstance().publish(new FlightEvent.Deleted(flightID)); // removes the row
+                        return null;
+                    },
+                    _ -> JOptionPane.showMessageDialog(this, "Flight deleted"),
+                    e ->
+                    {
+                        e.printStackTrace();
+                        JOptionPane.showMessageDialog(this, "Could not delete flight.", "Error", JOptionPane.ERROR_MESSAGE);
+                    });
         }
     }
 
     public static void main(String[] args) {
+        EdtMonitor.install();
+        Bootstrap.start();
         new AdminDashboard().setVisible(true);
     }
 }
@@ -1,13 +1,9 @@
 package ui;
 
-import db.DBConnection;
+import service.AuthService;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 
 /**
  * AdminLogin - Login screen for administrators.
@@ -18,6 +14,7 @@ public class AdminLogin extends JFrame
     // UI Components
     private final JTextField usernameField;
     private final JPasswordField passwordField;
+    private final JButton loginBtn;
 
     // Constructor
     public AdminLogin()
@@ -64,7 +61,7 @@ public class AdminLogin extends JFrame
         formPanel.add(passwordField);
 
         // Login button
-        JButton loginBtn = new JButton("Login");
+        loginBtn = new JButton("Login");
         backgroundPanel.add(loginBtn, BorderLayout.SOUTH);
 
         // Action listener for login
@@ -79,29 +76,28 @@ public class AdminLogin extends JFrame
         String username = usernameField.getText().trim();
         String password = String.valueOf(passwordField.getPassword());
 
-        try (Connection conn = DBConnection.getConnection())
-        {
-            String q = "select * from admins where username = ? and password = ?";
-            PreparedStatement stm = conn.prepareStatement(q);
-            stm.setString(1, username);
-            stm.setString(2, password);
-
-            ResultSet r = stm.executeQuery();
-            if (r.next())
-            {
-                JOptionPane.showMessageDialog(this, "Login successful!");
-                dispose();
-                new AdminDashboard().setVisible(true);
-            }
-            else
-            {
-                JOptionPane.showMessageDialog(this, "Invalid username or password", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-        catch (SQLException ex)
-        {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Database error occurred", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        loginBtn.setEnabled(false);
+        SwingAsync.run(() -> AuthService.getInstance().loginAdmin(username, password),
+                valid ->
+                {
+                    loginBtn.setEnabled(true);
+                    if (valid)
+                    {
+                        JOptionPane.showMessageDialog(this, "Login successful!");
+                        dispose();
+                        new AdminDashboard().setVisible(true);
+                    }
+                    else
+                    {
+                        JOptionPane.showMessageDialog(this, "Invalid username or password", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                ex ->
+                {
+                    loginBtn.setEnabled(true);
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Database error occurred", "Error", JOptionPane.ERROR_MESSAGE);
+                });
     }
+
 }
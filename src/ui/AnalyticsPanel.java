@@ -0,0 +1,133 @@
+package ui;
+
+import service.BookingAnalytics;
+import service.Flight;
+import service.FlightIndex;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AnalyticsPanel - Load factor, revenue and booking velocity per flight for administrators.
+ * Reads the in-memory aggregates of {@link BookingAnalytics} every few seconds, so it puts
+ * no load on the bookings table.
+ */
+public class AnalyticsPanel extends JFrame
+{
+    private static final String[] COLUMNS = {"Flight ID", "Airline", "Route", "Date", "Seats Sold", "Capacity", "Load %", "Revenue", "Last Hour"};
+    private static final int REFRESH_MILLIS = 3000;
+
+    private record Snapshot(BookingAnalytics.Summary summary, List<Object[]> rows) {}
+
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0)
+    {
+        @Override
+        public boolean isCellEditable(int row, int column)
+        {
+            return false;
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column)
+        {
+            return switch (column)
+            {
+                case 0, 4, 5, 8 -> Integer.class;
+                case 6 -> Double.class;
+                case 7 -> Long.class;
+                default -> String.class;
+            };
+        }
+    };
+    private final JLabel summaryLabel = new JLabel("Loading...", SwingConstants.CENTER);
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, _ -> refresh());
+
+    // Constructor
+    public AnalyticsPanel(AdminDashboard dashboard)
+    {
+        // Frame setup
+        setTitle("Booking Analytics");
+        setSize(900, 450);
+        setLocationRelativeTo(dashboard);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        summaryLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        add(summaryLabel, BorderLayout.NORTH);
+
+        // Table setup, highest revenue first; click a header to sort by another column
+        JTable table = new JTable(model);
+        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(model);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(7, SortOrder.DESCENDING)));
+        table.setRowSorter(sorter);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                refreshTimer.stop();
+            }
+        });
+
+        // Restores the checkpoint on first use, so start it off the EDT
+        SwingAsync.run(() ->
+                {
+                    BookingAnalytics.getInstance().start();
+                    return null;
+                },
+                _ ->
+                {
+                    refresh();
+                    refreshTimer.start();
+                },
+                ex ->
+                {
+                    ex.printStackTrace();
+                    summaryLabel.setText("Analytics unavailable.");
+                });
+    }
+
+    /**
+     * Reads the current aggregates off the EDT and replaces the table rows.
+     */
+    private void refresh()
+    {
+        SwingAsync.run(() ->
+                {
+                    BookingAnalytics analytics = BookingAnalytics.getInstance();
+                    FlightIndex index = FlightIndex.getInstance();
+                    List<Object[]> rows = new ArrayList<>();
+                    for (BookingAnalytics.FlightStats s : analytics.flights())
+                    {
+                        Flight f = index.get(s.flightId());
+                        rows.add(new Object[] {s.flightId(), f == null ? "?" : f.airlineName(),
+                                f == null ? "" : f.source() + " → " + f.destination(), f == null ? "" : String.valueOf(f.date()),
+                                s.seatsSold(), s.capacity(), Math.round(s.loadFactor() * 1000) / 10.0, s.revenue(), s.bookingsLastHour()});
+                    }
+                    return new Snapshot(analytics.summary(), rows);
+                },
+                snapshot ->
+                {
+                    BookingAnalytics.Summary sum = snapshot.summary();
+                    summaryLabel.setText(String.format("%,d flights booked · %,d seats · ₹%,d revenue · bookings: %d last minute, %d last 5 min, %d last hour",
+                            sum.flights(), sum.seatsSold(), sum.revenue(), sum.lastMinute(), sum.last5Minutes(), sum.lastHour()));
+                    model.setRowCount(0);
+                    for (Object[] row : snapshot.rows()) model.addRow(row);
+                },
+                ex ->
+                {
+                    refreshTimer.stop();
+                    ex.printStackTrace();
+                    summaryLabel.setText("Analytics unavailable.");
+                });
+    }
+}
@@ -2,19 +2,75 @@ package ui;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * BackgroundImagePanel - Panel that paints a classpath image stretched to its size.
+ * The image is decoded once per process by {@link ImageCache}, off the EDT; the panel
+ * paints its normal background until it arrives. The stretched copy is kept and only
+ * rescaled when the panel size changes.
+ */
 public class BackgroundImagePanel extends JPanel
 {
-    private final Image bgImage;
+    private BufferedImage bgImage; // null until decoded
+    private BufferedImage scaled;
+
     public BackgroundImagePanel(String imagePath)
     {
-        bgImage = new ImageIcon(getClass().getResource(imagePath)).getImage();
         setLayout(new BorderLayout());
+
+        CompletableFuture<BufferedImage> image = ImageCache.load(imagePath);
+        if (image.isDone() && !image.isCompletedExceptionally())
+        {
+            bgImage = image.join(); // already decoded for another window
+        }
+        else
+        {
+            image.whenComplete((img, ex) -> SwingUtilities.invokeLater(() ->
+            {
+                if (ex != null)
+                {
+                    System.out.println("Could not load background " + imagePath + ": " + ex.getMessage());
+                    return;
+                }
+                bgImage = img;
+                repaint();
+            }));
+        }
     }
+
     @Override
     protected void paintComponent(Graphics g)
     {
         super.paintComponent(g);
-        g.drawImage(bgImage, 0, 0, getWidth(), getHeight(), this);
+        if (bgImage == null || getWidth() <= 0 || getHeight() <= 0) return;
+
+        // Scale to device pixels so HiDPI screens stay sharp
+        AffineTransform tx = ((Graphics2D) g).getTransform();
+        int w = (int) Math.ceil(getWidth() * tx.getScaleX());
+        int h = (int) Math.ceil(getHeight() * tx.getScaleY());
+        if (scaled == null || scaled.getWidth() != w || scaled.getHeight() != h)
+        {
+            scaled = scale(w, h);
+        }
+        g.drawImage(scaled, 0, 0, getWidth(), getHeight(), null);
+    }
+
+    /**
+     * Renders the image once at the given size in a format the screen can draw directly.
+     */
+    private BufferedImage scale(int w, int h)
+    {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage img = gc != null
+                ? gc.createCompatibleImage(w, h)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(bgImage, 0, 0, w, h, null);
+        g.dispose();
+        return img;
     }
 }
@@ -1,5 +1,8 @@
 package ui;
 
+import service.Bootstrap;
+import service.FlightIndex;
+
 import javax.swing.*;
 import java.awt.*;
 
@@ -25,6 +28,9 @@ public class BookingApp extends JFrame
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
+        // Load the flight search index in the background
+        FlightIndex.getInstance().startBackgroundRefresh();
+
         // Initialize layout and container
         cardLayout = new CardLayout();
         cardPanel = new JPanel(cardLayout);
@@ -58,6 +64,8 @@ public class BookingApp extends JFrame
 
     public static void main(String[] args)
     {
+        EdtMonitor.install();
+        Bootstrap.start();
         SwingUtilities.invokeLater(() -> new BookingApp().setVisible(true));
     }
 }
@@ -30,8 +30,7 @@ public class BookingState
     // Booking identifiers
     public List<Integer> bookingIds = new ArrayList<>();
 
-    // Seat tracking
-    public Set<String> bookedSeats = new HashSet<>();
+    // Seat tracking (booked seats live in service.SeatInventory)
     public Set<String> selectedSeats = new HashSet<>();
 
     // UI navigation callback
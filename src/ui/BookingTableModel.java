@@ -0,0 +1,188 @@
+package ui;
+
+import db.DBConnection;
+import metrics.Metrics;
+import service.CancellationService;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * BookingTableModel - Bookings of one flight, streamed into a table.
+ * The query runs off the EDT with a server-side cursor that fetches -Dadmin.bookings.fetchSize
+ * rows per round trip (default 500; needs useCursorFetch on the JDBC URL), and each fetched
+ * chunk is appended to the table as soon as it arrives, so the first rows show while the rest
+ * are still being read. At most -Dadmin.bookings.maxRows rows (default 100000) are loaded;
+ * column filters are applied by the database. All methods must be called on the EDT.
+ */
+public class BookingTableModel extends AbstractTableModel
+{
+    private static final String[] COLUMNS =
+            {
+                    "Booking ID", "Passenger Name", "Email", "Seat Number", "Payment Status", "Booking Time"
+            };
+    private static final int FETCH_SIZE = Integer.getInteger("admin.bookings.fetchSize", 500);
+    private static final int MAX_ROWS = Integer.getInteger("admin.bookings.maxRows", 100_000);
+
+    /**
+     * Filter - Column prefixes the rows must start with; blank matches everything.
+     */
+    public record Filter(String passenger, String email, String seat, String status)
+    {
+        public static final Filter NONE = new Filter("", "", "", "");
+    }
+
+    /**
+     * Progress - Rows loaded so far; truncated if more rows matched than are loaded.
+     */
+    public record Progress(int rows, boolean done, boolean truncated) {}
+
+    private final int flightId;
+    private final Consumer<Progress> onProgress;
+    private final Consumer<Throwable> onError;
+    private final List<Object[]> rows = new ArrayList<>();
+    private CompletableFuture<Boolean> running;
+    private int generation;
+
+    /**
+     * @param onProgress Called on the EDT after each chunk and when loading ends
+     * @param onError Called on the EDT when loading fails
+     */
+    public BookingTableModel(int flightId, Consumer<Progress> onProgress, Consumer<Throwable> onError)
+    {
+        this.flightId = flightId;
+        this.onProgress = onProgress;
+        this.onError = onError;
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column)
+    {
+        return rows.get(row)[column];
+    }
+
+    /**
+     * Clears the table and streams the rows matching the filter, abandoning any load in progress.
+     */
+    public void load(Filter filter)
+    {
+        cancel();
+        int gen = ++generation;
+        int old = rows.size();
+        rows.clear();
+        if (old > 0) fireTableRowsDeleted(0, old - 1);
+
+        running = SwingAsync.run(() -> stream(flightId, filter, chunk -> SwingUtilities.invokeLater(() -> append(gen, chunk))),
+                truncated ->
+                {
+                    if (gen == generation) onProgress.accept(new Progress(rows.size(), true, truncated));
+                },
+                ex ->
+                {
+                    if (gen == generation) onError.accept(ex);
+                });
+    }
+
+    /**
+     * Stops the load in progress, if any; rows already shown stay.
+     */
+    public void cancel()
+    {
+        if (running != null) running.cancel(true);
+        running = null;
+    }
+
+    private void append(int gen, List<Object[]> chunk)
+    {
+        if (gen != generation) return; // from a load that was replaced
+        int first = rows.size();
+        rows.addAll(chunk);
+        fireTableRowsInserted(first, rows.size() - 1);
+        onProgress.accept(new Progress(rows.size(), false, false));
+    }
+
+    /**
+     * Reads the matching bookings through a cursor and hands them over chunk by chunk.
+     * Runs off the EDT; stops early when interrupted.
+     * @return True if more rows matched than {@link #MAX_ROWS}
+     */
+    private static boolean stream(int flightId, Filter filter, Consumer<List<Object[]>> sink) throws SQLException
+    {
+        String[] prefixes = {filter.passenger().trim(), filter.email().trim(), filter.seat().trim(), filter.status().trim()};
+        String[] columns = {"passenger_name", "email", "seat_number", "payment_status"};
+        StringBuilder sql = new StringBuilder("SELECT booking_id, passenger_name, email, seat_number, payment_status, booking_time"
+                + " FROM bookings WHERE flight_id = ? AND payment_status <> ?");
+        for (int i = 0; i < columns.length; i++)
+        {
+            if (!prefixes[i].isEmpty()) sql.append(" AND ").append(columns[i]).append(" LIKE ?");
+        }
+        sql.append(" ORDER BY booking_id LIMIT ").append(MAX_ROWS + 1);
+
+        long start = System.nanoTime();
+        boolean first = true;
+        int count = 0;
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+        {
+            int p = 1;
+            pst.setInt(p++, flightId);
+            pst.setString(p++, CancellationService.CANCELLED);
+            for (String prefix : prefixes)
+            {
+                if (!prefix.isEmpty()) pst.setString(p++, prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            }
+            pst.setFetchSize(FETCH_SIZE);
+
+            try (ResultSet r = pst.executeQuery())
+            {
+                List<Object[]> chunk = new ArrayList<>(FETCH_SIZE);
+                while (r.next())
+                {
+                    if (++count > MAX_ROWS) break;
+                    chunk.add(new Object[] {r.getInt(1), r.getString(2), r.getString(3), r.getString(4), r.getString(5), r.getTimestamp(6)});
+                    if (chunk.size() == FETCH_SIZE)
+                    {
+                        if (Thread.currentThread().isInterrupted()) return false;
+                        if (first) Metrics.record("admin.bookings.firstChunk", start);
+                        first = false;
+                        sink.accept(chunk);
+                        chunk = new ArrayList<>(FETCH_SIZE);
+                    }
+                }
+                if (first) Metrics.record("admin.bookings.firstChunk", start);
+                if (!chunk.isEmpty()) sink.accept(chunk);
+            }
+        }
+        finally
+        {
+            Metrics.record("admin.bookings.stream", start);
+        }
+        return count > MAX_ROWS;
+    }
+}
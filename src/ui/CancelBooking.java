@@ -1,11 +1,10 @@
 package ui;
 
-import db.DBConnection;
+import service.Bootstrap;
+import service.CancellationService;
+
 import javax.swing.*;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 
 /**
  * CancelBooking - Allows users to cancel a booking by entering Booking ID and optional email.
@@ -84,41 +83,40 @@ public class CancelBooking extends JFrame
             return;
         }
 
-        try (Connection con = DBConnection.getConnection();
-            PreparedStatement pst = email.isEmpty()
-                    ? con.prepareStatement("Delete from bookings where booking_id = ?")
-                    : con.prepareStatement("Delete from bookings where booking_id = ? and email = ?"))
+        int id;
+        try
         {
-            pst.setInt(1, Integer.parseInt(bookingId));
-            if (!email.isEmpty())
-            {
-                pst.setString(2, email);
-            }
-
-            int rowsAffected = pst.executeUpdate();
-
-            if (rowsAffected > 0)
-            {
-                JOptionPane.showMessageDialog(this, "Booking cancelled successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-            }
-            else
-            {
-                JOptionPane.showMessageDialog(this, "Booking not found or email doesn't match.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-        catch (SQLException ex)
-        {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            id = Integer.parseInt(bookingId);
         }
         catch (NumberFormatException ex)
         {
             JOptionPane.showMessageDialog(this, "Invalid Booking ID.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+
+        SwingAsync.run(() -> CancellationService.getInstance().cancel(id, email) != null,
+                cancelled ->
+                {
+                    if (cancelled)
+                    {
+                        JOptionPane.showMessageDialog(this, "Booking cancelled successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    }
+                    else
+                    {
+                        JOptionPane.showMessageDialog(this, "Booking not found or email doesn't match.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                ex ->
+                {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     public static void main(String[] args)
     {
+        EdtMonitor.install();
+        Bootstrap.start();
         SwingUtilities.invokeLater(() -> new CancelBooking().setVisible(true));
     }
 }
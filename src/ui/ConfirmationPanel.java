@@ -84,7 +84,9 @@ public class ConfirmationPanel extends JPanel
         NumberFormat currency = NumberFormat.getCurrencyInstance(new Locale("en", "IN"));
         BigDecimal totalPrice = state.totalPrice != null ? state.totalPrice : BigDecimal.ZERO;
 
-        String sb = "Booking IDs: " + state.bookingIds.stream().map(Object::toString).collect(Collectors.joining(", ")) + "\n\n" +
+        String ids = state.bookingIds.isEmpty() ? "pending (journaled)"
+                : state.bookingIds.stream().map(Object::toString).collect(Collectors.joining(", "));
+        String sb = "Booking IDs: " + ids + "\n\n" +
                 "Passenger: " + state.passengerName + " (" + state.passengerEmail + ")\n" +
                 "Flight: " + state.airlineName + " | " + state.source + " -> " + state.destination + "\n" +
                 "Date: " + state.flightDate + "\n" +
@@ -1,11 +1,19 @@
 package ui;
 
 import db.DBConnection;
+import db.FlightSchema;
+import metrics.Metrics;
+import service.Flight;
+import service.FlightEvent;
+import service.FlightEvents;
 
 import javax.swing.*;
 import java.awt.*;
+import java.math.BigDecimal;
 import java.sql.*;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 
 /**
  * EditFlightForm - UI form for editing an existing flight.
@@ -14,18 +22,17 @@ import java.text.SimpleDateFormat;
 public class EditFlightForm extends JFrame {
     // UI Components
     private final JTextField airlineField, sourceField, destField, dateField, departField, arriveField, priceField;
+    private final JButton updateBtn;
     private final int flightId;
-    private final AdminDashboard dashboard;
 
     // Constructor
     public EditFlightForm(int flightId, AdminDashboard dashboard) {
         this.flightId = flightId;
-        this.dashboard = dashboard;
 
         // Frame setup
         setTitle("Edit Flight ID: " + flightId);
         setSize(400, 450);
-        setLocationRelativeTo(null);
+        setLocationRelativeTo(dashboard);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new GridLayout(8, 2, 10, 10));
 
@@ -69,7 +76,7 @@ public class EditFlightForm extends JFrame {
         formPanel.add(priceField);
 
         // Update button
-        JButton updateBtn = new JButton("Update Flight");
+        updateBtn = new JButton("Update Flight");
         updateBtn.addActionListener(_ -> updateFlight());
         formPanel.add(new JLabel()); // Empty cell for layout
         formPanel.add(updateBtn);
@@ -93,32 +100,47 @@ public class EditFlightForm extends JFrame {
     }
 
     /**
-     * Loads flight data from the database and populates the form fields.
+     * Loads the flight off the EDT and populates the form fields.
      */
     private void loadFlightData() {
-        try (Connection con = DBConnection.getConnection()) {
-            String q = "select * from flights where flight_id = ?";
-            PreparedStatement stm = con.prepareStatement(q);
+        SwingAsync.run(() -> load(flightId),
+                f -> {
+                    if (f == null) {
+                        JOptionPane.showMessageDialog(this, "Flight not found.", "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    airlineField.setText(f.airlineName());
+                    sourceField.setText(f.source());
+                    destField.setText(f.destination());
+                    dateField.setText(f.date().toString());
+                    departField.setText(f.departureTime().toString().substring(0, 5));
+                    arriveField.setText(f.arrivalTime().toString().substring(0, 5));
+                    priceField.setText(String.valueOf(f.price()));
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Error loading flight data.", "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    /**
+     * Reads one flight in the columns of the probed schema.
+     * @return The flight, or null if it does not exist
+     */
+    private static Flight load(int flightId) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(FlightSchema.get().selectByIdSql())) {
             stm.setInt(1, flightId);
-            ResultSet r = stm.executeQuery();
-
-            if (r.next()) {
-                airlineField.setText(r.getString("airline_name"));
-                sourceField.setText(r.getString("source"));
-                destField.setText(r.getString("destination"));
-                dateField.setText(r.getDate("date").toString());
-                departField.setText(r.getTime("departure_time").toString().substring(0, 5));
-                arriveField.setText(r.getTime("arrival_time").toString().substring(0, 5));
-                priceField.setText(String.valueOf(r.getDouble("price")));
+            try (ResultSet r = stm.executeQuery()) {
+                Metrics.record("admin.flight.load", start);
+                return r.next() ? Flight.read(r) : null;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading flight data.", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     /**
-     * Validates input and updates the flight record in the database.
+     * Validates input, then updates the flight record off the EDT and reports the outcome.
      */
     private void updateFlight() {
         String airline = airlineField.getText().trim();
@@ -136,34 +158,56 @@ public class EditFlightForm extends JFrame {
             return;
         }
 
+        Flight flight;
         try {
-            double price = Double.parseDouble(priceStr);
-            Date sqlDate = Date.valueOf(date);
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-            Time depTime = new Time(sdf.parse(depart).getTime());
-            Time arrTime = new Time(sdf.parse(arrive).getTime());
-
-            Connection con = DBConnection.getConnection();
-            String q = "update flights set airline_name = ?, source = ?, destination = ?, date = ?, departure_time = ?, arrival_time = ?, price = ? where flight_id = ?";
-            PreparedStatement stm = con.prepareStatement(q);
-            stm.setString(1, airline);
-            stm.setString(2, source);
-            stm.setString(3, dest);
-            stm.setDate(4, sqlDate);
-            stm.setTime(5, depTime);
-            stm.setTime(6, arrTime);
-            stm.setDouble(7, price);
-            stm.setInt(8, flightId);
+            flight = new Flight(flightId, airline, source, dest, Date.valueOf(LocalDate.parse(date)),
+                    Time.valueOf(LocalTime.parse(depart)), Time.valueOf(LocalTime.parse(arrive)),
+                    BigDecimal.valueOf(Double.parseDouble(priceStr)));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Invalid input: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Update off the EDT; the button stays disabled until the outcome is known
+        updateBtn.setEnabled(false);
+        SwingAsync.run(() -> update(flight),
+                updated -> {
+                    updateBtn.setEnabled(true);
+                    if (updated) {
+                        JOptionPane.showMessageDialog(this, "Flight updated successfully!");
+                        dispose();
+                    }
+                },
+                ex -> {
+                    updateBtn.setEnabled(true);
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Error updating flight.", "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    /**
+     * Writes the flight in the columns of the probed schema and publishes the change.
+     * @return True if the row was updated
+     */
+    private static boolean update(Flight f) throws SQLException {
+        FlightSchema schema = FlightSchema.get();
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement stm = con.prepareStatement(schema.updateSql())) {
+            stm.setString(1, f.airlineName());
+            stm.setString(2, f.source());
+            stm.setString(3, f.destination());
+            int next = schema.bindSchedule(stm, 4, f.date().toLocalDate(), f.departureTime().toLocalTime(), f.arrivalTime().toLocalTime());
+            stm.setBigDecimal(next, f.price());
+            stm.setInt(next + 1, f.flightId());
 
             int rows = stm.executeUpdate();
-            if (rows > 0) {
-                JOptionPane.showMessageDialog(this, "Flight updated successfully!");
-                dashboard.loadFlightData(); // Refresh table
-                dispose();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error updating flight.", "Error", JOptionPane.ERROR_MESSAGE);
+            Metrics.record("admin.flight.update", start);
+            if (rows == 0) return false;
+
+            // Publish the changed row; the search index and the dashboard table apply it
+            FlightEvents.getInstance().publish(new FlightEvent.Updated(f));
+            return true;
         }
     }
 }
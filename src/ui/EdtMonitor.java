@@ -0,0 +1,90 @@
+package ui;
+
+import metrics.Histogram;
+import metrics.Metrics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.InvocationEvent;
+
+/**
+ * EdtMonitor - Event queue that times every event dispatched on the EDT and reports
+ * handlers that hold it longer than -Dedt.stallThresholdMs (default 50).
+ * Dispatch times go to the edt.dispatch timer and stalls to the edt.stalls counter.
+ * Events that open a modal dialog run a nested event loop; they are not reported,
+ * since the time is spent waiting for the user.
+ */
+public final class EdtMonitor extends EventQueue
+{
+    private static final long THRESHOLD_NANOS = Long.getLong("edt.stallThresholdMs", 50) * 1_000_000L;
+    private static final Histogram DISPATCH = Metrics.getInstance().timer("edt.dispatch");
+    private static boolean installed;
+
+    // Nesting state, only touched on the EDT
+    private int depth;
+    private boolean nestedLoop;
+
+    private EdtMonitor() {}
+
+    /**
+     * Pushes the monitor onto the system event queue. Safe to call more than once.
+     */
+    public static synchronized void install()
+    {
+        if (installed) return;
+        installed = true;
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new EdtMonitor());
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event)
+    {
+        long start = System.nanoTime();
+        boolean saved = nestedLoop;
+        nestedLoop = false;
+        depth++;
+        try
+        {
+            super.dispatchEvent(event);
+        }
+        finally
+        {
+            long elapsed = System.nanoTime() - start;
+            depth--;
+            boolean hostedLoop = nestedLoop;
+            nestedLoop = saved || depth > 0; // tell the enclosing event it hosted a nested loop
+            if (!hostedLoop)
+            {
+                DISPATCH.record(elapsed);
+            }
+            if (!hostedLoop && elapsed > THRESHOLD_NANOS)
+            {
+                Metrics.increment("edt.stalls");
+                System.out.println("EDT stall: " + elapsed / 1_000_000 + " ms in " + describe(event));
+            }
+        }
+    }
+
+    private static String describe(AWTEvent event)
+    {
+        String source = event.getSource() == null ? "?" : event.getSource().getClass().getSimpleName();
+        if (event instanceof ActionEvent action && event.getSource() instanceof AbstractButton button)
+        {
+            return "action '" + action.getActionCommand() + "' of " + button.getClass().getSimpleName()
+                    + " in " + windowTitle(button);
+        }
+        if (event instanceof InvocationEvent)
+        {
+            return "invokeLater task " + event.paramString();
+        }
+        return event.getClass().getSimpleName() + " from " + source;
+    }
+
+    private static String windowTitle(Component c)
+    {
+        Window w = SwingUtilities.getWindowAncestor(c);
+        if (w instanceof Frame f) return "'" + f.getTitle() + "'";
+        return w == null ? "no window" : w.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,538 @@
+package ui;
+
+import db.DBConnection;
+import db.FlightSchema;
+import metrics.Metrics;
+import service.Flight;
+import service.FlightEvent;
+
+import javax.swing.table.AbstractTableModel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * FlightTableModel - Lazily loaded, paginated view of the flights table for AdminDashboard.
+ * Rows are fetched a page at a time, off the EDT, when the table first asks for them.
+ * Pages after one already fetched are read with keyset pagination (WHERE key > last key),
+ * pages reached by jumping use OFFSET once. Only the most recently used pages are kept.
+ * Sorting and filtering are done by the database. Single-row changes arrive as
+ * {@link FlightEvent}s and are applied without reloading. All methods must be called on the EDT.
+ */
+public class FlightTableModel extends AbstractTableModel
+{
+    private static final String[] COLUMNS =
+            {
+                    "Flight ID", "Airline", "Source", "Destination", "Date", "Departure", "Arrival", "Price"
+            };
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = Integer.getInteger("admin.flights.cachedPages", 25);
+
+    // Loaded pages, least recently used first
+    private final Map<Integer, List<Flight>> pages = new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Flight>> eldest)
+        {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    // Last row of every page fetched so far, used as the keyset cursor for the next page
+    private final Map<Integer, Flight> pageLast = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+
+    private final Consumer<Throwable> onError;
+    private int rowCount;
+    private int sortColumn;
+    private boolean ascending = true;
+    private String filter = "";
+    private int generation;
+    private int pageEpoch; // bumped whenever cached rows shift; page fetches from an older epoch are dropped
+    private boolean counting;
+    private boolean errorReported;
+
+    /**
+     * @param onError Called on the EDT when loading fails (at most once per refresh)
+     */
+    public FlightTableModel(Consumer<Throwable> onError)
+    {
+        this.onError = onError;
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column)
+    {
+        Flight f = flightAt(row);
+        return f == null ? null : columnValue(f, column); // null while the page is loading
+    }
+
+    /**
+     * Returns the flight shown in a row, requesting its page if it is not loaded.
+     * @return Flight, or null while the page is loading
+     */
+    public Flight flightAt(int row)
+    {
+        int page = row / PAGE_SIZE;
+        List<Flight> rows = pages.get(page);
+        if (rows == null)
+        {
+            request(page);
+            return null;
+        }
+        int idx = row % PAGE_SIZE;
+        return idx < rows.size() ? rows.get(idx) : null;
+    }
+
+    /**
+     * Returns the flight ID of a row, or -1 if the row is not loaded.
+     */
+    public int flightIdAt(int row)
+    {
+        Flight f = flightAt(row);
+        return f == null ? -1 : f.flightId();
+    }
+
+    /**
+     * Sorts by a column on the server; selecting the current sort column again reverses the order.
+     */
+    public void setSort(int column)
+    {
+        if (column == sortColumn) ascending = !ascending;
+        else
+        {
+            sortColumn = column;
+            ascending = true;
+        }
+        refresh();
+    }
+
+    /**
+     * Shows only flights whose airline, source or destination starts with the given text.
+     */
+    public void setFilter(String text)
+    {
+        filter = text == null ? "" : text.trim();
+        refresh();
+    }
+
+    /**
+     * Drops all cached pages and re-counts the rows for the current sort and filter.
+     */
+    public void refresh()
+    {
+        int gen = ++generation;
+        invalidateFrom(0);
+        counting = true;
+        errorReported = false;
+
+        String f = filter;
+        SwingAsync.run(() -> count(f),
+                n ->
+                {
+                    if (gen != generation) return;
+                    counting = false;
+                    rowCount = n;
+                    fireTableDataChanged();
+                },
+                this::reportError);
+    }
+
+    private void request(int page)
+    {
+        if (!pending.add(page)) return;
+
+        int epoch = pageEpoch;
+        int col = sortColumn;
+        boolean asc = ascending;
+        String f = filter;
+        Flight after = page > 0 ? pageLast.get(page - 1) : null;
+
+        SwingAsync.run(() -> fetch(page, after, col, asc, f),
+                rows ->
+                {
+                    if (epoch != pageEpoch) return;
+                    pending.remove(page);
+                    pages.put(page, rows);
+                    if (!rows.isEmpty()) pageLast.put(page, rows.getLast());
+
+                    int first = page * PAGE_SIZE;
+                    int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+                    if (last >= first) fireTableRowsUpdated(first, last);
+                },
+                ex ->
+                {
+                    if (epoch == pageEpoch) reportError(ex); // page stays pending until the next refresh
+                });
+    }
+
+    /**
+     * Applies one committed flight change as a single-row table event. Only the cached page
+     * containing the change is dropped and re-read, with the keyset cursor of the page before;
+     * later cached pages are shifted by one row in memory.
+     * Changes to rows whose position is not known (their page is not cached) reload the table.
+     */
+    public void apply(FlightEvent event)
+    {
+        if (counting)
+        {
+            refresh(); // the count in flight may or may not include this change
+            return;
+        }
+
+        int row = rowOf(event.flightId());
+        switch (event)
+        {
+            case FlightEvent.Inserted e -> insert(e.flight());
+            case FlightEvent.Updated e ->
+            {
+                if (row < 0)
+                {
+                    refresh();
+                    return;
+                }
+                int page = row / PAGE_SIZE;
+                List<Flight> rows = pages.get(page);
+                Flight old = rows.get(row % PAGE_SIZE);
+                if (matches(e.flight()) && compare(old, e.flight()) == 0)
+                {
+                    // Same position: replace in place
+                    rows.set(row % PAGE_SIZE, e.flight());
+                    if (pageLast.get(page) == old) pageLast.put(page, e.flight());
+                    fireTableRowsUpdated(row, row);
+                }
+                else
+                {
+                    delete(row);
+                    insert(e.flight());
+                }
+            }
+            case FlightEvent.Deleted _ ->
+            {
+                if (row < 0) refresh();
+                else delete(row);
+            }
+        }
+    }
+
+    private void insert(Flight flight)
+    {
+        if (!matches(flight)) return;
+
+        // Walk the keyset cursors to the first page whose last row sorts after the new one
+        int page = 0;
+        Flight last;
+        while ((last = pageLast.get(page)) != null && compare(flight, last) > 0) page++;
+
+        int row;
+        List<Flight> rows = pages.get(page);
+        if (last != null && rows != null)
+        {
+            int pos = 0;
+            while (pos < rows.size() && compare(rows.get(pos), flight) < 0) pos++;
+            row = page * PAGE_SIZE + pos;
+        }
+        else if (last == null && page * PAGE_SIZE >= rowCount)
+        {
+            row = rowCount; // sorts after every row
+        }
+        else
+        {
+            refresh();
+            return;
+        }
+
+        rowCount++;
+        shiftAfterInsert(page);
+        fireTableRowsInserted(row, row);
+    }
+
+    private void delete(int row)
+    {
+        rowCount--;
+        shiftAfterDelete(row / PAGE_SIZE);
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Re-reads the page a row was inserted into and moves every later cached page down one
+     * row: each gains the old last row of the page before it and passes its own last row on.
+     * A later page whose predecessor's last row is not known is dropped instead.
+     */
+    private void shiftAfterInsert(int page)
+    {
+        Map<Integer, Flight> oldLast = new HashMap<>(pageLast);
+        Map<Integer, List<Flight>> cached = new HashMap<>(pages);
+        dropPage(page);
+        for (int p : cached.keySet())
+        {
+            if (p <= page) continue;
+            Flight carry = oldLast.get(p - 1);
+            if (carry == null)
+            {
+                dropPage(p);
+                continue;
+            }
+            List<Flight> rows = new ArrayList<>(PAGE_SIZE);
+            rows.add(carry);
+            List<Flight> old = cached.get(p);
+            rows.addAll(old.size() == PAGE_SIZE ? old.subList(0, PAGE_SIZE - 1) : old);
+            pages.put(p, rows);
+            pageLast.put(p, rows.getLast());
+        }
+        pageLast.keySet().removeIf(p -> p > page && !pages.containsKey(p)); // cursors of evicted pages moved too
+    }
+
+    /**
+     * Re-reads the page a row was deleted from and moves every later cached page up one row:
+     * each loses its first row and takes the first row of the page after it, which must be
+     * cached unless it is the last page. Pages that cannot be shifted are dropped.
+     */
+    private void shiftAfterDelete(int page)
+    {
+        Map<Integer, List<Flight>> cached = new HashMap<>(pages);
+        dropPage(page);
+        int lastPage = Math.max(0, rowCount - 1) / PAGE_SIZE;
+        for (int p : cached.keySet())
+        {
+            if (p <= page) continue;
+            List<Flight> old = cached.get(p);
+            List<Flight> next = cached.get(p + 1);
+            if (p > lastPage || (next == null && p < lastPage) || (next != null && next.isEmpty()))
+            {
+                dropPage(p);
+                continue;
+            }
+            List<Flight> rows = new ArrayList<>(old.subList(1, old.size()));
+            if (next != null) rows.add(next.getFirst());
+            pages.put(p, rows);
+            if (rows.isEmpty()) pageLast.remove(p);
+            else pageLast.put(p, rows.getLast());
+        }
+        pageLast.keySet().removeIf(p -> p > page && !pages.containsKey(p));
+    }
+
+    /**
+     * Drops one page and its cursor, and discards page fetches in flight since rows moved.
+     */
+    private void dropPage(int page)
+    {
+        pageEpoch++;
+        pending.clear();
+        pages.remove(page);
+        pageLast.remove(page);
+    }
+
+    /**
+     * Drops cached pages and cursors from a page on, and discards page fetches in flight.
+     */
+    private void invalidateFrom(int page)
+    {
+        pageEpoch++;
+        pending.clear();
+        pages.keySet().removeIf(p -> p >= page);
+        pageLast.keySet().removeIf(p -> p >= page);
+    }
+
+    /**
+     * Returns the row of a flight in a cached page, or -1.
+     */
+    private int rowOf(int flightId)
+    {
+        for (Map.Entry<Integer, List<Flight>> e : pages.entrySet())
+        {
+            List<Flight> rows = e.getValue();
+            for (int i = 0; i < rows.size(); i++)
+            {
+                if (rows.get(i).flightId() == flightId) return e.getKey() * PAGE_SIZE + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether a flight passes the current filter (mirrors the SQL prefix match).
+     */
+    private boolean matches(Flight f)
+    {
+        return filter.isEmpty() || startsWith(f.airlineName()) || startsWith(f.source()) || startsWith(f.destination());
+    }
+
+    private boolean startsWith(String value)
+    {
+        return value != null && value.regionMatches(true, 0, filter, 0, filter.length());
+    }
+
+    /**
+     * Orders two flights the way the current ORDER BY does.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(Flight a, Flight b)
+    {
+        int c = 0;
+        if (sortColumn != 0)
+        {
+            Object x = columnValue(a, sortColumn);
+            Object y = columnValue(b, sortColumn);
+            if (x == null || y == null) c = x == null ? (y == null ? 0 : -1) : 1; // NULLs sort first
+            else if (x instanceof String sx && y instanceof String sy) c = sx.compareToIgnoreCase(sy);
+            else c = ((Comparable<Object>) x).compareTo(y);
+        }
+        if (c == 0) c = Integer.compare(a.flightId(), b.flightId());
+        return ascending ? c : -c;
+    }
+
+    private void reportError(Throwable ex)
+    {
+        if (errorReported) return;
+        errorReported = true;
+        onError.accept(ex);
+    }
+
+    /**
+     * Counts the rows matching the filter. Runs off the EDT.
+     */
+    private static int count(String filter) throws SQLException
+    {
+        String sql = "SELECT COUNT(*) FROM flights" + (filter.isEmpty() ? "" : " WHERE " + filterClause());
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql))
+        {
+            if (!filter.isEmpty()) bindFilter(pst, 1, filter);
+            try (ResultSet rs = pst.executeQuery())
+            {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+        finally
+        {
+            Metrics.record("admin.flights.count", start);
+        }
+    }
+
+    /**
+     * Reads one page. Uses the previous page's last row as a keyset cursor when known,
+     * OFFSET otherwise. Runs off the EDT.
+     */
+    private static List<Flight> fetch(int page, Flight after, int column, boolean asc, String filter) throws SQLException
+    {
+        FlightSchema schema = FlightSchema.get();
+        String expr = sortExpression(schema, column);
+        String cmp = asc ? ">" : "<";
+        String dir = asc ? " ASC" : " DESC";
+
+        List<String> where = new ArrayList<>();
+        if (!filter.isEmpty()) where.add(filterClause());
+        if (after != null)
+        {
+            where.add(column == 0
+                    ? "flight_id " + cmp + " ?"
+                    : "(" + expr + " " + cmp + " ? OR (" + expr + " = ? AND flight_id " + cmp + " ?))");
+        }
+
+        StringBuilder sql = new StringBuilder(schema.selectAllSql());
+        if (!where.isEmpty()) sql.append(" WHERE ").append(String.join(" AND ", where));
+        sql.append(" ORDER BY ");
+        if (column != 0) sql.append(expr).append(dir).append(", ");
+        sql.append("flight_id").append(dir).append(" LIMIT ").append(PAGE_SIZE);
+        if (after == null && page > 0) sql.append(" OFFSET ").append((long) page * PAGE_SIZE);
+
+        List<Flight> rows = new ArrayList<>(PAGE_SIZE);
+        long start = System.nanoTime();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql.toString()))
+        {
+            int i = 1;
+            if (!filter.isEmpty()) i = bindFilter(pst, i, filter);
+            if (after != null)
+            {
+                if (column != 0)
+                {
+                    Object key = columnValue(after, column);
+                    pst.setObject(i++, key);
+                    pst.setObject(i++, key);
+                }
+                pst.setInt(i, after.flightId());
+            }
+            try (ResultSet r = pst.executeQuery())
+            {
+                while (r.next()) rows.add(Flight.read(r));
+            }
+        }
+        finally
+        {
+            Metrics.record("admin.flights.page", start);
+        }
+        return rows;
+    }
+
+    private static String filterClause()
+    {
+        return "(airline_name LIKE ? OR source LIKE ? OR destination LIKE ?)";
+    }
+
+    private static int bindFilter(PreparedStatement pst, int index, String filter) throws SQLException
+    {
+        String like = filter.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        for (int k = 0; k < 3; k++) pst.setString(index++, like);
+        return index;
+    }
+
+    private static String sortExpression(FlightSchema schema, int column)
+    {
+        return switch (column)
+        {
+            case 0 -> "flight_id";
+            case 1 -> "airline_name";
+            case 2 -> "source";
+            case 3 -> "destination";
+            case 4 -> schema.dateMapping().expression();
+            case 5 -> "departure_time";
+            case 6 -> "arrival_time";
+            default -> "price";
+        };
+    }
+
+    private static Object columnValue(Flight f, int column)
+    {
+        return switch (column)
+        {
+            case 0 -> f.flightId();
+            case 1 -> f.airlineName();
+            case 2 -> f.source();
+            case 3 -> f.destination();
+            case 4 -> f.date();
+            case 5 -> f.departureTime();
+            case 6 -> f.arrivalTime();
+            default -> f.price();
+        };
+    }
+}
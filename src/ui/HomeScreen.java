@@ -1,5 +1,7 @@
 package ui;
 
+import service.Bootstrap;
+
 import javax.swing.*;
 import java.awt.*;
 
@@ -50,6 +52,8 @@ public class HomeScreen extends JFrame
 
     public static void main(String[] args)
     {
+        EdtMonitor.install();
+        Bootstrap.start();
         SwingUtilities.invokeLater(() -> new HomeScreen().setVisible(true));
     }
 }
@@ -0,0 +1,54 @@
+package ui;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ImageCache - Process-wide cache of decoded classpath images.
+ * Each resource is decoded once, on a background thread; every window using it shares the result.
+ */
+final class ImageCache
+{
+    private static final ConcurrentHashMap<String, CompletableFuture<BufferedImage>> IMAGES = new ConcurrentHashMap<>();
+
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(2, r ->
+    {
+        Thread t = new Thread(r, "image-decoder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ImageCache() {}
+
+    /**
+     * Returns the decoded image of a classpath resource, starting the decode on first request.
+     * The future fails if the resource is missing or cannot be decoded.
+     */
+    static CompletableFuture<BufferedImage> load(String path)
+    {
+        return IMAGES.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> decode(p), DECODER));
+    }
+
+    private static BufferedImage decode(String path)
+    {
+        URL url = ImageCache.class.getResource(path);
+        if (url == null) throw new IllegalArgumentException("Image not found: " + path);
+        try
+        {
+            BufferedImage img = ImageIO.read(url);
+            if (img == null) throw new IllegalArgumentException("Unsupported image format: " + path);
+            return img;
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ui;
+
+import service.FlightImporter;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
+
+/**
+ * ImportFlightsDialog - Imports a CSV or JSON flight schedule file with {@link FlightImporter}
+ * and shows its progress. Closing the dialog stops a running import.
+ */
+public class ImportFlightsDialog extends JDialog
+{
+    private final AdminDashboard dashboard;
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+    private final JLabel fileLabel = new JLabel("Choose a CSV or JSON schedule file.");
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JButton chooseBtn = new JButton("Choose File...");
+    private final JButton stopBtn = new JButton("Stop");
+
+    // Import in progress, or null; only touched on the EDT
+    private FlightImporter importer;
+
+    // Constructor
+    public ImportFlightsDialog(AdminDashboard dashboard)
+    {
+        super(dashboard, "Import Flight Schedule", false);
+        this.dashboard = dashboard;
+
+        // Dialog setup
+        setSize(520, 200);
+        setLocationRelativeTo(dashboard);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout(10, 10));
+
+        // Progress panel
+        JPanel center = new JPanel(new GridLayout(3, 1, 5, 5));
+        center.setBorder(BorderFactory.createEmptyBorder(15, 15, 0, 15));
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        center.add(fileLabel);
+        center.add(progressBar);
+        center.add(statusLabel);
+        add(center, BorderLayout.CENTER);
+
+        // Button panel
+        JPanel buttons = new JPanel();
+        stopBtn.setEnabled(false);
+        buttons.add(chooseBtn);
+        buttons.add(stopBtn);
+        add(buttons, BorderLayout.SOUTH);
+
+        // Button actions
+        chooseBtn.addActionListener(_ -> chooseFile());
+        stopBtn.addActionListener(_ ->
+        {
+            if (importer != null) importer.cancel();
+            stopBtn.setEnabled(false);
+        });
+        addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                if (importer != null) importer.cancel();
+            }
+        });
+    }
+
+    private void chooseFile()
+    {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Flight schedules (CSV, JSON)", "csv", "json", "jsonl", "ndjson"));
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) startImport(chooser.getSelectedFile().toPath());
+    }
+
+    /**
+     * Runs the import off the EDT; progress updates are handed back to the EDT as they arrive.
+     */
+    private void startImport(Path file)
+    {
+        FlightImporter running = new FlightImporter();
+        importer = running;
+        chooseBtn.setEnabled(false);
+        stopBtn.setEnabled(true);
+        fileLabel.setText("Importing " + file.getFileName() + "...");
+        progressBar.setValue(0);
+
+        SwingAsync.run(() -> running.importFile(file, p -> SwingUtilities.invokeLater(() -> showProgress(p))),
+                result ->
+                {
+                    finished();
+                    fileLabel.setText((result.cancelled() ? "Stopped: " : "Imported: ") + file.getFileName());
+                    dashboard.loadFlightData();
+                    if (isDisplayable()) showResult(result); // not if the dialog was closed
+                },
+                ex ->
+                {
+                    finished();
+                    fileLabel.setText("Import failed: " + file.getFileName());
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Import failed: " + ex.getMessage()
+                            + "\nBatches written before the failure were kept.", "Error", JOptionPane.ERROR_MESSAGE);
+                    dashboard.loadFlightData();
+                });
+    }
+
+    private void finished()
+    {
+        importer = null;
+        chooseBtn.setEnabled(true);
+        stopBtn.setEnabled(false);
+    }
+
+    private void showProgress(FlightImporter.Progress p)
+    {
+        progressBar.setValue((int) (p.fraction() * 1000));
+        progressBar.setString(String.format("%.0f%%", p.fraction() * 100));
+        statusLabel.setText(String.format("%,d read, %,d imported, %,d duplicates, %,d invalid (%,.0f rows/s)",
+                p.records(), p.imported(), p.duplicates(), p.invalid(), p.rowsPerSecond()));
+    }
+
+    private void showResult(FlightImporter.Result r)
+    {
+        String summary = String.format("%,d records in %.1f s (%,.0f rows/s)\n%,d imported, %,d duplicates skipped, %,d invalid",
+                r.records(), r.seconds(), r.rowsPerSecond(), r.imported(), r.duplicates(), r.invalid());
+        if (r.errors().isEmpty())
+        {
+            JOptionPane.showMessageDialog(this, summary);
+            return;
+        }
+
+        JTextArea errors = new JTextArea(String.join("\n", r.errors()), 10, 50);
+        errors.setEditable(false);
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(new JLabel("<html>" + summary.replace("\n", "<br>") + "<br>Invalid records"
+                + (r.invalid() > r.errors().size() ? " (first " + r.errors().size() + ")" : "") + ":</html>"), BorderLayout.NORTH);
+        panel.add(new JScrollPane(errors), BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(this, panel, "Import Finished", JOptionPane.WARNING_MESSAGE);
+    }
+}
@@ -0,0 +1,132 @@
+package ui;
+
+import service.BookingQueryService;
+import service.CancellationService;
+import service.Flight;
+import service.FlightSearchService;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MyBookings - Lists the logged-in user's bookings and cancels the selected one.
+ */
+public class MyBookings extends JFrame
+{
+    private static final String[] COLUMNS = {"Booking ID", "Airline", "From", "To", "Date", "Departure", "Seat", "Passenger"};
+
+    private final String email;
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0)
+    {
+        @Override
+        public boolean isCellEditable(int row, int column)
+        {
+            return false;
+        }
+    };
+    private final JTable table = new JTable(model);
+    private final JButton cancelBtn = new JButton("Cancel Selected");
+
+    // Constructor
+    public MyBookings(String email)
+    {
+        this.email = email;
+
+        // Frame setup
+        setTitle("My Bookings - " + email);
+        setSize(800, 400);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setLayout(new BorderLayout());
+
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setRowHeight(24);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Button panel
+        JPanel buttons = new JPanel();
+        JButton refreshBtn = new JButton("Refresh");
+        buttons.add(refreshBtn);
+        buttons.add(cancelBtn);
+        add(buttons, BorderLayout.SOUTH);
+
+        // Button actions
+        refreshBtn.addActionListener(_ -> loadBookings());
+        cancelBtn.addActionListener(_ -> cancelSelected());
+
+        loadBookings();
+    }
+
+    /**
+     * Loads the user's bookings and the flights they are on, off the EDT.
+     */
+    private void loadBookings()
+    {
+        SwingAsync.run(() ->
+                {
+                    FlightSearchService flights = FlightSearchService.getInstance();
+                    List<Object[]> rows = new ArrayList<>();
+                    for (BookingQueryService.Booking b : BookingQueryService.getInstance().bookingsOf(email))
+                    {
+                        Flight f = flights.flight(b.flightId());
+                        rows.add(new Object[] {b.bookingId(), f == null ? "?" : f.airlineName(), f == null ? "" : f.source(),
+                                f == null ? "" : f.destination(), f == null ? "" : f.date(), f == null ? "" : f.departureTime(),
+                                b.seat(), b.passengerName()});
+                    }
+                    return rows;
+                },
+                rows ->
+                {
+                    model.setRowCount(0);
+                    for (Object[] row : rows) model.addRow(row);
+                },
+                ex ->
+                {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Could not load bookings.", "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    /**
+     * Cancels the selected booking and removes its row.
+     */
+    private void cancelSelected()
+    {
+        int row = table.getSelectedRow();
+        if (row == -1)
+        {
+            JOptionPane.showMessageDialog(this, "Please select a booking to cancel.");
+            return;
+        }
+
+        int bookingId = (Integer) model.getValueAt(row, 0);
+        int confirm = JOptionPane.showConfirmDialog(this, "Cancel booking " + bookingId + " (seat " + model.getValueAt(row, 6) + ")?",
+                "Confirm Cancel", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) return;
+
+        cancelBtn.setEnabled(false);
+        SwingAsync.run(() -> CancellationService.getInstance().cancel(bookingId, email) != null,
+                cancelled ->
+                {
+                    cancelBtn.setEnabled(true);
+                    for (int i = 0; i < model.getRowCount(); i++)
+                    {
+                        if ((Integer) model.getValueAt(i, 0) == bookingId)
+                        {
+                            model.removeRow(i);
+                            break;
+                        }
+                    }
+                    JOptionPane.showMessageDialog(this, cancelled ? "Booking cancelled successfully." : "Booking no longer exists.");
+                },
+                ex ->
+                {
+                    cancelBtn.setEnabled(true);
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+}
@@ -1,10 +1,14 @@
 package ui;
 
-import db.DBConnection;
+import service.PricingEngine;
+import service.ReservationService;
+import service.SeatConflictException;
+import service.SeatHolds;
+import service.SeatLayout;
+
 import javax.swing.*;
 import java.awt.*;
 import java.math.BigDecimal;
-import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,12 +27,7 @@ public class PaymentPanel extends JPanel
     private final JTextField emailFields = new JTextField();
     private final JLabel lblSummary;
     private final JPanel form;
-
-    // Pricing surcharges
-    private static final int BUSINESS_SURCHARGE = 8000;
-    private static final int WINDOW_SURCHARGE = 250;
-    private static final int AISLE_SURCHARGE = 200;
-    private static final int MIDDLE_SURCHARGE = 150;
+    private final JButton btnPay;
 
     // Constructor
     public PaymentPanel(BookingState state)
@@ -70,7 +69,7 @@ public class PaymentPanel extends JPanel
         // Bottom navigation buttons
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton btnBack = new JButton("Back to Seats");
-        JButton btnPay = new JButton("Confirm & Pay (Simulated)");
+        btnPay = new JButton("Confirm & Pay (Simulated)");
         bottom.add(btnBack);
         bottom.add(btnPay);
         bottom.setOpaque(false);
@@ -140,44 +139,38 @@ public class PaymentPanel extends JPanel
         sb.append("Date: ").append(state.flightDate).append("<br>");
         sb.append("Selected seats: ").append(state.selectedSeats.toString()).append("<br><br>");
 
-        BigDecimal total = BigDecimal.ZERO;
-        List<String> seats = new ArrayList<>(state.selectedSeats);
+        // Fares come from the flight's compiled fare table
+        PricingEngine.FareTable table = PricingEngine.getInstance().fares(state.flightId, state.price);
+        int[] fares = table.current();
+        long total = 0;
 
-        for (String s : seats)
+        for (String s : state.selectedSeats)
         {
-            int row = Integer.parseInt(s.replaceAll("[^0-9]", ""));
-            char col = s.replaceAll("[0-9]","").charAt(0);
-            int seatPrice = state.price.intValue();
-
-            // Business class surcharge
-            if (row <= 5) seatPrice = BUSINESS_SURCHARGE;
-
-            // Column-based surcharges
-           seatPrice += switch (col)
-           {
-               case 'A', 'F' -> WINDOW_SURCHARGE;
-               case 'C', 'D' -> AISLE_SURCHARGE;
-               case 'B', 'E' -> MIDDLE_SURCHARGE;
-               default -> 0;
-           };
-
-            total = total.add(BigDecimal.valueOf(seatPrice));
+            int idx = table.layout().indexOf(s);
+            if (idx < 0)
+            {
+                // Selected before the seat layout changed; payment sends the user back to choose again
+                sb.append(s).append(": no longer on this flight<br>");
+                continue;
+            }
+            int seatPrice = fares[idx];
+            total += seatPrice;
             sb.append(s).append(": ₹").append(seatPrice).append("<br>");
         }
 
-        state.totalPrice = total;
+        state.totalPrice = BigDecimal.valueOf(total);
         sb.append("<br><b>Total: ₹").append(total).append("</b></html>");
         lblSummary.setText(sb.toString());
     }
 
     /**
-     * Simulates payment and inserts booking records into the database.
-     * Includes seat availability check and rollback on failure.
+     * Simulates payment and books all selected seats in one batched reservation.
+     * Sends the user back to seat selection if any seat was taken in the meantime.
      */
     private void doPayment()
     {
-        List<String> names = new ArrayList<>();
-        List<String> ages = new ArrayList<>();
+        List<String> seats = new ArrayList<>(state.selectedSeats);
+        List<ReservationService.SeatRequest> requests = new ArrayList<>();
         String email = emailFields.getText().trim();
 
         // Validate passenger input
@@ -192,8 +185,15 @@ public class PaymentPanel extends JPanel
                 return;
             }
 
-            names.add(name);
-            ages.add(age);
+            try
+            {
+                requests.add(new ReservationService.SeatRequest(seats.get(i), name, Integer.parseInt(age)));
+            }
+            catch (NumberFormatException ex)
+            {
+                JOptionPane.showMessageDialog(this, "Invalid age for seat " + seats.get(i) + ".");
+                return;
+            }
         }
 
         if (email.isEmpty())
@@ -208,107 +208,54 @@ public class PaymentPanel extends JPanel
             return;
         }
 
+        SeatLayout layout = PricingEngine.getInstance().fares(state.flightId, state.price).layout();
+        List<String> unknown = seats.stream().filter(s -> layout.indexOf(s) < 0).toList();
+        if (!unknown.isEmpty())
+        {
+            JOptionPane.showMessageDialog(this, "Seat " + String.join(", ", unknown) + " is no longer on this flight. Please select again.");
+            SeatHolds.getInstance().releaseAll(state);
+            state.selectedSeats.clear();
+            state.showCard("SEAT");
+            return;
+        }
+
         int c = JOptionPane.showConfirmDialog(this, "Simulate payment now?", "Payment", JOptionPane.YES_NO_OPTION);
         if (c != JOptionPane.YES_OPTION) return;
 
-        try (Connection conn = DBConnection.getConnection())
-        {
-            conn.setAutoCommit(false);
-            try
-            {
-                List<Integer> generatedIds = new ArrayList<>();
-                List<String> seats = new ArrayList<>(state.selectedSeats);
-
-                for (int i = 0; i < state.selectedSeats.size(); i++)
+        // Reserve off the EDT; the button stays disabled until the outcome is known
+        int flightId = state.flightId;
+        btnPay.setEnabled(false);
+        SwingAsync.run(() -> ReservationService.getInstance().reserve(flightId, email, requests, state),
+                generatedIds ->
                 {
-                    String seat = seats.get(i);
-                    String name = names.get(i);
-                    String age = ages.get(i);
-
-                    // Check if seat is already booked
-                    PreparedStatement chk = conn.prepareStatement("SELECT COUNT(*) FROM bookings WHERE flight_id=? AND seat_number=?");
-                    chk.setInt(1, state.flightId);
-                    chk.setString(2, seat);
-                    ResultSet rs = chk.executeQuery();
-
-                    if (rs.next() && rs.getInt(1) > 0)
+                    btnPay.setEnabled(true);
+
+                    // Update state
+                    state.passengerName = requests.getFirst().passengerName();
+                    state.passengerEmail = email;
+                    state.bookingIds.clear();
+                    state.bookingIds.addAll(generatedIds);
+
+                    JOptionPane.showMessageDialog(this, state.bookingIds.isEmpty()
+                            ? "Booking successful! Booking IDs are assigned shortly."
+                            : "Booking successful! Booking IDs: " + state.bookingIds);
+                    state.showCard("CONF");
+                },
+                ex ->
+                {
+                    btnPay.setEnabled(true);
+                    if (ex instanceof SeatConflictException conflict)
                     {
-                        conn.rollback();
-                        JOptionPane.showMessageDialog(this, "Seat " + seat + " was just booked. Please select different seats.");
-                        reloadBookedSeats();
+                        JOptionPane.showMessageDialog(this, "Seat " + String.join(", ", conflict.getSeats()) + " was just booked. Please select different seats.");
+                        SeatHolds.getInstance().releaseAll(state);
+                        state.selectedSeats.clear();
                         state.showCard("SEAT");
-                        return;
                     }
-
-                    // Insert booking
-                    PreparedStatement ins = conn.prepareStatement(
-                            "INSERT INTO bookings (flight_id, passenger_name, age, email, seat_number, payment_status) VALUES (?,?,?,?,?,?)",
-                            Statement.RETURN_GENERATED_KEYS
-                    );
-                    ins.setInt(1, state.flightId);
-                    ins.setString(2, name);
-                    ins.setInt(3, Integer.parseInt(age));
-                    ins.setString(4, email);
-                    ins.setString(5, seat);
-                    ins.setString(6, "PAID");
-
-                    int affected = ins.executeUpdate();
-                    if (affected == 0)
+                    else
                     {
-                        conn.rollback();
-                        throw new SQLException("Insert failed for " + seat);
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(this, "Booking failed: " + ex.getMessage());
                     }
-
-                    ResultSet k = ins.getGeneratedKeys();
-                    if (k.next()) generatedIds.add(k.getInt(1));
-                }
-
-                conn.commit();
-
-                // Update state
-                state.passengerName = names.getFirst();
-                state.passengerEmail = email;
-                state.bookingIds.clear();
-                state.bookingIds.addAll(generatedIds);
-                state.bookedSeats.addAll(state.selectedSeats);
-
-                JOptionPane.showMessageDialog(this, "Booking successful! Booking IDs: " + state.bookingIds);
-                state.showCard("CONF");
-            }
-            catch (SQLException ex)
-            {
-                conn.rollback();
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Booking failed: " + ex.getMessage());
-            }
-            finally
-            {
-                conn.setAutoCommit(true);
-            }
-        }
-        catch (SQLException ex)
-        {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "DB error: " + ex.getMessage());
-        }
-    }
-
-    /**
-     * Reloads booked seats from the database to update local cache.
-     */
-    private void reloadBookedSeats()
-    {
-        state.bookedSeats.clear();
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pst = conn.prepareStatement("SELECT seat_number FROM bookings WHERE flight_id=?"))
-        {
-            pst.setInt(1, state.flightId);
-            ResultSet rs = pst.executeQuery();
-            while (rs.next()) state.bookedSeats.add(rs.getString("seat_number"));
-        }
-        catch (SQLException ex)
-        {
-            ex.printStackTrace();
-        }
+                });
     }
 }
@@ -1,6 +1,7 @@
 package ui;
 
-import db.DBConnection;
+import service.Flight;
+import service.FlightSearchService;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -10,6 +11,8 @@ import java.awt.event.MouseEvent;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SearchPanel - Allows users to search for flights by source, destination, and date.
@@ -26,6 +29,9 @@ public class SearchPanel extends JPanel
     private final JTable table;
     private final DefaultTableModel model;
 
+    // Search currently running in the background, cancelled when a new one starts
+    private CompletableFuture<?> pendingSearch;
+
     // Constructor
     public SearchPanel(BookingApp app, BookingState state)
     {
@@ -86,6 +92,7 @@ public class SearchPanel extends JPanel
             txtSource.setSelectedItem(null);
             txtDestination.setSelectedItem(null);
             txtDate.setText(LocalDate.now().toString());
+            if (pendingSearch != null) pendingSearch.cancel(true);
             model.setRowCount(0);
         });
 
@@ -108,11 +115,21 @@ public class SearchPanel extends JPanel
             state.arrivalTime = Time.valueOf(model.getValueAt(r, 6).toString());
             state.price = new BigDecimal(model.getValueAt(r, 7).toString());
 
-            // Load booked seats
-            loadBookedSeats(state.flightId);
-
-            // Navigate to seat selection
-            app.showSeatSelection();
+            // Warm the seat map off the EDT (loaded from the database once per flight), then navigate
+            int flightId = state.flightId;
+            btnBook.setEnabled(false);
+            SwingAsync.run(() -> FlightSearchService.getInstance().seats(flightId),
+                    _ ->
+                    {
+                        btnBook.setEnabled(true);
+                        app.showSeatSelection();
+                    },
+                    ex ->
+                    {
+                        btnBook.setEnabled(true);
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(this, "Could not load seats: " + ex.getMessage());
+                    });
         });
 
         // Double-click to book
@@ -163,136 +180,24 @@ public class SearchPanel extends JPanel
 
         model.setRowCount(0);// Clear previous results
 
-        // Try multiple query formats for compatibility
-        try (Connection con = DBConnection.getConnection())
-        {
-            PreparedStatement pst;
-
-            String[] candidates = new String[]
-                    {
-                            "Select * from flights where source = ? and destination = ? and flight_date = ?",
-                            "Select * from flights where source = ? and destination = ? and date = ?",
-                            "Select * from flights where source = ? and destination = ? and DATE(departure_time) = ?"
-                    };
-
-            SQLException lastEx = null;
-
-            for (String q: candidates)
-            {
-                try
+        // Only the latest search may update the table
+        if (pendingSearch != null) pendingSearch.cancel(true);
+        pendingSearch = SwingAsync.run(() -> FlightSearchService.getInstance().search(src, dest, sqlDate.toLocalDate()),
+                flights ->
                 {
-                    pst = con.prepareStatement(q);
-                    pst.setString(1, src);
-                    pst.setString(2, dest);
-                    pst.setDate(3, sqlDate);
-                    ResultSet r = pst.executeQuery();
-
-                    while (r.next())
+                    for (Flight f : flights)
                     {
-                        int fid = r.getInt("flight_id");
-                        String airline = r.getString("airline_name");
-                        String source = r.getString("source");
-                        String destination = r.getString("destination");
-
-                        Date fdate = null;
-                        try
-                        {
-                            fdate = r.getDate("flight_date");
-                        }
-                        catch (Exception _) {}
-                        if (fdate == null)
-                        {
-                            try
-                            {
-                                fdate = r.getDate("date");
-                            }
-                            catch (Exception _) {}
-                        }
-                        if (fdate == null)
-                        {
-                            Time dep = r.getTime("departure_time");
-                            if (dep != null)
-                            {
-                                fdate = new Date(dep.getTime());
-                            }
-                        }
-
-                        Time depTs = null;
-                        Time arrTs = null;
-                        try
-                        {
-                            depTs = r.getTime("departure_time");
-                        }
-                        catch (Exception _) {}
-                        try
-                        {
-                            arrTs = r.getTime("arrival_time");
-                        }
-                        catch (Exception _) {}
-                        if (depTs == null)
-                        {
-                            depTs = new Time(sqlDate.getTime());
-                        }
-                        if (arrTs == null)
-                        {
-                            arrTs = new Time(sqlDate.getTime());
-                        }
-
-                        BigDecimal price = r.getBigDecimal("price");
-
-                        model.addRow(new Object[]
-                        {
-                            fid, airline, source, destination,
-                            (fdate != null ? fdate.toString():sqlDate.toString()),
-                            depTs.toString(), arrTs.toString(),
-                            price.toString()
-                        });
+                        model.addRow(f.toRow());
                     }
-                    break; // Exit loop if successful
-                }
-                catch (SQLException ex)
-                {
-                    lastEx = ex;
-                }
-            }
-
-            if (model.getRowCount() == 0)
-            {
-                // It's ok to be zero results; show info
-                if (lastEx != null)
+                    if (model.getRowCount() == 0)
+                    {
+                        JOptionPane.showMessageDialog(this, "No flights found for given criteria.");
+                    }
+                },
+                ex ->
                 {
-                    // but also print error (for dev)
-                    System.out.println("Search query exceptions: " + lastEx.getMessage());
-                }
-                JOptionPane.showMessageDialog(this, "No flights found for given criteria.");
-            }
-        }
-        catch (SQLException ex)
-        {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Database error: " + ex.getMessage());
-        }
-    }
-
-    /**
-     * Loads booked seats for the selected flight into the shared state.
-     */
-    private void loadBookedSeats(int flightId)
-    {
-        state.bookedSeats.clear();
-        try (Connection con = DBConnection.getConnection())
-        {
-            PreparedStatement pst = con.prepareStatement("Select seat_number from bookings where flight_id = ?");
-            pst.setInt(1, flightId);
-            ResultSet rs = pst.executeQuery();
-            while (rs.next())
-            {
-                state.bookedSeats.add(rs.getString("seat_number"));
-            }
-        }
-        catch (SQLException ex)
-        {
-            ex.printStackTrace();
-        }
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Database error: " + ex.getMessage());
+                });
     }
 }
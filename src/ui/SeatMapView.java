@@ -0,0 +1,241 @@
+package ui;
+
+import service.SeatLayout;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * SeatMapView - Custom-painted seat map drawn from a per-seat state array.
+ * Cell positions and labels are computed once per {@link SeatLayout}; cell backgrounds are
+ * pre-rendered tiles. Clicks are hit-tested arithmetically and a state change repaints
+ * only its own cell, so showing another flight with the same layout allocates nothing.
+ */
+final class SeatMapView extends JComponent
+{
+    // Seat states
+    static final byte AVAILABLE = 0;
+    static final byte SELECTED = 1;
+    static final byte UNAVAILABLE = 2;
+
+    // Cell metrics (seat 70x40 with 6px spacing, 20px aisle)
+    private static final int SEAT_W = 70, SEAT_H = 40, GAP = 6, AISLE = 20 + 2 * GAP;
+    private static final int PITCH_X = SEAT_W + 2 * GAP, PITCH_Y = SEAT_H + 2 * GAP;
+
+    // Shared paint resources
+    private static final Color AVAILABLE_COLOR = new Color(120, 200, 120);
+    private static final Color SELECTED_COLOR = new Color(255, 220, 120);
+    private static final Color UNAVAILABLE_COLOR = new Color(220, 80, 80);
+    private static final Color BUSINESS_BORDER = new Color(60, 120, 200);
+    private static final Font SEAT_FONT = new Font("SansSerif", Font.PLAIN, 12);
+
+    /**
+     * Geometry - Positions, labels and state array of one layout.
+     */
+    private static final class Geometry
+    {
+        final SeatLayout layout;
+        final int[] colX;
+        final String[] labels;
+        final byte[] states;
+        final Dimension size;
+
+        Geometry(SeatLayout layout)
+        {
+            this.layout = layout;
+            colX = new int[layout.columns()];
+            int x = 0;
+            for (int c = 0; c < colX.length; c++)
+            {
+                if (layout.hasAisleBefore(c)) x += AISLE;
+                colX[c] = x + GAP;
+                x += PITCH_X;
+            }
+            labels = new String[layout.capacity()];
+            for (int i = 0; i < labels.length; i++) labels[i] = layout.label(i);
+            states = new byte[layout.capacity()];
+            size = new Dimension(x, layout.rows() * PITCH_Y);
+        }
+    }
+
+    private final Map<SeatLayout, Geometry> geometries = new IdentityHashMap<>();
+    private final BufferedImage[] tiles = new BufferedImage[6]; // state x business, rendered on first paint
+    private final IntConsumer onSeatClicked;
+    private Geometry geo;
+    private int[] fares; // per-seat fares shown in tooltips, or null
+
+    /**
+     * @param onSeatClicked Receives the index of a clicked seat that is not unavailable
+     */
+    SeatMapView(IntConsumer onSeatClicked)
+    {
+        this.onSeatClicked = onSeatClicked;
+        setFont(SEAT_FONT);
+        setToolTipText(""); // tooltips come from getToolTipText(MouseEvent)
+
+        addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int idx = seatAt(e.getX(), e.getY());
+                if (idx >= 0 && geo.states[idx] != UNAVAILABLE) onSeatClicked.accept(idx);
+            }
+        });
+    }
+
+    /**
+     * Switches to a layout. Geometry is built the first time a layout is shown.
+     */
+    void setSeatLayout(SeatLayout layout)
+    {
+        if (geo != null && geo.layout == layout) return;
+        Dimension before = geo == null ? null : geo.size;
+        geo = geometries.computeIfAbsent(layout, Geometry::new);
+        if (!geo.size.equals(before)) revalidate();
+        repaint();
+    }
+
+    byte state(int index)
+    {
+        return geo.states[index];
+    }
+
+    String label(int index)
+    {
+        return geo.labels[index];
+    }
+
+    /**
+     * Sets the fare table shown in seat tooltips. The array is not copied.
+     */
+    void setFares(int[] fares)
+    {
+        this.fares = fares;
+    }
+
+    /**
+     * Sets the state of one seat and repaints just that cell if it changed.
+     */
+    void setState(int index, byte state)
+    {
+        if (geo.states[index] == state) return;
+        geo.states[index] = state;
+        int x = originX() + geo.colX[geo.layout.colOf(index)];
+        int y = (geo.layout.rowOf(index) - 1) * PITCH_Y + GAP;
+        repaint(x, y, SEAT_W, SEAT_H);
+    }
+
+    /**
+     * Returns the seat index under a point, or -1.
+     */
+    private int seatAt(int px, int py)
+    {
+        if (geo == null) return -1;
+        int row = py / PITCH_Y;
+        int ry = py - row * PITCH_Y;
+        if (row >= geo.layout.rows() || ry < GAP || ry >= GAP + SEAT_H) return -1;
+
+        int x = px - originX();
+        for (int c = 0; c < geo.colX.length; c++)
+        {
+            if (x >= geo.colX[c] && x < geo.colX[c] + SEAT_W) return geo.layout.index(row + 1, c);
+        }
+        return -1;
+    }
+
+    /**
+     * The grid is centered horizontally when the component is wider than the layout.
+     */
+    private int originX()
+    {
+        return Math.max(0, (getWidth() - geo.size.width) / 2);
+    }
+
+    @Override
+    public Dimension getPreferredSize()
+    {
+        return geo == null ? new Dimension(0, 0) : new Dimension(geo.size);
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e)
+    {
+        int idx = seatAt(e.getX(), e.getY());
+        if (idx < 0) return null;
+        if (geo.states[idx] == UNAVAILABLE) return "Booked";
+        return fares == null ? geo.labels[idx] : geo.labels[idx] + " - ₹" + fares[idx];
+    }
+
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        if (geo == null) return;
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        // Only rows intersecting the clip are painted
+        int firstRow = Math.max(0, clip.y / PITCH_Y);
+        int lastRow = Math.min(geo.layout.rows() - 1, (clip.y + clip.height) / PITCH_Y);
+        int ox = originX();
+
+        g.setFont(SEAT_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int textY = GAP + (SEAT_H - fm.getHeight()) / 2 + fm.getAscent();
+
+        for (int r = firstRow; r <= lastRow; r++)
+        {
+            boolean business = geo.layout.isBusiness(r + 1);
+            int y = r * PITCH_Y;
+            for (int c = 0; c < geo.colX.length; c++)
+            {
+                int x = ox + geo.colX[c];
+                if (x + SEAT_W < clip.x || x > clip.x + clip.width) continue;
+
+                int idx = geo.layout.index(r + 1, c);
+                byte state = geo.states[idx];
+                g.drawImage(tile(state, business), x, y + GAP, null);
+
+                String label = geo.labels[idx];
+                g.setColor(state == UNAVAILABLE ? Color.WHITE : Color.BLACK);
+                g.drawString(label, x + (SEAT_W - fm.stringWidth(label)) / 2, y + textY);
+            }
+        }
+    }
+
+    /**
+     * Returns the pre-rendered background of a cell, rendering it on first use.
+     */
+    private BufferedImage tile(byte state, boolean business)
+    {
+        int i = state * 2 + (business ? 1 : 0);
+        BufferedImage tile = tiles[i];
+        if (tile != null) return tile;
+
+        tile = new BufferedImage(SEAT_W, SEAT_H, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = tile.createGraphics();
+        g.setColor(switch (state)
+        {
+            case SELECTED -> SELECTED_COLOR;
+            case UNAVAILABLE -> UNAVAILABLE_COLOR;
+            default -> AVAILABLE_COLOR;
+        });
+        g.fillRect(0, 0, SEAT_W, SEAT_H);
+
+        // Business class seats get a heavier blue border
+        int border = business ? 2 : 1;
+        g.setColor(business ? BUSINESS_BORDER : Color.DARK_GRAY);
+        for (int k = 0; k < border; k++) g.drawRect(k, k, SEAT_W - 1 - 2 * k, SEAT_H - 1 - 2 * k);
+        g.dispose();
+
+        tiles[i] = tile;
+        return tile;
+    }
+}
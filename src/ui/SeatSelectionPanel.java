@@ -1,14 +1,19 @@
 package ui;
 
+import service.PricingEngine;
+import service.SeatCluster;
+import service.SeatHolds;
+import service.SeatInventory;
+import service.SeatLayout;
+
 import javax.swing.*;
 
 import java.awt.*;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * SeatSelectionPanel - Allows users to select seats for a flight.
- * Displays a grid of seats with visual indicators and pricing info.
+ * Displays a seat map with visual indicators and pricing info. Seats held here are held
+ * in this process only (see {@link SeatHolds}).
  */
 public class SeatSelectionPanel extends JPanel
 {
@@ -16,13 +21,10 @@ public class SeatSelectionPanel extends JPanel
     private final BookingState state;
 
     // UI components
-    private final Map<String, JToggleButton> seatButtons = new HashMap<>();
-    private final JPanel gridPanel;
+    private final SeatMapView seatMap;
+    private final JLabel lblPricing;
     private final JLabel lblInfo;
 
-    // Seat layout configuration
-    private final String[] cols = {"A", "B", "C", "D", "E", "F"};
-
     // Constructor
     public SeatSelectionPanel(BookingApp app, BookingState state)
     {
@@ -34,9 +36,28 @@ public class SeatSelectionPanel extends JPanel
         title.setFont(new Font("SansSerif", Font.BOLD, 20));
         add(title, BorderLayout.NORTH);
 
-        // Seat grid panel
-        gridPanel = new JPanel(new GridBagLayout());
-        add(new JScrollPane(gridPanel), BorderLayout.CENTER);
+        // Seat map, built once and repainted per flight
+        seatMap = new SeatMapView(this::toggleSeat);
+        JScrollPane scroll = new JScrollPane(seatMap);
+        scroll.getVerticalScrollBar().setUnitIncrement(16);
+        add(scroll, BorderLayout.CENTER);
+
+        // Seat status legend and pricing info (built once; pricing text changes per flight)
+        JPanel statusLegend = new JPanel();
+        statusLegend.setLayout(new BoxLayout(statusLegend, BoxLayout.Y_AXIS));
+        statusLegend.setBorder(BorderFactory.createEmptyBorder(10, 30, 10, 10));
+
+        statusLegend.add(legendLabel("Available", new Color(120,200,120)));
+        statusLegend.add(Box.createVerticalStrut(10));
+        statusLegend.add(legendLabel("Booked", new Color(220,80,80)));
+        statusLegend.add(Box.createVerticalStrut(10));
+        statusLegend.add(legendLabel("Selected", new Color(255,220,120)));
+        statusLegend.add(Box.createVerticalStrut(20));
+
+        lblPricing = new JLabel();
+        lblPricing.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        statusLegend.add(lblPricing);
+        add(statusLegend, BorderLayout.WEST);
 
         // Bottom panel with navigation buttons
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT, 12, 12));
@@ -51,7 +72,14 @@ public class SeatSelectionPanel extends JPanel
         add(bottom, BorderLayout.SOUTH);
 
         // Navigation actions
-        btnBack.addActionListener(_ -> app.showSearch());
+        btnBack.addActionListener(_ ->
+        {
+            // Give up any seats held for this session
+            SeatHolds.getInstance().releaseAll(state);
+            state.selectedSeats.clear();
+            lblInfo.setText("Selected: 0 seats");
+            app.showSearch();
+        });
         btnNext.addActionListener(_ ->
         {
             if (state.selectedSeats.isEmpty())
@@ -65,7 +93,7 @@ public class SeatSelectionPanel extends JPanel
 
     /**
      * Called when this panel becomes visible.
-     * Rebuilds the seat grid based on current flight and booking state.
+     * Refreshes the seat map for the current flight and booking state.
      */
     public void setVisible(boolean aFlag)
     {
@@ -73,127 +101,105 @@ public class SeatSelectionPanel extends JPanel
         if (aFlag)
         {
             populateSeats();
+            refreshFromOwner();
         }
     }
 
     /**
-     * Populates the seat grid with toggle buttons and visual indicators.
+     * Re-reads the seat map from the seat cluster node that owns the flight, if that is
+     * another process, and repaints it; bookings made through that node are not known here.
+     */
+    private void refreshFromOwner()
+    {
+        int flightId = state.flightId;
+        if (SeatCluster.getInstance().remoteOwner(flightId) == null) return;
+        SwingAsync.run(() -> SeatCluster.getInstance().refreshSeats(flightId),
+                refreshed ->
+                {
+                    if (refreshed && isVisible() && state.flightId == flightId) populateSeats();
+                },
+                Throwable::printStackTrace);
+    }
+
+    /**
+     * Copies the current flight's seat availability into the seat map.
      */
     private void populateSeats()
     {
-        gridPanel.removeAll();
-        seatButtons.clear();
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(6, 6, 6, 6);
+        SeatInventory.FlightSeats seats = SeatInventory.getInstance().seats(state.flightId);
+        SeatLayout layout = seats.layout();
+        seatMap.setSeatLayout(layout);
 
-        int ROWS = 30;
-        for (int r = 1; r <= ROWS; r++)
+        for (int i = 0; i < layout.capacity(); i++)
         {
-            for (int c = 0; c < cols.length; c++)
-            {
-                int gridx = c;
-                if (c >= 3) gridx = c + 1; // Aisle gap
-
-                gbc.gridx = gridx;
-                gbc.gridy = r - 1;
-
-                // Insert aisle gap between C and D
-                if (c == 3)
-                {
-                    GridBagConstraints aisleGBC = new GridBagConstraints();
-                    aisleGBC.gridx = 3;
-                    aisleGBC.gridy = r - 1;
-                    aisleGBC.insets = new Insets(6, 6, 6, 6);
-
-                    JPanel aisleGap = new JPanel();
-                    aisleGap.setPreferredSize(new Dimension(20, 40));
-                    aisleGap.setOpaque(false);
-                    gridPanel.add(aisleGap, aisleGBC);
-                }
-
-                String seat = r + cols[c];
-                JToggleButton btn = getJToggleButton(seat, r);
-                seatButtons.put(seat, btn);
-                gridPanel.add(btn, gbc);
-            }
+            byte s;
+            if (!seats.isAvailable(i, state)) s = SeatMapView.UNAVAILABLE; // booked or held by another user
+            else if (state.selectedSeats.contains(seatMap.label(i))) s = SeatMapView.SELECTED;
+            else s = SeatMapView.AVAILABLE;
+            seatMap.setState(i, s);
         }
 
-        // Seat status legend and pricing info
-        JPanel statusLegend = new JPanel();
-        statusLegend.setLayout(new BoxLayout(statusLegend, BoxLayout.Y_AXIS));
-        statusLegend.setBorder(BorderFactory.createEmptyBorder(10, 30, 10, 10));
-
-        statusLegend.add(legendLabel("Available", new Color(120,200,120)));
-        statusLegend.add(Box.createVerticalStrut(10));
-        statusLegend.add(legendLabel("Booked", new Color(220,80,80)));
-        statusLegend.add(Box.createVerticalStrut(10));
-        statusLegend.add(legendLabel("Selected", new Color(255,220,120)));
-        statusLegend.add(Box.createVerticalStrut(20));
-
-        statusLegend.add(new JLabel(
-                "<html> " + "\n" +
-                        "<br><b>Seat Pricing:</b><br>" + "\n" +
-                        "Base Price: ₹" + state.price.intValue() + "<br>" + "\n" +
-                        "Business Class (Rows 1–5): ₹8000 <br>" + "\n" +
-                        "Window Seat (A/F): +₹250 <br>" + "\n" +
-                        "Middle Seat (B/E): +₹150 <br> " + "\n" +
-                        "Aisle Seat (C/D): +₹200 " + "\n" +
-                        "</html>")).setFont(new Font("SansSerif", Font.PLAIN, 14));
-
-        add(statusLegend, BorderLayout.WEST);
-
-        revalidate();
-        repaint();
+        PricingEngine.FareTable fares = PricingEngine.getInstance().fares(state.flightId, state.price);
+        seatMap.setFares(fares.current());
+        lblPricing.setText(pricingText(layout));
+        lblInfo.setText("Selected: " + state.selectedSeats.size() + " seats");
     }
 
     /**
-     * Creates a toggle button for a seat with appropriate styling and behavior.
+     * Describes the fare rules of the current flight for the legend.
      */
-    private JToggleButton getJToggleButton(String seat, int row)
+    private String pricingText(SeatLayout layout)
     {
-        JToggleButton btn = new JToggleButton(seat);
-        btn.setPreferredSize(new Dimension(70, 40));
-        btn.setFont(new Font("SansSerif", Font.PLAIN, 12));
-        btn.setOpaque(true);
-
-        if (state.bookedSeats.contains(seat))
+        PricingEngine.FareRules rules = PricingEngine.getInstance().rules();
+        StringBuilder sb = new StringBuilder("<html><br><b>Seat Pricing:</b><br>");
+        sb.append("Base Price: ₹").append(state.price.intValue()).append("<br>");
+        if (layout.businessRows() > 0)
         {
-            // Booked seat
-            btn.setEnabled(false);
-            btn.setBackground(new Color(220, 80, 80));
-            btn.setForeground(Color.WHITE);
-            btn.setToolTipText("Booked");
+            sb.append("Business Class (Rows 1–").append(layout.businessRows()).append("): ₹").append(rules.businessFare()).append(" <br>");
         }
-        else
+        for (PricingEngine.SeatPosition position : PricingEngine.SeatPosition.values())
         {
-            // Available seat
-            btn.setBackground(new Color(120, 200, 120));
-            btn.addActionListener(_ ->
+            StringBuilder letters = new StringBuilder();
+            for (int c = 0; c < layout.columns(); c++)
             {
-                if (btn.isSelected())
-                {
-                    btn.setBackground(new Color(255, 220, 120));
-                    state.selectedSeats.add(seat);
-                }
-                else
-                {
-                    btn.setBackground(new Color(120, 200, 120));
-                    state.selectedSeats.remove(seat);
-                }
-                lblInfo.setText("Selected: " + state.selectedSeats.size() + " seats");
-            });
+                if (PricingEngine.position(layout, c) != position) continue;
+                if (!letters.isEmpty()) letters.append('/');
+                letters.append(layout.letter(c));
+            }
+            if (letters.isEmpty()) continue;
+
+            String name = position.name().charAt(0) + position.name().substring(1).toLowerCase();
+            sb.append(name).append(" Seat (").append(letters).append("): +₹").append(rules.surcharge(position)).append(" <br>");
         }
+        if (rules.loadThresholds().length > 0) sb.append("<i>Fares rise as the flight fills.</i>");
+        return sb.append("</html>").toString();
+    }
 
-        // Business class visual styling
-        if (row <= 5)
+    /**
+     * Handles a click on a seat that is not unavailable.
+     * Selecting a seat places a temporary hold on it; deselecting releases the hold.
+     */
+    private void toggleSeat(int index)
+    {
+        String seat = seatMap.label(index);
+        if (seatMap.state(index) == SeatMapView.SELECTED)
+        {
+            SeatHolds.getInstance().release(state.flightId, seat, state);
+            seatMap.setState(index, SeatMapView.AVAILABLE);
+            state.selectedSeats.remove(seat);
+        }
+        else if (SeatHolds.getInstance().hold(state.flightId, seat, state))
         {
-            btn.setBorder(BorderFactory.createLineBorder(new Color(60,120,200), 2));
+            seatMap.setState(index, SeatMapView.SELECTED);
+            state.selectedSeats.add(seat);
         }
         else
         {
-            btn.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 1));
+            seatMap.setState(index, SeatMapView.UNAVAILABLE);
+            JOptionPane.showMessageDialog(this, "Seat " + seat + " is no longer available.");
+            return;
         }
-        return btn;
+        lblInfo.setText("Selected: " + state.selectedSeats.size() + " seats");
     }
 
     /**
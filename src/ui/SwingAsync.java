@@ -0,0 +1,41 @@
+package ui;
+
+import service.AsyncDb;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * SwingAsync - Runs database work off the Event Dispatch Thread and hands the outcome
+ * back to the EDT. Callbacks are skipped if the returned future was cancelled.
+ */
+final class SwingAsync
+{
+    private SwingAsync() {}
+
+    /**
+     * Runs work on a virtual thread, then calls onSuccess or onError on the EDT.
+     * @return Future that can be cancelled to abandon the work and its callbacks
+     */
+    static <T> CompletableFuture<T> run(AsyncDb.Task<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError)
+    {
+        CompletableFuture<T> future = AsyncDb.supply(work);
+        future.whenComplete((value, ex) -> SwingUtilities.invokeLater(() ->
+        {
+            if (future.isCancelled()) return;
+            if (ex == null)
+            {
+                onSuccess.accept(value);
+            }
+            else
+            {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (!(cause instanceof CancellationException)) onError.accept(cause);
+            }
+        }));
+        return future;
+    }
+}
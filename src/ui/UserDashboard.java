@@ -5,16 +5,16 @@ import java.awt.*;
 
 /**
  * UserDashboard - Main screen for logged-in users.
- * Provides options to book or cancel flights.
+ * Provides options to book flights, list the user's bookings, or cancel by booking ID.
  */
 public class UserDashboard extends JFrame
 {
     // Constructor
-    public UserDashboard(String name)
+    public UserDashboard(String name, String email)
     {
         // Frame setup
         setTitle("User Dashboard -Name: " + name);
-        setSize(400, 250);
+        setSize(400, 300);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout());
@@ -30,20 +30,23 @@ public class UserDashboard extends JFrame
         backgroundPanel.add(titleLabel, BorderLayout.NORTH);
 
         // Button panel
-        JPanel btnPanel = new JPanel(new GridLayout(2, 1, 10, 10));
+        JPanel btnPanel = new JPanel(new GridLayout(3, 1, 10, 10));
         btnPanel.setBorder(BorderFactory.createEmptyBorder(30, 50, 30, 50));
         btnPanel.setOpaque(false);
 
         // Buttons
         JButton bookFlight = new JButton("Book Flight");
+        JButton myBookings = new JButton("My Bookings");
         JButton cancelFlight = new JButton("Cancel Flight");
 
         btnPanel.add(bookFlight);
+        btnPanel.add(myBookings);
         btnPanel.add(cancelFlight);
         backgroundPanel.add(btnPanel, BorderLayout.CENTER);
 
         // Button actions
         bookFlight.addActionListener(_ -> new BookingApp().setVisible(true));
+        myBookings.addActionListener(_ -> new MyBookings(email).setVisible(true));
         cancelFlight.addActionListener(_ -> new CancelBooking().setVisible(true));
     }
 }
@@ -1,13 +1,10 @@
 package ui;
 
-import db.DBConnection;
+import service.AuthService;
+import service.Bootstrap;
 
 import javax.swing.*;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 
 /**
  * UserLoginForm - UI for user login and registration navigation.
@@ -59,30 +56,28 @@ public class UserLoginForm extends JFrame
             String email = emailField.getText().trim();
             String pass = new String(passField.getPassword());
 
-            try (Connection con = DBConnection.getConnection())
-            {
-                String q = "select * from users where email = ? and password = ?";
-                PreparedStatement stm = con.prepareStatement(q);
-                stm.setString(1, email);
-                stm.setString(2, pass);
-
-                ResultSet r = stm.executeQuery();
-                if (r.next())
-                {
-                    JOptionPane.showMessageDialog(this, "Login Successful!");
-                    dispose();
-                    new UserDashboard(r.getString("name")).setVisible(true);
-                }
-                else
-                {
-                    JOptionPane.showMessageDialog(this, "Invalid credentials.");
-                }
-            }
-            catch (SQLException ex)
-            {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Login failed.");
-            }
+            loginBtn.setEnabled(false);
+            SwingAsync.run(() -> AuthService.getInstance().login(email, pass),
+                    name ->
+                    {
+                        loginBtn.setEnabled(true);
+                        if (name != null)
+                        {
+                            JOptionPane.showMessageDialog(this, "Login Successful!");
+                            dispose();
+                            new UserDashboard(name, email).setVisible(true);
+                        }
+                        else
+                        {
+                            JOptionPane.showMessageDialog(this, "Invalid credentials.");
+                        }
+                    },
+                    ex ->
+                    {
+                        loginBtn.setEnabled(true);
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(this, "Login failed.");
+                    });
         });
 
         // Register button action
@@ -99,6 +94,8 @@ public class UserLoginForm extends JFrame
 
     public static void main(String[] args)
     {
+        EdtMonitor.install();
+        Bootstrap.start();
         new UserLoginForm().setVisible(true);
     }
 }
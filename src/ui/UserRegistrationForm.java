@@ -1,11 +1,9 @@
 package ui;
 
-import db.DBConnection;
+import service.AuthService;
+
 import javax.swing.*;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
 
 public class UserRegistrationForm extends JFrame
@@ -45,28 +43,32 @@ public class UserRegistrationForm extends JFrame
                 return;
             }
 
-            try (Connection con = DBConnection.getConnection())
-            {
-                String q = "insert into users(name, email, password) values(?, ?, ?)";
-                PreparedStatement stm = con.prepareStatement(q);
-                stm.setString(1, name);
-                stm.setString(2, email);
-                stm.setString(3, pass);
-
-                stm.executeUpdate();
-                JOptionPane.showMessageDialog(this, "Registration Successful!");
-                dispose();
-                new UserLoginForm().setVisible(true);
-            }
-            catch (SQLIntegrityConstraintViolationException ex)
-            {
-                JOptionPane.showMessageDialog(this, "Email already registered");
-            }
-            catch (SQLException ex)
-            {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Registration failed.");
-            }
+            // Hashing the password takes a while; keep it off the EDT
+            registerBtn.setEnabled(false);
+            SwingAsync.run(() ->
+                    {
+                        AuthService.getInstance().register(name, email, pass);
+                        return null;
+                    },
+                    _ ->
+                    {
+                        JOptionPane.showMessageDialog(this, "Registration Successful!");
+                        dispose();
+                        new UserLoginForm().setVisible(true);
+                    },
+                    ex ->
+                    {
+                        registerBtn.setEnabled(true);
+                        if (ex instanceof SQLIntegrityConstraintViolationException)
+                        {
+                            JOptionPane.showMessageDialog(this, "Email already registered");
+                        }
+                        else
+                        {
+                            ex.printStackTrace();
+                            JOptionPane.showMessageDialog(this, "Registration failed.");
+                        }
+                    });
         });
 
         backBtn.addActionListener(_ ->
@@ -1,24 +1,21 @@
 package ui;
 
-import db.DBConnection;
-
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.Vector;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 /**
  * ViewBookings - Displays all bookings for a specific flight.
  * Shows passenger details, seat info, payment status, and booking time.
+ * Rows are streamed in by {@link BookingTableModel}, so the window opens at once for any
+ * number of bookings; the filter row narrows the query on the database.
  */
 public class ViewBookings extends JFrame
 {
     // Table model for bookings
-    private final DefaultTableModel tableModel;
+    private final BookingTableModel tableModel;
+    private final JLabel statusLabel = new JLabel(" ");
 
     // Constructor
     public ViewBookings(int flightId)
@@ -37,54 +34,82 @@ public class ViewBookings extends JFrame
         // Title label
         JLabel title = new JLabel("Bookings Details", SwingConstants.CENTER);
         title.setFont(new Font("Arial", Font.BOLD, 16));
-        bgPanel.add(title, BorderLayout.NORTH);
 
-        // Table setup
-        tableModel = new DefaultTableModel();
+        // Filter row (column prefixes; applied by the database)
+        JTextField passengerField = new JTextField(10);
+        JTextField emailField = new JTextField(12);
+        JTextField seatField = new JTextField(4);
+        JTextField statusField = new JTextField(6);
+        JButton filterBtn = new JButton("Filter");
+        JPanel filterPanel = new JPanel(new FlowLayout());
+        filterPanel.setOpaque(false);
+        filterPanel.add(new JLabel("Passenger:"));
+        filterPanel.add(passengerField);
+        filterPanel.add(new JLabel("Email:"));
+        filterPanel.add(emailField);
+        filterPanel.add(new JLabel("Seat:"));
+        filterPanel.add(seatField);
+        filterPanel.add(new JLabel("Status:"));
+        filterPanel.add(statusField);
+        filterPanel.add(filterBtn);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.setOpaque(false);
+        northPanel.add(title, BorderLayout.NORTH);
+        northPanel.add(filterPanel, BorderLayout.SOUTH);
+        bgPanel.add(northPanel, BorderLayout.NORTH);
+
+        // Table setup; rows arrive in chunks while the query is still running
+        tableModel = new BookingTableModel(flightId, this::showProgress, e ->
+        {
+            e.printStackTrace();
+            statusLabel.setText("Error loading bookings.");
+            JOptionPane.showMessageDialog(this, "Error loading bookings.", "Error", JOptionPane.ERROR_MESSAGE);
+        });
         JTable bookingsTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(bookingsTable);
         scrollPane.getViewport().setOpaque(false);
         scrollPane.setOpaque(false);
         bgPanel.add(scrollPane, BorderLayout.CENTER);
 
-        // Table columns
-        tableModel.setColumnIdentifiers(new String[]
-                {
-                        "Booking ID", "Passenger Name", "Email", "Seat Number", "Payment Status", "Booking Time"
-                });
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        bgPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        Runnable applyFilter = () -> loadBookingData(new BookingTableModel.Filter(passengerField.getText(), emailField.getText(),
+                seatField.getText(), statusField.getText()));
+        filterBtn.addActionListener(_ -> applyFilter.run());
+        for (JTextField field : new JTextField[] {passengerField, emailField, seatField, statusField})
+        {
+            field.addActionListener(_ -> applyFilter.run());
+        }
+
+        // Stop streaming when the window goes away
+        addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                tableModel.cancel();
+            }
+        });
 
         // Load booking data from database
-        loadBookingData(flightId);
+        loadBookingData(BookingTableModel.Filter.NONE);
     }
 
     /**
-     * Loads booking data for the given flight ID and populates the table.
+     * Streams the bookings matching the filter into the table. The query runs off the EDT.
      */
-    private void loadBookingData(int flightId)
+    private void loadBookingData(BookingTableModel.Filter filter)
     {
-        try (Connection con = DBConnection.getConnection())
-        {
-            String q = "select * from bookings where flight_id = ?";
-            PreparedStatement stm = con.prepareStatement(q);
-            stm.setInt(1, flightId);
-            ResultSet r = stm.executeQuery();
+        statusLabel.setText("Loading bookings...");
+        tableModel.load(filter);
+    }
 
-            while (r.next())
-            {
-                Vector<Object> row = new Vector<>();
-                row.add(r.getInt("booking_id"));
-                row.add(r.getString("passenger_name"));
-                row.add(r.getString("email"));
-                row.add(r.getString("seat_number"));
-                row.add(r.getString("payment_status"));
-                row.add(r.getTimestamp("booking_time"));
-                tableModel.addRow(row);
-            }
-        }
-        catch (SQLException e)
-        {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading bookings.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    private void showProgress(BookingTableModel.Progress p)
+    {
+        if (!p.done()) statusLabel.setText(String.format("Loading bookings... %,d so far", p.rows()));
+        else if (p.truncated()) statusLabel.setText(String.format("Showing the first %,d bookings; use the filters to narrow the list.", p.rows()));
+        else statusLabel.setText(String.format("%,d bookings", p.rows()));
     }
 }